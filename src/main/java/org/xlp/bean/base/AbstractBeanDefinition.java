@@ -34,6 +34,11 @@ public abstract class AbstractBeanDefinition implements IBeanDefinition, IBeanFi
      */
     private IBeanCreator beanCreator;
 
+    /**
+     * bean属性注入计划，首次使用时编译
+     */
+    private volatile BeanInjectionPlan injectionPlan;
+
     /**
      * 构造函数
      * @param beanFields 获取IBeanField数组信息的对象
@@ -119,6 +124,22 @@ public abstract class AbstractBeanDefinition implements IBeanDefinition, IBeanFi
         return beanFields.getBeanFields();
     }
 
+    /**
+     * 获取bean属性注入计划，只编译一次
+     *
+     * @return 注入计划
+     * @throws BeanBaseException 假如编译注入计划失败，则抛出该异常
+     */
+    @Override
+    public BeanInjectionPlan getInjectionPlan() {
+        BeanInjectionPlan plan = injectionPlan;
+        if (plan == null){
+            plan = BeanInjectionPlan.compile(getBeanFields());
+            injectionPlan = plan;
+        }
+        return plan;
+    }
+
     /**
      * 获取类泛型信息，假如无泛型类型，则返回空数组
      *
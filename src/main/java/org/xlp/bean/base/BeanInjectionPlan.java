@@ -0,0 +1,221 @@
+package org.xlp.bean.base;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.exception.BeanBaseException;
+import org.xlp.javabean.utils.MethodNameUtil;
+import org.xlp.utils.XLPStringUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * bean属性注入计划
+ * <p>由bean定义的{@link IBeanField}编译而成，只包含需要注入的字段，每个字段的set函数及依赖bean的查找方式都已预先解析，
+ * 创建bean时无需再通过反射查找set函数</p>
+ */
+public final class BeanInjectionPlan {
+    /**
+     * set函数统一转换成的方法类型：(Object target, Object value)void
+     */
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 空注入计划
+     */
+    private static final FieldInjection[] EMPTY_INJECTIONS = new FieldInjection[0];
+
+    /**
+     * 需要注入的字段
+     */
+    private final FieldInjection[] injections;
+
+    private BeanInjectionPlan(FieldInjection[] injections) {
+        this.injections = injections;
+    }
+
+    /**
+     * 编译bean属性注入计划，跳过数组、基本类型及没有set函数的字段
+     * @param beanFields bean字段，可为null
+     * @return 注入计划
+     * @throws BeanBaseException 假如set函数无法访问，则抛出该异常
+     */
+    public static BeanInjectionPlan compile(IBeanField[] beanFields){
+        if (beanFields == null || beanFields.length == 0){
+            return new BeanInjectionPlan(EMPTY_INJECTIONS);
+        }
+        List<FieldInjection> injections = new ArrayList<>(beanFields.length);
+        for (IBeanField beanField : beanFields) {
+            //跳过不是字段适配的属性
+            if (beanField.isArray() || beanField.isPrimary() || !beanField.hasSetMethod()){
+                continue;
+            }
+            Method setter = findSetter(beanField);
+            if (setter != null){
+                injections.add(new FieldInjection(beanField, setter, toMethodHandle(setter)));
+            }
+        }
+        return new BeanInjectionPlan(injections.toArray(EMPTY_INJECTIONS));
+    }
+
+    /**
+     * 查找字段对应的set函数
+     * @param beanField bean字段
+     * @return 没有set函数返回null
+     */
+    private static Method findSetter(IBeanField beanField){
+        String setMethodName = MethodNameUtil.createSetterMethodName(beanField.getName());
+        try {
+            return beanField.getBeanClass().getMethod(setMethodName, beanField.getFieldClass());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 把set函数转换成(Object, Object)void类型的{@link MethodHandle}
+     * @param method set函数
+     * @return set函数对应的MethodHandle
+     * @throws BeanBaseException 假如set函数无法访问，则抛出该异常
+     */
+    private static MethodHandle toMethodHandle(Method method){
+        try {
+            // 非public类中的public函数，需取消访问检查
+            method.setAccessible(true);
+        } catch (RuntimeException ignored) {
+        }
+        try {
+            return MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeanBaseException(e);
+        }
+    }
+
+    /**
+     * 获取需要注入的字段
+     * @return 需要注入的字段，调用者不应修改该数组
+     */
+    public FieldInjection[] getInjections() {
+        return injections;
+    }
+
+    /**
+     * 依赖bean的查找方式
+     */
+    public enum LookupStrategy {
+        /**
+         * 根据{@link org.xlp.bean.annotation.AutoFill#refId()}查找
+         */
+        REF_ID,
+
+        /**
+         * 根据字段类型查找
+         */
+        FIELD_CLASS
+    }
+
+    /**
+     * 单个字段的注入信息
+     */
+    public static final class FieldInjection {
+        private final IBeanField beanField;
+
+        /**
+         * set函数
+         */
+        private final Method setterMethod;
+
+        /**
+         * 已转换成(Object, Object)void类型的set函数
+         */
+        private final MethodHandle setter;
+
+        private final LookupStrategy strategy;
+
+        /**
+         * 依赖bean的类型，即字段类型
+         */
+        private final Class<?> refClass;
+
+        /**
+         * 依赖bean的泛型信息，{@link LookupStrategy#FIELD_CLASS}时为空数组
+         */
+        private final Type[] actualTypes;
+
+        private FieldInjection(IBeanField beanField, Method setterMethod, MethodHandle setter) {
+            this.beanField = beanField;
+            this.setterMethod = setterMethod;
+            this.setter = setter;
+            this.refClass = beanField.getFieldClass();
+            if (!XLPStringUtil.isEmpty(beanField.getRefBeanId())){
+                strategy = LookupStrategy.REF_ID;
+                actualTypes = beanField.getActualType();
+            } else {
+                strategy = LookupStrategy.FIELD_CLASS;
+                actualTypes = new Type[0];
+            }
+        }
+
+        /**
+         * 给目标对象的该字段赋值
+         * @param target 目标对象
+         * @param value 字段值
+         * @throws NullPointerException 假如目标对象为null，则抛出该异常
+         * @throws BeanBaseException 假如执行set函数失败，则抛出该异常
+         */
+        public void inject(Object target, Object value){
+            AssertUtils.isNotNull(target, "target parameter is null!");
+            try {
+                setter.invokeExact(target, value);
+            } catch (BeanBaseException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanBaseException(e);
+            }
+        }
+
+        /**
+         * 获取bean字段
+         * @return
+         */
+        public IBeanField getBeanField() {
+            return beanField;
+        }
+
+        /**
+         * 获取set函数
+         * @return
+         */
+        public Method getSetterMethod() {
+            return setterMethod;
+        }
+
+        /**
+         * 获取依赖bean的查找方式
+         * @return
+         */
+        public LookupStrategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * 获取依赖bean的类型
+         * @return
+         */
+        public Class<?> getRefClass() {
+            return refClass;
+        }
+
+        /**
+         * 获取依赖bean的泛型信息
+         * @return
+         */
+        public Type[] getActualTypes() {
+            return actualTypes;
+        }
+    }
+}
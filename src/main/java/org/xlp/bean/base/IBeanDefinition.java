@@ -80,6 +80,15 @@ public interface IBeanDefinition extends IParameterizedType{
      */
     IBeanField[] getBeanFields();
 
+    /**
+     * 获取bean属性注入计划
+     * <p>默认每次调用都根据{@link #getBeanFields()}重新编译，实现类应缓存该结果</p>
+     * @return 注入计划
+     */
+    default BeanInjectionPlan getInjectionPlan(){
+        return BeanInjectionPlan.compile(getBeanFields());
+    }
+
     /**
      * 获取bean创建器
      * @return
@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 /**
  * 该接口是处理更加复杂场景下的方法执行时是否需要做增强处理
  * 该接口需要配合<code>{@link org.xlp.bean.annotation.MethodProxy}</code>注解使用
+ * <p>每个被代理方法的实现类只创建一个实例，该实例在所有调用及线程间共享，实现类应是无状态的</p>
  * @see org.xlp.bean.annotation.MethodProxy
  */
 @FunctionalInterface
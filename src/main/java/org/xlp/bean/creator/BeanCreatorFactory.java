@@ -3,17 +3,42 @@ package org.xlp.bean.creator;
 import org.xlp.assertion.AssertUtils;
 import org.xlp.bean.base.IBeanCreator;
 import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.exception.BeanBaseException;
 
 /**
  * 获取bean生成器工厂
  */
 public class BeanCreatorFactory {
+    /**
+     * 是否为非单例bean定义生成专用的bean工厂类，默认为true
+     * @see GeneratedClassBeanCreator
+     */
+    private static volatile boolean generateFactoryClass = true;
+
+    /**
+     * 设置是否为非单例bean定义生成专用的bean工厂类
+     * <p>非单例bean每次获取都会重新创建并注入属性，生成的工厂类直接调用构造函数及set函数；
+     * 单例bean只创建一次，不生成工厂类</p>
+     * @param generateFactoryClass true：生成，false：不生成
+     */
+    public static void setGenerateFactoryClass(boolean generateFactoryClass){
+        BeanCreatorFactory.generateFactoryClass = generateFactoryClass;
+    }
+
+    /**
+     * 是否为非单例bean定义生成专用的bean工厂类
+     * @return true：是，false：否
+     */
+    public static boolean isGenerateFactoryClass(){
+        return generateFactoryClass;
+    }
+
     /**
      * 根据bean定义获取相应的bean创建器
      * @param definition bean定义
      * @return
      * @throws NullPointerException 假如参数为null，则抛出该异常
-     * @throws org.xlp.bean.exception.BeanBaseException 假如获取bean创建器失败，则抛出该异常
+     * @throws BeanBaseException 假如获取bean创建器失败，则抛出该异常
      */
     public static IBeanCreator getBeanCreator(IBeanDefinition definition){
         AssertUtils.isNotNull(definition, "definition parameter is null!");
@@ -23,7 +48,19 @@ public class BeanCreatorFactory {
         if (definition.isProxy()){
             return new ClassProxyBeanCreator(beanClass);
         } else {
-            return new NoParameterConstructorReflectBeanCreator(beanClass);
+            if (generateFactoryClass && !definition.isSingleton()){
+                // 无法生成时使用其他创建器
+                GeneratedClassBeanCreator beanCreator = GeneratedClassBeanCreator.create(definition);
+                if (beanCreator != null){
+                    return beanCreator;
+                }
+            }
+            try {
+                return new NoParameterConstructorLambdaBeanCreator(beanClass);
+            } catch (BeanBaseException e) {
+                // 无参构造函数不存在或无法访问时，使用反射创建器，创建bean实例时再报告错误
+                return new NoParameterConstructorReflectBeanCreator(beanClass);
+            }
         }
     }
 }
@@ -0,0 +1,325 @@
+package org.xlp.bean.creator;
+
+import org.xlp.bean.exception.BeanBaseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link GeneratedBeanFactory}实现类的字节码生成器
+ * <p>生成的类只包含三个函数，且都没有分支：</p>
+ * <pre>
+ * public Object newInstance() { return new Bean(); }
+ * public void inject(Object bean, Object[] values) {
+ *     Bean target = (Bean) bean;
+ *     target.setA((A) values[0]);
+ *     target.setB((B) values[1]);
+ *     ...
+ * }
+ * </pre>
+ * <p>class文件版本为52（java 8），没有分支因此不需要StackMapTable</p>
+ */
+final class BeanFactoryClassGenerator {
+    private static final int CLASS_VERSION = 52;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ASTORE_3 = 0x4e;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int AALOAD = 0x32;
+    private static final int POP = 0x57;
+    private static final int POP2 = 0x58;
+    private static final int DUP = 0x59;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int NEW = 0xbb;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private BeanFactoryClassGenerator(){
+    }
+
+    /**
+     * 生成{@link GeneratedBeanFactory}实现类的字节码
+     * @param className 生成类的内部名称，例如：org/xlp/bean/creator/XxxFactory
+     * @param beanClass bean类型，需有public无参构造函数
+     * @param setters set函数，顺序与{@link GeneratedBeanFactory#inject(Object, Object[])}中的属性值一致
+     * @return class文件字节码
+     */
+    static byte[] generate(String className, Class<?> beanClass, Method[] setters){
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(className);
+        int superClass = pool.classRef(OBJECT);
+        int factoryInterface = pool.classRef(internalName(GeneratedBeanFactory.class));
+        int codeName = pool.utf8("Code");
+        int beanClassRef = pool.classRef(internalName(beanClass));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try {
+            DataOutputStream methods = new DataOutputStream(out);
+            // 默认构造函数
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            code.write(ALOAD_0);
+            writeInstruction(code, INVOKESPECIAL, pool.methodRef(OBJECT, "<init>", "()V"));
+            code.write(RETURN);
+            writeMethod(methods, pool, codeName, "<init>", "()V", 1, 1, code.toByteArray());
+
+            // newInstance
+            code.reset();
+            writeInstruction(code, NEW, beanClassRef);
+            code.write(DUP);
+            writeInstruction(code, INVOKESPECIAL, pool.methodRef(internalName(beanClass), "<init>", "()V"));
+            code.write(ARETURN);
+            writeMethod(methods, pool, codeName, "newInstance", "()Ljava/lang/Object;", 2, 1,
+                    code.toByteArray());
+
+            // inject
+            code.reset();
+            code.write(ALOAD_1);
+            writeInstruction(code, CHECKCAST, beanClassRef);
+            code.write(ASTORE_3);
+            for (int i = 0; i < setters.length; i++) {
+                Method setter = setters[i];
+                Class<?> parameterType = setter.getParameterTypes()[0];
+                code.write(ALOAD_3);
+                code.write(ALOAD_2);
+                writeIndex(code, pool, i);
+                code.write(AALOAD);
+                writeInstruction(code, CHECKCAST, pool.classRef(internalName(parameterType)));
+                writeInstruction(code, INVOKEVIRTUAL, pool.methodRef(internalName(beanClass), setter.getName(),
+                        "(" + descriptor(parameterType) + ")" + descriptor(setter.getReturnType())));
+                Class<?> returnType = setter.getReturnType();
+                if (returnType == long.class || returnType == double.class){
+                    code.write(POP2);
+                } else if (returnType != void.class){
+                    code.write(POP);
+                }
+            }
+            code.write(RETURN);
+            writeMethod(methods, pool, codeName, "inject", "(Ljava/lang/Object;[Ljava/lang/Object;)V", 3, 4,
+                    code.toByteArray());
+            methods.flush();
+            byte[] methodBytes = out.toByteArray();
+
+            out.reset();
+            DataOutputStream classFile = new DataOutputStream(out);
+            classFile.writeInt(0xCAFEBABE);
+            classFile.writeShort(0);
+            classFile.writeShort(CLASS_VERSION);
+            pool.writeTo(classFile);
+            classFile.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            classFile.writeShort(thisClass);
+            classFile.writeShort(superClass);
+            classFile.writeShort(1);
+            classFile.writeShort(factoryInterface);
+            // 字段数
+            classFile.writeShort(0);
+            classFile.writeShort(3);
+            classFile.write(methodBytes);
+            // 类属性数
+            classFile.writeShort(0);
+            classFile.flush();
+        } catch (IOException e) {
+            throw new BeanBaseException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, ConstantPool pool, int codeName, String name,
+                                    String descriptor, int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        // 只有Code属性
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        // 异常表长度
+        out.writeShort(0);
+        // Code属性的属性数
+        out.writeShort(0);
+    }
+
+    private static void writeInstruction(ByteArrayOutputStream code, int opcode, int index){
+        code.write(opcode);
+        code.write(index >>> 8);
+        code.write(index);
+    }
+
+    private static void writeIndex(ByteArrayOutputStream code, ConstantPool pool, int index){
+        if (index <= 5){
+            code.write(ICONST_0 + index);
+        } else if (index <= Byte.MAX_VALUE){
+            code.write(BIPUSH);
+            code.write(index);
+        } else if (index <= Short.MAX_VALUE){
+            code.write(SIPUSH);
+            code.write(index >>> 8);
+            code.write(index);
+        } else {
+            writeInstruction(code, LDC_W, pool.integer(index));
+        }
+    }
+
+    /**
+     * 获取类的内部名称
+     * @param type 类型
+     * @return 内部名称，例如：java/lang/String
+     */
+    static String internalName(Class<?> type){
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * 获取类型描述符
+     * @param type 类型
+     * @return 类型描述符，例如：Ljava/lang/String;
+     */
+    static String descriptor(Class<?> type){
+        if (type.isArray()){
+            return internalName(type);
+        }
+        if (type.isPrimitive()){
+            if (type == void.class) return "V";
+            if (type == boolean.class) return "Z";
+            if (type == byte.class) return "B";
+            if (type == char.class) return "C";
+            if (type == short.class) return "S";
+            if (type == int.class) return "I";
+            if (type == long.class) return "J";
+            if (type == float.class) return "F";
+            return "D";
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    /**
+     * 常量池
+     */
+    private static final class ConstantPool {
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_INTEGER = 3;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_METHOD_REF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * 已添加的常量，避免重复添加，key: 常量类型及内容，value: 常量池索引
+         */
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        /**
+         * 下一个常量的索引，常量池索引从1开始
+         */
+        private int nextIndex = 1;
+
+        int utf8(String value){
+            Integer index = indexes.get("U" + value);
+            if (index != null){
+                return index;
+            }
+            try {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new BeanBaseException(e);
+            }
+            return register("U" + value);
+        }
+
+        int integer(int value){
+            Integer index = indexes.get("I" + value);
+            if (index != null){
+                return index;
+            }
+            try {
+                out.writeByte(CONSTANT_INTEGER);
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new BeanBaseException(e);
+            }
+            return register("I" + value);
+        }
+
+        int classRef(String internalName){
+            Integer index = indexes.get("C" + internalName);
+            if (index != null){
+                return index;
+            }
+            int name = utf8(internalName);
+            writeRef(CONSTANT_CLASS, name);
+            return register("C" + internalName);
+        }
+
+        int methodRef(String owner, String name, String descriptor){
+            String key = "M" + owner + "." + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index != null){
+                return index;
+            }
+            int ownerIndex = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            writeRef(CONSTANT_METHOD_REF, ownerIndex, nameAndType);
+            return register(key);
+        }
+
+        private int nameAndType(String name, String descriptor){
+            String key = "N" + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index != null){
+                return index;
+            }
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            writeRef(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+            return register(key);
+        }
+
+        private void writeRef(int tag, int... refs){
+            try {
+                out.writeByte(tag);
+                for (int ref : refs) {
+                    out.writeShort(ref);
+                }
+            } catch (IOException e) {
+                throw new BeanBaseException(e);
+            }
+        }
+
+        private int register(String key){
+            int index = nextIndex++;
+            indexes.put(key, index);
+            return index;
+        }
+
+        void writeTo(DataOutputStream classFile) throws IOException {
+            out.flush();
+            classFile.writeShort(nextIndex);
+            bytes.writeTo(classFile);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.xlp.bean.creator;
+
+/**
+ * 运行时为每个bean定义生成的bean工厂类实现的接口
+ * <p>实现类由{@link BeanFactoryClassGenerator}生成，直接使用字节码调用无参构造函数及set函数</p>
+ * @see GeneratedClassBeanCreator
+ */
+public interface GeneratedBeanFactory {
+    /**
+     * 创建bean实例
+     * @return bean实例
+     */
+    Object newInstance();
+
+    /**
+     * 给bean实例的属性赋值
+     * @param bean bean实例
+     * @param values 属性值，与bean定义的注入计划{@link org.xlp.bean.base.BeanInjectionPlan#getInjections()}顺序一致
+     */
+    void inject(Object bean, Object[] values);
+}
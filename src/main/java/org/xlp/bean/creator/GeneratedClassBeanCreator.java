@@ -0,0 +1,246 @@
+package org.xlp.bean.creator;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.base.BeanInjectionPlan;
+import org.xlp.bean.base.IBeanCreator;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.exception.BeanBaseException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 使用运行时生成的bean工厂类创建bean并给属性赋值的bean创建器
+ * <p>每个bean定义生成一个{@link GeneratedBeanFactory}实现类，直接用字节码调用无参构造函数及注入计划中的set函数，
+ * 生成的类定义为隐藏类（java 15+）或匿名类（java 8），不再使用时可被卸载</p>
+ * <p>bean类型、构造函数、set函数及其参数类型都需是public且对当前类的类加载器可见，否则无法生成，
+ * 此时{@link #create(IBeanDefinition)}返回null，由调用者使用其他创建器</p>
+ */
+public class GeneratedClassBeanCreator implements IBeanCreator {
+    /**
+     * 生成类名称的序号
+     */
+    private static final AtomicLong CLASS_INDEX = new AtomicLong();
+
+    /**
+     * 生成类名称的前缀，生成类需和定义它的类在同一个包中
+     */
+    private static final String CLASS_NAME_PREFIX = BeanFactoryClassGenerator.internalName(
+            GeneratedClassBeanCreator.class) + "$$Factory$$";
+
+    /**
+     * 当前JVM定义生成类的方式
+     */
+    private static final ClassDefiner CLASS_DEFINER = createClassDefiner();
+
+    /**
+     * bean 类型
+     */
+    private final Class<?> beanClass;
+
+    /**
+     * 生成的bean工厂
+     */
+    private final GeneratedBeanFactory factory;
+
+    private GeneratedClassBeanCreator(Class<?> beanClass, GeneratedBeanFactory factory) {
+        this.beanClass = beanClass;
+        this.factory = factory;
+    }
+
+    /**
+     * 根据bean定义生成bean工厂类并创建bean创建器
+     * @param definition bean定义
+     * @return 无法生成时返回null
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    public static GeneratedClassBeanCreator create(IBeanDefinition definition){
+        AssertUtils.isNotNull(definition, "definition parameter is null!");
+        return create(definition, CLASS_DEFINER);
+    }
+
+    /**
+     * 根据bean定义生成bean工厂类，并用给定的类定义方式定义该类
+     * @param definition bean定义
+     * @param classDefiner 类定义方式，为null时无法生成
+     * @return 无法生成时返回null
+     */
+    private static GeneratedClassBeanCreator create(IBeanDefinition definition, ClassDefiner classDefiner){
+        if (classDefiner == null){
+            return null;
+        }
+        Class<?> beanClass = definition.getBeanClass();
+        BeanInjectionPlan.FieldInjection[] injections;
+        try {
+            injections = definition.getInjectionPlan().getInjections();
+        } catch (BeanBaseException e) {
+            return null;
+        }
+        Method[] setters = new Method[injections.length];
+        for (int i = 0; i < injections.length; i++) {
+            setters[i] = injections[i].getSetterMethod();
+        }
+        if (!isAccessible(beanClass, setters)){
+            return null;
+        }
+
+        byte[] bytes = BeanFactoryClassGenerator.generate(CLASS_NAME_PREFIX + CLASS_INDEX.incrementAndGet(),
+                beanClass, setters);
+        try {
+            Class<?> factoryClass = classDefiner.define(bytes);
+            GeneratedBeanFactory factory = (GeneratedBeanFactory) factoryClass.getConstructor().newInstance();
+            return new GeneratedClassBeanCreator(beanClass, factory);
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 判断生成的类能否访问bean类型的无参构造函数及set函数
+     * @param beanClass bean类型
+     * @param setters set函数
+     * @return true：能，false：不能
+     */
+    private static boolean isAccessible(Class<?> beanClass, Method[] setters){
+        if (Modifier.isAbstract(beanClass.getModifiers()) || !isVisible(beanClass)){
+            return false;
+        }
+        try {
+            Constructor<?> constructor = beanClass.getDeclaredConstructor();
+            if (!Modifier.isPublic(constructor.getModifiers())){
+                return false;
+            }
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        for (Method setter : setters) {
+            if (!Modifier.isPublic(setter.getModifiers()) || Modifier.isStatic(setter.getModifiers())
+                    || !isVisible(setter.getParameterTypes()[0]) || !isVisible(setter.getReturnType())){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断类型是否是public且对当前类的类加载器可见
+     * @param type 类型
+     * @return true：是，false：否
+     */
+    private static boolean isVisible(Class<?> type){
+        if (type.isPrimitive()){
+            return true;
+        }
+        if (type.isArray()){
+            return isVisible(type.getComponentType());
+        }
+        for (Class<?> aClass = type; aClass != null; aClass = aClass.getEnclosingClass()) {
+            if (!Modifier.isPublic(aClass.getModifiers())){
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, GeneratedClassBeanCreator.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取当前JVM支持的类定义方式，优先使用隐藏类，其次使用Unsafe匿名类
+     * @return 都不支持返回null
+     */
+    private static ClassDefiner createClassDefiner(){
+        ClassDefiner classDefiner = hiddenClassDefiner();
+        return classDefiner == null ? anonymousClassDefiner() : classDefiner;
+    }
+
+    /**
+     * java 15+: MethodHandles.Lookup#defineHiddenClass(byte[], boolean, ClassOption...)
+     * @return 不支持返回null
+     */
+    private static ClassDefiner hiddenClassDefiner(){
+        try {
+            Class<?> optionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            Object options = Array.newInstance(optionClass, 0);
+            Method defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+                    byte[].class, boolean.class, options.getClass());
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return bytes -> ((MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, options))
+                    .lookupClass();
+        } catch (ClassNotFoundException | NoSuchMethodException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * java 8: sun.misc.Unsafe#defineAnonymousClass(Class, byte[], Object[])
+     * @return 不支持返回null
+     */
+    private static ClassDefiner anonymousClassDefiner(){
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            Method defineAnonymousClass = unsafeClass.getMethod("defineAnonymousClass",
+                    Class.class, byte[].class, Object[].class);
+            return bytes -> (Class<?>) defineAnonymousClass.invoke(unsafe, GeneratedClassBeanCreator.class,
+                    bytes, null);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取目标bean类型
+     *
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Class<T> getBeanClass() {
+        return (Class<T>) beanClass;
+    }
+
+    /**
+     * 创建bean对象
+     *
+     * @return
+     * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T createBean() throws BeanBaseException{
+        return (T) factory.newInstance();
+    }
+
+    /**
+     * 给bean实例的属性赋值
+     * @param bean bean实例
+     * @param values 属性值，与bean定义注入计划中的字段顺序一致
+     * @throws BeanBaseException 假如执行set函数失败，则抛出该异常
+     */
+    public void inject(Object bean, Object[] values){
+        try {
+            factory.inject(bean, values);
+        } catch (BeanBaseException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanBaseException(e);
+        }
+    }
+
+    /**
+     * 定义生成类的方式
+     */
+    @FunctionalInterface
+    private interface ClassDefiner {
+        Class<?> define(byte[] bytes) throws Exception;
+    }
+}
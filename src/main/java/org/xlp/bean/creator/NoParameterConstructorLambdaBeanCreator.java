@@ -0,0 +1,165 @@
+package org.xlp.bean.creator;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.base.IBeanCreator;
+import org.xlp.bean.exception.BeanBaseException;
+import org.xlp.bean.util.ClassForNameUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * 使用无参构造函数创建指定类型的bean对象创建器
+ * <p>创建器初始化时通过{@link LambdaMetafactory}把无参构造函数生成{@link Supplier}，
+ * 之后每次创建bean都是直接调用构造函数，没有反射的访问检查开销；
+ * 假如构造函数对当前类不可见（非public或类加载器不可见），则退化为使用{@link MethodHandle}调用构造函数，
+ * 访问规则与{@link Class#newInstance()}一致</p>
+ * 如果是抽象类、接口或没有无参构造函数则会抛出{@link BeanBaseException}异常
+ */
+public class NoParameterConstructorLambdaBeanCreator implements IBeanCreator {
+    /**
+     * bean 类型
+     */
+    private final Class<?> beanClass;
+
+    /**
+     * 调用无参构造函数的函数
+     */
+    private final Supplier<?> constructor;
+
+    /**
+     * 构造器
+     *
+     * @param beanClass bean类型
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     * @throws BeanBaseException    假如是抽象类、接口或没有无参构造函数，则抛出该异常
+     */
+    public <T> NoParameterConstructorLambdaBeanCreator(Class<T> beanClass) {
+        AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
+        if (Modifier.isAbstract(beanClass.getModifiers())){
+            throw new BeanBaseException("该类型【" + beanClass.getName() + "】是抽象类或接口，不能创建实例！");
+        }
+        this.beanClass = beanClass;
+        Constructor<T> declaredConstructor;
+        try {
+            declaredConstructor = beanClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BeanBaseException("该类型【" + beanClass.getName() + "】没有无参构造函数！", e);
+        }
+        this.constructor = canUseLambda(declaredConstructor) ? lambdaConstructor(declaredConstructor)
+                : methodHandleConstructor(declaredConstructor);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param className 类名称
+     * @throws NullPointerException 假如参数为null或空 则抛出该异常
+     * @throws BeanBaseException    假如获取beanClassName对应的Class对象出错，则抛出该异常
+     */
+    public NoParameterConstructorLambdaBeanCreator(String className) {
+        this(ClassForNameUtils.forName(className));
+    }
+
+    /**
+     * 判断是否能用{@link LambdaMetafactory}生成构造函数调用
+     * <p>生成的lambda类定义在当前类的类加载器中，需要类型及构造函数都是public，且bean类型对当前类的类加载器可见</p>
+     * @param declaredConstructor 无参构造函数
+     * @return true：能，false：不能
+     */
+    private static boolean canUseLambda(Constructor<?> declaredConstructor){
+        Class<?> beanClass = declaredConstructor.getDeclaringClass();
+        if (!Modifier.isPublic(declaredConstructor.getModifiers())){
+            return false;
+        }
+        for (Class<?> aClass = beanClass; aClass != null; aClass = aClass.getEnclosingClass()) {
+            if (!Modifier.isPublic(aClass.getModifiers())){
+                return false;
+            }
+        }
+        try {
+            return Class.forName(beanClass.getName(), false,
+                    NoParameterConstructorLambdaBeanCreator.class.getClassLoader()) == beanClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 通过{@link LambdaMetafactory}生成调用构造函数的{@link Supplier}
+     * @param declaredConstructor 无参构造函数
+     * @return 调用构造函数的函数
+     * @throws BeanBaseException 假如生成失败，则抛出该异常
+     */
+    private static Supplier<?> lambdaConstructor(Constructor<?> declaredConstructor){
+        Class<?> beanClass = declaredConstructor.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodHandle handle = lookup.unreflectConstructor(declaredConstructor);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    handle, MethodType.methodType(beanClass));
+            return (Supplier<?>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new BeanBaseException("生成类型【" + beanClass.getName() + "】的构造函数调用失败！", e);
+        }
+    }
+
+    /**
+     * 通过{@link MethodHandle}调用构造函数，用于无法生成lambda的情况
+     * <p>与{@link Class#newInstance()}的访问规则一致，不调用{@link Constructor#setAccessible(boolean)}，
+     * 对当前类不可访问的构造函数（如private构造函数）在创建bean时抛出异常</p>
+     * @param declaredConstructor 无参构造函数
+     * @return 调用构造函数的函数
+     */
+    private static Supplier<?> methodHandleConstructor(Constructor<?> declaredConstructor){
+        Class<?> beanClass = declaredConstructor.getDeclaringClass();
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (IllegalAccessException e) {
+            return () -> {
+                throw new BeanBaseException("类型【" + beanClass.getName() + "】的无参构造函数无法访问！", e);
+            };
+        }
+        return () -> {
+            try {
+                return handle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanBaseException(e);
+            }
+        };
+    }
+
+    /**
+     * 获取目标bean类型
+     *
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Class<T> getBeanClass() {
+        return (Class<T>) beanClass;
+    }
+
+    /**
+     * 创建bean对象
+     *
+     * @return
+     * @throws BeanBaseException 假如创建bean实例失败或无参构造函数无法访问，则抛出该异常
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T createBean() throws BeanBaseException{
+        return (T) constructor.get();
+    }
+}
@@ -0,0 +1,34 @@
+package org.xlp.bean.exception;
+
+import org.xlp.bean.base.IBeanField;
+import org.xlp.utils.collection.XLPCollectionUtil;
+
+import java.util.Collection;
+
+/**
+ * 必须注入的属性找不到对应的bean
+ */
+public class UnsatisfiedDependencyException extends BeanBaseException{
+    private static final long serialVersionUID = 4170628873541208623L;
+
+    public UnsatisfiedDependencyException(String message) {
+        super(message);
+    }
+
+    /**
+     * 获取依赖未满足的错误提示信息
+     * @param beanFields 找不到对应bean的属性
+     * @return
+     * @throws IllegalArgumentException 假如参数为null或为空集合，则抛出该异常
+     */
+    public static String getUnsatisfiedDependencyMsg(Collection<IBeanField> beanFields){
+        if (XLPCollectionUtil.isEmpty(beanFields)){
+            throw new IllegalArgumentException("beanFields parameter not be null or empty!");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (IBeanField beanField : beanFields) {
+            sb.append(beanField.getBeanClass().getName()).append(".").append(beanField.getName()).append(",");
+        }
+        return "[" + sb.toString() + "]属性未找到对应的bean，装配属性失败！";
+    }
+}
@@ -0,0 +1,114 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.base.IBeanField;
+import org.xlp.bean.util.SuperTypeUtils;
+import org.xlp.utils.XLPStringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * bean定义的反向依赖索引，记录bean id及类型名称被哪些bean定义的注入字段引用
+ * <p>与容器中的bean定义同步维护，查找依赖某个bean定义的bean定义时无需遍历所有bean定义；
+ * 按名称索引，已被移除或覆盖的旧bean定义也能查到可能依赖它的bean定义</p>
+ */
+final class BeanConsumerIndex {
+    /**
+     * key: bean id（refId）, value: 注入字段可能按该bean id查找的bean定义集合
+     */
+    private final Map<String, Set<IBeanDefinition>> idConsumers = new ConcurrentHashMap<>(16);
+
+    /**
+     * key: 字段类型名称, value: 注入字段可能按该类型查找的bean定义集合
+     */
+    private final Map<String, Set<IBeanDefinition>> typeConsumers = new ConcurrentHashMap<>(16);
+
+    /**
+     * 添加bean定义
+     * @param definition bean定义
+     */
+    void add(IBeanDefinition definition){
+        for (IBeanField beanField : getInjectedFields(definition)) {
+            String refBeanId = beanField.getRefBeanId();
+            if (!XLPStringUtil.isEmpty(refBeanId)){
+                add(idConsumers, refBeanId, definition);
+            } else {
+                add(typeConsumers, beanField.getFieldClassName(), definition);
+            }
+        }
+    }
+
+    /**
+     * 移除bean定义
+     * @param definition 添加时的bean定义
+     */
+    void remove(IBeanDefinition definition){
+        for (IBeanField beanField : getInjectedFields(definition)) {
+            remove(idConsumers, beanField.getRefBeanId(), definition);
+            remove(typeConsumers, beanField.getFieldClassName(), definition);
+        }
+    }
+
+    /**
+     * 获取注入字段可能引用给定bean定义的bean定义，宽松匹配，不比较泛型
+     * @param definition bean定义，可以是已被移除或覆盖的旧bean定义
+     * @return 可能依赖给定bean定义的bean定义
+     */
+    Set<IBeanDefinition> getConsumers(IBeanDefinition definition){
+        Set<IBeanDefinition> consumers = new LinkedHashSet<>();
+        String beanId = definition.getBeanId();
+        if (!XLPStringUtil.isEmpty(beanId)){
+            addAll(consumers, idConsumers.get(beanId));
+        }
+        for (Class<?> type : SuperTypeUtils.getAllSuperTypes(definition.getBeanClass())) {
+            addAll(consumers, typeConsumers.get(type.getName()));
+        }
+        return consumers;
+    }
+
+    /**
+     * 获取需要注入的字段，跳过规则与{@link org.xlp.bean.base.BeanInjectionPlan#compile(IBeanField[])}一致
+     */
+    private static List<IBeanField> getInjectedFields(IBeanDefinition definition){
+        IBeanField[] beanFields = definition.getBeanFields();
+        if (beanFields == null){
+            return Collections.emptyList();
+        }
+        List<IBeanField> injectedFields = new ArrayList<>(beanFields.length);
+        for (IBeanField beanField : beanFields) {
+            if (!beanField.isArray() && !beanField.isPrimary() && beanField.hasSetMethod()){
+                injectedFields.add(beanField);
+            }
+        }
+        return injectedFields;
+    }
+
+    private static void add(Map<String, Set<IBeanDefinition>> index, String key, IBeanDefinition definition){
+        if (XLPStringUtil.isEmpty(key)){
+            return;
+        }
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(definition);
+    }
+
+    private static void remove(Map<String, Set<IBeanDefinition>> index, String key, IBeanDefinition definition){
+        if (XLPStringUtil.isEmpty(key)){
+            return;
+        }
+        index.computeIfPresent(key, (k, value) -> {
+            value.remove(definition);
+            return value.isEmpty() ? null : value;
+        });
+    }
+
+    private static void addAll(Set<IBeanDefinition> consumers, Set<IBeanDefinition> definitions){
+        if (definitions != null){
+            consumers.addAll(definitions);
+        }
+    }
+}
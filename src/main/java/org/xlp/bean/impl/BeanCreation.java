@@ -0,0 +1,155 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.exception.BeanBaseException;
+import org.xlp.bean.exception.CircularDependencyException;
+import org.xlp.bean.object.BeanObject;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单例bean的创建状态
+ * <p>每个单例bean定义对应一个该对象，状态为{@link State#CREATING}或{@link State#READY}，
+ * 其他线程需要该bean时在{@link #await()}上挂起等待创建完成，而不是自旋等待</p>
+ * <p>等待前沿着“创建线程正在等待的创建状态”查找，回到当前线程说明多个线程之间存在循环依赖，此时抛出异常而不是互相等待</p>
+ */
+final class BeanCreation {
+    /**
+     * 正在等待其他线程创建bean的线程，key: 等待的线程, value: 等待的创建状态
+     */
+    private static final Map<Thread, BeanCreation> WAITING = new ConcurrentHashMap<>();
+
+    /**
+     * 创建状态
+     */
+    enum State {
+        /**
+         * 正在创建（包括属性注入）
+         */
+        CREATING,
+
+        /**
+         * 已完成创建，可以直接使用
+         */
+        READY
+    }
+
+    /**
+     * 负责创建该bean的线程
+     */
+    private final Thread creator = Thread.currentThread();
+
+    /**
+     * 正在创建的单例bean定义
+     */
+    private final IBeanDefinition definition;
+
+    /**
+     * 创建完成通知
+     */
+    private final CompletableFuture<BeanObject> future = new CompletableFuture<>();
+
+    /**
+     * 当前状态
+     */
+    private volatile State state = State.CREATING;
+
+    /**
+     * 构造函数
+     * @param definition 正在创建的单例bean定义
+     */
+    BeanCreation(IBeanDefinition definition) {
+        this.definition = definition;
+    }
+
+    /**
+     * 获取当前状态
+     * @return 创建状态
+     */
+    State getState() {
+        return state;
+    }
+
+    /**
+     * 判断该bean是否正在被当前线程创建
+     * @return true：是，false：否
+     */
+    boolean isCreatingByCurrentThread(){
+        return state == State.CREATING && creator == Thread.currentThread();
+    }
+
+    /**
+     * 标记创建完成，并唤醒所有等待线程
+     * @param beanObject 创建完成的bean对象
+     */
+    void complete(BeanObject beanObject){
+        state = State.READY;
+        future.complete(beanObject);
+    }
+
+    /**
+     * 标记创建失败，并唤醒所有等待线程
+     * @param throwable 失败原因
+     */
+    void fail(Throwable throwable){
+        future.completeExceptionally(throwable);
+    }
+
+    /**
+     * 等待bean创建完成
+     * @return 创建完成的bean对象
+     * @throws BeanBaseException 假如创建失败，则抛出该异常或其子类异常
+     * @throws CircularDependencyException 假如创建该bean的线程直接或间接在等待当前线程，即存在循环依赖，则抛出该异常
+     */
+    BeanObject await(){
+        if (state == State.READY){
+            return join();
+        }
+        Thread current = Thread.currentThread();
+        WAITING.put(current, this);
+        try {
+            checkWaitingCycle(current);
+            return join();
+        } finally {
+            WAITING.remove(current);
+        }
+    }
+
+    /**
+     * 沿等待关系查找是否回到当前线程
+     * @param current 当前线程
+     * @throws CircularDependencyException 假如存在循环等待，则抛出该异常
+     */
+    private void checkWaitingCycle(Thread current){
+        Set<Class<?>> cycle = new LinkedHashSet<>();
+        Set<Thread> visited = new LinkedHashSet<>();
+        BeanCreation creation = this;
+        while (creation != null && creation.state == State.CREATING && visited.add(creation.creator)) {
+            cycle.add(creation.definition.getBeanClass());
+            if (creation.creator == current){
+                throw new CircularDependencyException(CircularDependencyException.getCircularDependencyMsg(cycle));
+            }
+            creation = WAITING.get(creation.creator);
+        }
+    }
+
+    private BeanObject join(){
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new BeanBaseException(cause);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.xlp.bean.impl;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.scanner.watch.ClassChangeEvent;
+import org.xlp.scanner.watch.ClassChangeListener;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 把{@link org.xlp.scanner.watch.ClassDirectoryWatcher}监听到的class文件变化应用到容器中，
+ * 只重新注册受影响的bean定义
+ * <p>每批变化调用一次类加载器提供者，重新加载修改的类时应返回新的类加载器；
+ * 受影响的bean定义处理函数可使用{@code container::refresh}，只重新创建受影响的单例bean</p>
+ *
+ * @see DefaultBeansContainer#applyClassChanges(List, ClassLoader)
+ */
+public class BeanDefinitionClassChangeListener implements ClassChangeListener {
+    private final DefaultBeansContainer container;
+
+    private final Supplier<ClassLoader> classLoaderSupplier;
+
+    /**
+     * 受影响的bean定义的处理函数，可为null
+     */
+    private final Consumer<List<IBeanDefinition>> changedDefinitionsConsumer;
+
+    /**
+     * 构造函数
+     * @param container 容器
+     * @param classLoaderSupplier 类加载器提供者
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    public BeanDefinitionClassChangeListener(DefaultBeansContainer container,
+                                             Supplier<ClassLoader> classLoaderSupplier) {
+        this(container, classLoaderSupplier, null);
+    }
+
+    /**
+     * 构造函数
+     * @param container 容器
+     * @param classLoaderSupplier 类加载器提供者
+     * @param changedDefinitionsConsumer 重新注册后调用，参数为受影响的bean定义；为null时不调用
+     * @throws NullPointerException 假如参数container或classLoaderSupplier为null，则抛出该异常
+     */
+    public BeanDefinitionClassChangeListener(DefaultBeansContainer container,
+                                             Supplier<ClassLoader> classLoaderSupplier,
+                                             Consumer<List<IBeanDefinition>> changedDefinitionsConsumer) {
+        AssertUtils.isNotNull(container, "container parameter is null!");
+        AssertUtils.isNotNull(classLoaderSupplier, "classLoaderSupplier parameter is null!");
+        this.container = container;
+        this.classLoaderSupplier = classLoaderSupplier;
+        this.changedDefinitionsConsumer = changedDefinitionsConsumer;
+    }
+
+    @Override
+    public void onChange(List<ClassChangeEvent> events) {
+        List<IBeanDefinition> changedDefinitions = container.applyClassChanges(events, classLoaderSupplier.get());
+        if (changedDefinitionsConsumer != null && !changedDefinitions.isEmpty()) {
+            changedDefinitionsConsumer.accept(changedDefinitions);
+        }
+    }
+}
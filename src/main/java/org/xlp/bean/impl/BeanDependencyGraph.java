@@ -0,0 +1,175 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.base.BeanInjectionPlan;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.base.IBeanField;
+import org.xlp.bean.exception.CircularDependencyException;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * bean定义之间的依赖关系图，依赖关系由{@link org.xlp.bean.annotation.AutoFill}标记的字段得出
+ * <p>字段依赖的查找规则与容器注入属性时一致：refId &gt; 字段类型</p>
+ */
+final class BeanDependencyGraph {
+    /**
+     * 确定的依赖关系，key: bean定义, value: 该bean定义依赖的bean定义集合
+     * <p>字段只有一个候选bean定义时才是确定的依赖，用来排序及校验循环依赖</p>
+     */
+    private final Map<IBeanDefinition, Set<IBeanDefinition>> dependencies = new LinkedHashMap<>();
+
+    /**
+     * 需要注入但在bean定义中找不到对应bean的字段
+     */
+    private final List<IBeanField> unresolvedFields = new ArrayList<>();
+
+    /**
+     * 根据bean id获取bean定义
+     */
+    private final Function<String, IBeanDefinition> idLookup;
+
+    /**
+     * 根据类型获取可赋值给该类型的bean定义
+     */
+    private final Function<Class<?>, Set<IBeanDefinition>> typeLookup;
+
+    /**
+     * 构造函数
+     * @param definitions 参与排序及校验的bean定义，其依赖的其他bean定义只按查找结果记录，不再展开
+     * @param idLookup 根据bean id获取bean定义
+     * @param typeLookup 根据类型获取可赋值给该类型的bean定义
+     */
+    BeanDependencyGraph(Collection<IBeanDefinition> definitions,
+                        Function<String, IBeanDefinition> idLookup,
+                        Function<Class<?>, Set<IBeanDefinition>> typeLookup){
+        this.idLookup = idLookup;
+        this.typeLookup = typeLookup;
+        for (IBeanDefinition definition : definitions) {
+            Set<IBeanDefinition> definitionDependencies = new LinkedHashSet<>();
+            // 注入计划中只包含需要注入的字段，与容器创建bean时一致
+            for (BeanInjectionPlan.FieldInjection injection : definition.getInjectionPlan().getInjections()) {
+                Collection<IBeanDefinition> fieldDependencies = resolveField(injection);
+                if (fieldDependencies.isEmpty()){
+                    unresolvedFields.add(injection.getBeanField());
+                } else if (fieldDependencies.size() == 1){
+                    // 多个候选时由容器创建bean时决定注入哪个，不作为确定的依赖参与排序
+                    definitionDependencies.addAll(fieldDependencies);
+                }
+            }
+            dependencies.put(definition, definitionDependencies);
+        }
+    }
+
+    /**
+     * 获取字段可能依赖的bean定义
+     * @param injection 字段注入信息
+     * @return 依赖的bean定义集合，未找到返回空集合
+     */
+    Collection<IBeanDefinition> resolveField(BeanInjectionPlan.FieldInjection injection){
+        IBeanField beanField = injection.getBeanField();
+        if (injection.getStrategy() == BeanInjectionPlan.LookupStrategy.REF_ID){
+            IBeanDefinition refDefinition = idLookup.apply(beanField.getRefBeanId());
+            return refDefinition == null ? Collections.emptySet() : Collections.singleton(refDefinition);
+        }
+        return concreteDefinitions(injection.getRefClass());
+    }
+
+    private Collection<IBeanDefinition> concreteDefinitions(Class<?> beanClass){
+        List<IBeanDefinition> definitions = new ArrayList<>();
+        for (IBeanDefinition definition : typeLookup.apply(beanClass)) {
+            if (!definition.isAbstract()){
+                definitions.add(definition);
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * 获取所有bean定义
+     * @return 只读集合
+     */
+    Set<IBeanDefinition> getDefinitions(){
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * 获取给定bean定义确定依赖的bean定义
+     * @param definition bean定义
+     * @return 只读集合，不在图中返回空集合
+     */
+    Set<IBeanDefinition> getDependencies(IBeanDefinition definition){
+        Set<IBeanDefinition> definitionDependencies = dependencies.get(definition);
+        return definitionDependencies == null ? Collections.emptySet()
+                : Collections.unmodifiableSet(definitionDependencies);
+    }
+
+    /**
+     * 获取需要注入但在bean定义中找不到对应bean的字段
+     * @return 只读集合
+     */
+    List<IBeanField> getUnresolvedFields(){
+        return Collections.unmodifiableList(unresolvedFields);
+    }
+
+    /**
+     * 按依赖关系排序所有bean定义，被依赖的bean定义排在前面
+     * @return 排序后的bean定义
+     * @throws CircularDependencyException 假如存在循环依赖，则抛出该异常
+     */
+    List<IBeanDefinition> sort(){
+        Map<IBeanDefinition, Boolean> visiting = new IdentityHashMap<>();
+        Deque<IBeanDefinition> path = new ArrayDeque<>();
+        List<IBeanDefinition> sorted = new ArrayList<>(dependencies.size());
+        for (IBeanDefinition definition : dependencies.keySet()) {
+            List<Class<?>> cycle = visit(definition, visiting, path, sorted);
+            if (cycle != null){
+                throw new CircularDependencyException(CircularDependencyException.getCircularDependencyMsg(
+                        new LinkedHashSet<>(cycle)));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * 深度优先遍历，访问完成的bean定义按完成顺序存入排序结果
+     * @param definition 当前bean定义
+     * @param visiting 访问状态，true：正在访问，false：已访问完成
+     * @param path 当前访问路径
+     * @param sorted 排序结果
+     * @return 依赖环上的bean类型（按依赖顺序），不存在返回null
+     */
+    private List<Class<?>> visit(IBeanDefinition definition, Map<IBeanDefinition, Boolean> visiting,
+                                 Deque<IBeanDefinition> path, List<IBeanDefinition> sorted){
+        Boolean state = visiting.get(definition);
+        if (state != null){
+            if (!state){
+                return null;
+            }
+            // 正在访问，说明存在环，截取环上的bean定义
+            List<Class<?>> cycle = new ArrayList<>();
+            Iterator<IBeanDefinition> iterator = path.descendingIterator();
+            boolean inCycle = false;
+            while (iterator.hasNext()) {
+                IBeanDefinition pathDefinition = iterator.next();
+                inCycle = inCycle || pathDefinition == definition;
+                if (inCycle){
+                    cycle.add(pathDefinition.getBeanClass());
+                }
+            }
+            return cycle;
+        }
+        visiting.put(definition, Boolean.TRUE);
+        path.push(definition);
+        for (IBeanDefinition dependency : getDependencies(definition)) {
+            List<Class<?>> cycle = visit(dependency, visiting, path, sorted);
+            if (cycle != null){
+                return cycle;
+            }
+        }
+        path.pop();
+        visiting.put(definition, Boolean.FALSE);
+        sorted.add(definition);
+        return null;
+    }
+}
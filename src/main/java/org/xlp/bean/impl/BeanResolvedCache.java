@@ -0,0 +1,149 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.object.BeanObject;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按类型获取bean的解析结果缓存
+ * <p>key为（目标类型，泛型类型）, value为解析结果：命中的bean对象、bean定义、未找到或找到多个</p>
+ * <p>容器中的bean或bean定义发生变化时，通过{@link #invalidate()}递增代数使所有已缓存的结果失效</p>
+ */
+final class BeanResolvedCache {
+    /**
+     * 空的泛型类型数组，用来统一null与空数组
+     */
+    private static final Type[] EMPTY_TYPES = new Type[0];
+
+    /**
+     * 缓存代数，每次容器注册信息变化时递增
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 解析结果缓存
+     */
+    private final Map<ResolveKey, Resolution> cache = new ConcurrentHashMap<>(16);
+
+    /**
+     * 获取当前缓存代数，在开始解析前获取，解析完成后作为{@link #put}的参数
+     * @return 当前缓存代数
+     */
+    long generation(){
+        return generation.get();
+    }
+
+    /**
+     * 使所有已缓存的结果失效
+     */
+    void invalidate(){
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * 获取缓存的解析结果
+     * @param beanClass 目标类型
+     * @param types 泛型类型
+     * @return 假如未缓存或缓存已失效，则返回null
+     */
+    Resolution get(Class<?> beanClass, Type[] types){
+        Resolution resolution = cache.get(new ResolveKey(beanClass, types == null ? EMPTY_TYPES : types));
+        if (resolution == null || resolution.generation != generation.get()){
+            return null;
+        }
+        return resolution;
+    }
+
+    /**
+     * 缓存解析结果，假如解析期间缓存代数已变化，则不缓存
+     * @param beanClass 目标类型
+     * @param types 泛型类型
+     * @param kind 解析结果类型
+     * @param beanObject 命中的bean对象或bean定义包装对象，其他结果为null
+     * @param generation 开始解析时的缓存代数
+     */
+    void put(Class<?> beanClass, Type[] types, ResolutionKind kind, BeanObject beanObject, long generation){
+        if (generation != this.generation.get()){
+            return;
+        }
+        Type[] _types = types == null ? EMPTY_TYPES : types.clone();
+        cache.put(new ResolveKey(beanClass, _types), new Resolution(kind, beanObject, generation));
+    }
+
+    /**
+     * 解析结果类型
+     */
+    enum ResolutionKind {
+        /**
+         * 命中已存在的bean对象
+         */
+        BEAN,
+
+        /**
+         * 命中非单例的bean定义，每次获取需创建新实例
+         */
+        DEFINITION,
+
+        /**
+         * 未找到
+         */
+        NONE,
+
+        /**
+         * 找到多个
+         */
+        AMBIGUOUS
+    }
+
+    /**
+     * 解析结果
+     */
+    static final class Resolution {
+        final ResolutionKind kind;
+
+        final BeanObject beanObject;
+
+        final long generation;
+
+        private Resolution(ResolutionKind kind, BeanObject beanObject, long generation) {
+            this.kind = kind;
+            this.beanObject = beanObject;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * 缓存key，由目标类型和泛型类型组成
+     */
+    private static final class ResolveKey {
+        private final Class<?> beanClass;
+
+        private final Type[] types;
+
+        private final int hash;
+
+        private ResolveKey(Class<?> beanClass, Type[] types) {
+            this.beanClass = beanClass;
+            this.types = types;
+            this.hash = 31 * beanClass.hashCode() + Arrays.hashCode(types);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ResolveKey)) return false;
+            ResolveKey that = (ResolveKey) o;
+            return beanClass == that.beanClass && Arrays.equals(types, that.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.util.SuperTypeUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类型索引，维护 目标类型（自身、超类或接口） 与 可赋值给该类型的元素 之间的映射
+ * <p>元素添加时按其类型的所有父类型建立索引，按类型查找时只需一次hash查找，
+ * 无需遍历所有元素调用{@link Class#isAssignableFrom(Class)}</p>
+ * @param <E> 索引元素类型
+ */
+final class BeanTypeIndex<E> {
+    /**
+     * key: 目标类型, value: 可赋值给该类型的元素集合
+     */
+    private final Map<Class<?>, Set<E>> index = new ConcurrentHashMap<>(16);
+
+    /**
+     * 添加元素
+     * @param beanClass 元素对应的类型
+     * @param element 元素
+     */
+    void add(Class<?> beanClass, E element){
+        for (Class<?> type : SuperTypeUtils.getAllSuperTypes(beanClass)) {
+            index.computeIfAbsent(type, key -> ConcurrentHashMap.newKeySet()).add(element);
+        }
+    }
+
+    /**
+     * 移除元素
+     * @param beanClass 元素添加时对应的类型
+     * @param element 元素
+     */
+    void remove(Class<?> beanClass, E element){
+        for (Class<?> type : SuperTypeUtils.getAllSuperTypes(beanClass)) {
+            index.computeIfPresent(type, (key, value) -> {
+                value.remove(element);
+                return value.isEmpty() ? null : value;
+            });
+        }
+    }
+
+    /**
+     * 获取可赋值给指定类型的所有元素
+     * @param type 目标类型
+     * @return 只读集合，不会返回null
+     */
+    Set<E> get(Class<?> type){
+        Set<E> elements = index.get(type);
+        return elements == null ? Collections.emptySet() : Collections.unmodifiableSet(elements);
+    }
+
+    /**
+     * 清空索引
+     */
+    void clear(){
+        index.clear();
+    }
+}
@@ -1,16 +1,20 @@
 package org.xlp.bean.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xlp.assertion.AssertUtils;
 import org.xlp.bean.annotation.Component;
+import org.xlp.bean.base.BeanInjectionPlan;
 import org.xlp.bean.base.IBeanCreator;
 import org.xlp.bean.base.IBeanDefinition;
 import org.xlp.bean.base.IBeanField;
 import org.xlp.bean.base.IBeansContainer;
+import org.xlp.bean.creator.GeneratedClassBeanCreator;
 import org.xlp.bean.exception.*;
 import org.xlp.bean.object.BeanObject;
 import org.xlp.bean.util.ClassForNameUtils;
-import org.xlp.bean.util.MethodUtils;
 import org.xlp.bean.util.ParameterizedTypeUtils;
+import org.xlp.scanner.watch.ClassChangeEvent;
 import org.xlp.utils.XLPArrayUtil;
 import org.xlp.utils.XLPStringUtil;
 import org.xlp.utils.collection.XLPCollectionUtil;
@@ -18,11 +22,21 @@ import org.xlp.utils.collection.XLPCollectionUtil;
 import java.lang.reflect.Type;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * bean 容器的默认实现
  */
 public class DefaultBeansContainer implements IBeansContainer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBeansContainer.class);
+
     /**
      * 存储bean id 与 {@link IBeanDefinition} 映射集合
      * <p>key: beanId, value: {@link IBeanDefinition}对象</p>
@@ -36,38 +50,75 @@ public class DefaultBeansContainer implements IBeansContainer {
     protected final Map<String, IBeanDefinition> beanClassNameBeanDefinitionMap = new ConcurrentHashMap<>(8);
 
     /**
-     * 存储bean id 与 bean对象 映射集合
-     * <p>key: beanId, value: {@link BeanObject}对象</p>
+     * 容器当前的bean对象注册信息，重置容器或预先创建bean时整体替换为新的一代
+     * <p>获取bean时只读取一次，之后始终使用同一代的注册信息</p>
+     */
+    private final AtomicReference<SingletonRegistry> registry = new AtomicReference<>(new SingletonRegistry());
+
+    /**
+     * {@link #createBeans()}正在创建的新一代注册信息，未在创建时为null
+     */
+    private volatile SingletonRegistry buildingRegistry;
+
+    /**
+     * bean定义类型索引，key为bean定义类型的所有父类型（自身、超类、接口）
+     * <p>与{@link #beanClassNameBeanDefinitionMap}同步维护，按类型查找bean定义时无需遍历</p>
+     */
+    private final BeanTypeIndex<IBeanDefinition> beanDefinitionTypeIndex = new BeanTypeIndex<>();
+
+    /**
+     * bean定义反向依赖索引，与{@link #beanClassNameBeanDefinitionMap}同步维护，
+     * {@link #refresh(Collection)}查找受影响的bean定义时无需遍历所有bean定义
+     */
+    private final BeanConsumerIndex beanConsumerIndex = new BeanConsumerIndex();
+
+    /**
+     * bean创建计划，包含依赖关系图及按依赖关系排序的bean定义，用来在预先创建bean前校验循环依赖
      */
-    protected final Map<String, BeanObject> beanMap = new ConcurrentHashMap<>(8);
+    private volatile BeanCreationPlan creationPlan;
 
     /**
-     * 存储bean类名与 bean对象 映射集合
-     * <p>key: beanClass , value: {@link BeanObject}对象</p>
+     * bean定义的版本号，每次添加bean定义时递增，用来判断{@link #creationPlan}是否过期
      */
-    protected final Map<Class<?>, BeanObject[]> beanClassBeanMap = new ConcurrentHashMap<>(8);
+    private final AtomicLong definitionVersion = new AtomicLong();
 
     /**
-     * 存储bean id 与 bean对象(未给字段设置值的对象) 映射集合
-     * <p>key: beanId, value: {@link BeanObject}对象</p>
+     * 当前线程正在创建的非单例bean定义，用来检测非单例bean之间的循环依赖
      */
-    protected final Map<String, BeanObject> beanHalfMap = new ConcurrentHashMap<>(8);
+    private final ThreadLocal<Set<IBeanDefinition>> prototypesInCreation = ThreadLocal.withInitial(LinkedHashSet::new);
 
     /**
-     * 存储bean类名与 bean对象(未给字段设置值的对象) 映射集合
-     * <p>key: beanClass , value: {@link BeanObject}对象</p>
+     * 标记容器是否已冻结，冻结后不能再修改容器
+     * @see #freeze()
      */
-    protected final Map<Class<?>, BeanObject[]> beanClassHalfBeanMap = new ConcurrentHashMap<>(8);
+    private volatile boolean frozen = false;
 
     /**
-     * 存储当前线程创建一个bean时，所有关联的bean类型，用来判断是否存在循环依赖
+     * 冻结容器时生成的只读bean工厂
      */
-    private final static ThreadLocal<Set<Class<?>>> CURRENT_THREAD_USED_CLASS = new ThreadLocal<>();
+    private volatile FrozenBeanFactory frozenBeanFactory;
 
     /**
-     * 标记是否正在重置容器中
+     * 容器注册信息分段锁，按beanId、bean类名或bean类型分段，修改同一key的操作互斥
      */
-    private volatile boolean resetting = false;
+    private final StripedLock registryStripedLock = new StripedLock(64);
+
+    /**
+     * 容器注册信息读写锁，修改注册信息时持有读锁（可并发），替换注册信息时持有写锁（独占）
+     * <p>获取bean的读操作不持有任何锁</p>
+     */
+    private final ReadWriteLock registryLock = new ReentrantReadWriteLock();
+
+    /**
+     * 预先创建bean的锁，保证同一时刻只有一个线程执行{@link #createBeans()}
+     */
+    private final Lock createBeansLock = new ReentrantLock();
+
+    /**
+     * 预先创建bean时的并行度，默认为1，即在调用线程中串行创建
+     * @see #createBeans()
+     */
+    private volatile int createBeansParallelism = 1;
 
     /**
      * 向容器中添加bean定义对象
@@ -82,195 +133,740 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(beanDefinition, "beanDefinition parameter is null!");
         String beanId = beanDefinition.getBeanId();
         String className = beanDefinition.getBeanClassName();
-        synchronized (this){
-            // 判读是否已经存在相应的bean定义信息，如果存在，则抛出相应的异常
-            IBeanDefinition beanDefinition1;
-            if(!XLPStringUtil.isEmpty(beanId)){
-                beanDefinition1 = beanIdBeanDefinitionMap.get(beanId);
-                if (beanDefinition1 != null && !covering){
-                    throw new BeanDefinitionExistException(beanId);
+        Lock lock = registryLock.readLock();
+        lock.lock();
+        try {
+            checkNotFrozen();
+            // 同时锁定beanId和类名所在分段，不同bean定义的注册可并发执行
+            registryStripedLock.execute(beanId, className, () -> {
+                // 判读是否已经存在相应的bean定义信息，如果存在，则抛出相应的异常
+                IBeanDefinition beanDefinition1;
+                if(!XLPStringUtil.isEmpty(beanId)){
+                    beanDefinition1 = beanIdBeanDefinitionMap.get(beanId);
+                    if (beanDefinition1 != null && !covering){
+                        throw new BeanDefinitionExistException(beanId);
+                    }
+                    beanIdBeanDefinitionMap.put(beanId, beanDefinition);
+                } else {
+                    beanDefinition1 = beanClassNameBeanDefinitionMap.get(className);
+                    if (beanDefinition1 != null && !covering){
+                        throw new BeanDefinitionExistException(className);
+                    }
                 }
-                beanIdBeanDefinitionMap.put(beanId, beanDefinition);
-            } else {
-                beanDefinition1 = beanClassNameBeanDefinitionMap.get(className);
-                if (beanDefinition1 != null && !covering){
-                    throw new BeanDefinitionExistException(className);
+                beanDefinition1 = beanClassNameBeanDefinitionMap.put(className, beanDefinition);
+                // 更新bean定义类型索引
+                if (beanDefinition1 != null){
+                    beanDefinitionTypeIndex.remove(beanDefinition1.getBeanClass(), beanDefinition1);
+                    beanConsumerIndex.remove(beanDefinition1);
+                    // 被覆盖的bean定义的beanId不再指向它
+                    String oldBeanId = beanDefinition1.getBeanId();
+                    if (!XLPStringUtil.isEmpty(oldBeanId) && !oldBeanId.equals(beanId)){
+                        beanIdBeanDefinitionMap.remove(oldBeanId, beanDefinition1);
+                    }
                 }
-            }
-            beanClassNameBeanDefinitionMap.put(className, beanDefinition);
+                beanDefinitionTypeIndex.add(beanDefinition.getBeanClass(), beanDefinition);
+                beanConsumerIndex.add(beanDefinition);
+                definitionVersion.incrementAndGet();
+                invalidateResolvedCache();
+            });
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * 预先创建所有非延迟加载的单例bean, 执行该方法会先去重置容器
+     * 预先创建所有非延迟加载的单例bean, 执行该方法会丢弃容器中已有的bean对象
+     * <p>所有bean在新一代的注册信息中创建，全部创建完成后才替换容器当前的注册信息；
+     * 创建期间获取bean仍使用旧的注册信息，不会失败；创建失败时容器当前的注册信息不变</p>
      * @see Component#lazy()
      * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
      */
-    public synchronized void createBeans(){
-      reset();
-      beanClassNameBeanDefinitionMap.forEach((key, value) -> createBean(value));
+    public void createBeans(){
+        createBeansLock.lock();
+        try {
+            checkNotFrozen();
+            SingletonRegistry next = new SingletonRegistry();
+            validate(next);
+            BeanCreationPlan plan = getCreationPlan();
+            buildingRegistry = next;
+            try {
+                createPrebuiltSingletons(new SingletonRegistrar(next));
+                if (createBeansParallelism > 1){
+                    createBeansInParallel(next, plan.graph);
+                } else {
+                    // 按依赖顺序创建，被依赖的bean先创建
+                    for (IBeanDefinition definition : plan.sortedDefinitions) {
+                        if (beanClassNameBeanDefinitionMap.get(definition.getBeanClassName()) == definition){
+                            createBean(next, definition);
+                        }
+                    }
+                }
+                publishRegistry(next);
+            } finally {
+                buildingRegistry = null;
+            }
+        } finally {
+            createBeansLock.unlock();
+        }
+    }
+
+    /**
+     * 用新一代的注册信息替换容器当前的注册信息
+     * @param next 新一代的注册信息
+     * @throws BeanBaseException 假如容器已冻结，则抛出该异常
+     */
+    private void publishRegistry(SingletonRegistry next){
+        // 等待正在进行的修改操作完成，替换后的修改操作作用于新的注册信息
+        Lock lock = registryLock.writeLock();
+        lock.lock();
+        try {
+            checkNotFrozen();
+            buildingRegistry = null;
+            registry.set(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取{@link #createBean(IBeanDefinition)}存入bean对象的注册信息
+     * @return {@link #createBeans()}执行中返回正在创建的注册信息，否则返回容器当前的注册信息
+     */
+    private SingletonRegistry targetRegistry(){
+        SingletonRegistry building = buildingRegistry;
+        return building == null ? registry.get() : building;
     }
 
     /**
-     * 根据bean定义创建bean对象
+     * 使容器当前及正在创建的注册信息中按类型获取bean的解析结果缓存失效
+     */
+    private void invalidateResolvedCache(){
+        registry.get().resolvedCache.invalidate();
+        SingletonRegistry building = buildingRegistry;
+        if (building != null){
+            building.resolvedCache.invalidate();
+        }
+    }
+
+    /**
+     * 根据变化的bean定义增量刷新容器，只重新创建受影响的单例bean，其他已创建的单例bean保持不变
+     * <p>受影响的bean定义为变化的bean定义及通过{@link org.xlp.bean.annotation.AutoFill}字段直接或间接依赖它们的bean定义；
+     * 移除这些bean定义已创建的单例bean后，重新创建其中仍在容器中注册的非延迟加载单例bean，
+     * 延迟加载的单例bean在下次获取时创建</p>
+     * <p>受影响的bean定义通过反向依赖索引查找，只校验受影响的bean定义之间的依赖关系，耗时与变化的范围相关，与容器大小无关</p>
+     * <p>变化的bean定义可以是已注册的新bean定义，也可以是已被移除或覆盖的旧bean定义，
+     * 如{@link #applyClassChanges(List, ClassLoader)}的返回值；刷新在容器当前的注册信息中进行，获取bean不受影响</p>
+     * @param changedDefinitions 变化的bean定义
+     * @return 受影响的bean定义
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     * @throws CircularDependencyException 假如存在循环依赖，则抛出该异常，此时不会移除任何bean
+     * @throws UnsatisfiedDependencyException 假如必须注入的属性在容器中找不到对应的bean，则抛出该异常，此时不会移除任何bean
+     * @throws BeanBaseException 假如容器已冻结或创建bean实例失败，则抛出该异常或其子类异常
+     */
+    public List<IBeanDefinition> refresh(Collection<IBeanDefinition> changedDefinitions){
+        AssertUtils.isNotNull(changedDefinitions, "changedDefinitions parameter is null!");
+        createBeansLock.lock();
+        try {
+            checkNotFrozen();
+            SingletonRegistry current = registry.get();
+            // 沿反向依赖关系查找所有受影响的bean定义
+            Set<IBeanDefinition> affected = new LinkedHashSet<>();
+            Deque<IBeanDefinition> queue = new ArrayDeque<>();
+            for (IBeanDefinition definition : changedDefinitions) {
+                if (definition != null && affected.add(definition)){
+                    queue.add(definition);
+                }
+            }
+            while (!queue.isEmpty()) {
+                for (IBeanDefinition dependent : beanConsumerIndex.getConsumers(queue.poll())) {
+                    if (affected.add(dependent)){
+                        queue.add(dependent);
+                    }
+                }
+            }
+            // 只校验仍在容器中注册的受影响的bean定义；依赖环上有一个bean定义受影响时整个环都受影响，不会漏掉循环依赖
+            List<IBeanDefinition> registered = new ArrayList<>(affected.size());
+            for (IBeanDefinition definition : affected) {
+                if (beanClassNameBeanDefinitionMap.get(definition.getBeanClassName()) == definition){
+                    registered.add(definition);
+                }
+            }
+            BeanDependencyGraph graph = new BeanDependencyGraph(registered, beanIdBeanDefinitionMap::get,
+                    beanDefinitionTypeIndex::get);
+            List<IBeanDefinition> sortedDefinitions = graph.sort();
+            checkUnresolvedFields(current, graph);
+
+            Lock lock = registryLock.writeLock();
+            lock.lock();
+            try {
+                checkNotFrozen();
+                for (IBeanDefinition definition : affected) {
+                    removeSingleton(current, definition);
+                }
+                current.resolvedCache.invalidate();
+            } finally {
+                lock.unlock();
+            }
+
+            // 按依赖顺序创建，排序结果中还包含未受影响的依赖，已创建的不会重新创建
+            for (IBeanDefinition definition : sortedDefinitions) {
+                if (affected.contains(definition) && definition.isSingleton() && !definition.isLazy()
+                        && !definition.isAbstract()){
+                    getOrCreateSingleton(current, definition);
+                }
+            }
+            return new ArrayList<>(affected);
+        } finally {
+            createBeansLock.unlock();
+        }
+    }
+
+    /**
+     * 移除bean定义已创建的单例bean，调用者需持有{@link #registryLock}写锁
+     * @param registry 注册信息
+     * @param beanDefinition bean定义
+     */
+    private void removeSingleton(SingletonRegistry registry, IBeanDefinition beanDefinition){
+        registry.singletonCreationMap.remove(beanDefinition);
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        BeanObject[] beanObjects = registry.beanClassBeanMap.get(beanClass);
+        if (beanObjects == null){
+            return;
+        }
+        List<BeanObject> remained = new ArrayList<>(beanObjects.length);
+        for (BeanObject beanObject : beanObjects) {
+            if (beanObject.getBeanDefinition() != beanDefinition){
+                remained.add(beanObject);
+                continue;
+            }
+            registry.beanObjectTypeIndex.remove(beanClass, beanObject);
+            String beanId = beanDefinition.getBeanId();
+            if (!XLPStringUtil.isEmpty(beanId)){
+                registry.beanMap.remove(beanId, beanObject);
+            }
+        }
+        if (remained.isEmpty()){
+            registry.beanClassBeanMap.remove(beanClass);
+        } else if (remained.size() < beanObjects.length){
+            registry.beanClassBeanMap.put(beanClass, remained.toArray(new BeanObject[0]));
+        }
+    }
+
+    /**
+     * 预先创建单例bean的扩展点，{@link #createBeans()}校验依赖关系后、在新一代的注册信息中创建其他bean前调用，默认不做任何操作
+     * <p>编译时由{@link org.xlp.bean.processor.ComponentWiringProcessor}生成的容器子类重写该函数，
+     * 直接调用构造函数及set函数创建单例bean，再通过{@link SingletonRegistrar#register(Class, Object)}存入新一代的注册信息；
+     * 没有预先创建的bean仍由容器创建</p>
+     * @param registrar 把单例bean存入新一代注册信息的对象，只在该函数执行期间有效
+     */
+    protected void createPrebuiltSingletons(SingletonRegistrar registrar){
+    }
+
+    /**
+     * 把预先创建的单例bean存入{@link #createBeans()}正在创建的新一代注册信息
+     * @see #createPrebuiltSingletons(SingletonRegistrar)
+     */
+    protected final class SingletonRegistrar {
+        private final SingletonRegistry registry;
+
+        private SingletonRegistrar(SingletonRegistry registry) {
+            this.registry = registry;
+        }
+
+        /**
+         * 把已完成属性注入的单例bean存入新一代的注册信息，视为由该类型的bean定义创建
+         * @param beanClass bean类型，容器中需存在该类型的单例bean定义
+         * @param bean bean实例
+         * @throws NullPointerException 假如参数为null，则抛出该异常
+         * @throws BeanBaseException 假如该类型的单例bean定义不存在或该单例bean已创建，则抛出该异常
+         */
+        public void register(Class<?> beanClass, Object bean){
+            registerSingleton(registry, beanClass, bean);
+        }
+    }
+
+    /**
+     * 把已完成属性注入的单例bean存入给定的注册信息，视为由该类型的bean定义创建
+     * @param target 注册信息
+     * @param beanClass bean类型，容器中需存在该类型的单例bean定义
+     * @param bean bean实例
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     * @throws BeanBaseException 假如该类型的单例bean定义不存在或该单例bean已创建，则抛出该异常
+     */
+    private void registerSingleton(SingletonRegistry target, Class<?> beanClass, Object bean){
+        AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
+        AssertUtils.isNotNull(bean, "bean parameter is null!");
+        IBeanDefinition beanDefinition = beanClassNameBeanDefinitionMap.get(beanClass.getName());
+        if (beanDefinition == null || !beanDefinition.isSingleton()){
+            throw new BeanBaseException("[" + beanClass.getName() + "]该类型的单例bean定义不存在！");
+        }
+        BeanCreation creation = new BeanCreation(beanDefinition);
+        if (target.singletonCreationMap.putIfAbsent(beanDefinition, creation) != null){
+            throw new BeanBaseException("[" + beanClass.getName() + "]该类型的单例bean已创建！");
+        }
+        creation.complete(publishSingleton(target, beanDefinition.getBeanId(), new BeanObject(beanDefinition, bean)));
+    }
+
+    /**
+     * 设置预先创建bean时的并行度
+     * <p>大于1时，{@link #createBeans()}根据{@link org.xlp.bean.annotation.AutoFill}依赖关系图，
+     * 在该并行度的{@link ForkJoinPool}中先创建依赖的bean，互不依赖的bean并发创建；
+     * 每个单例仍只会被创建一次</p>
+     * @param parallelism 并行度
+     * @throws IllegalArgumentException 假如参数小于1，则抛出该异常
+     */
+    public void setCreateBeansParallelism(int parallelism){
+        if (parallelism < 1){
+            throw new IllegalArgumentException("parallelism parameter must be greater than 0!");
+        }
+        this.createBeansParallelism = parallelism;
+    }
+
+    /**
+     * 获取预先创建bean时的并行度
+     * @return 并行度
+     */
+    public int getCreateBeansParallelism(){
+        return createBeansParallelism;
+    }
+
+    /**
+     * 根据依赖关系图并发创建所有非延迟加载的单例bean，调用前依赖关系图需已校验不存在循环依赖
+     * @param registry 存入bean对象的注册信息
+     * @param graph 依赖关系图
+     * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
+     */
+    private void createBeansInParallel(SingletonRegistry registry, BeanDependencyGraph graph){
+        Set<IBeanDefinition> scheduled = ConcurrentHashMap.newKeySet();
+        List<CreateBeanTask> tasks = new ArrayList<>();
+        for (IBeanDefinition definition : beanClassNameBeanDefinitionMap.values()) {
+            if (definition.isSingleton() && !definition.isLazy() && !definition.isAbstract()
+                    && scheduled.add(definition)){
+                tasks.add(new CreateBeanTask(registry, definition, graph, scheduled));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(createBeansParallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 校验所有bean定义之间的依赖关系，并返回bean的创建顺序
+     * <p>校验结果在bean定义变化前会被缓存，{@link #createBeans()}会自动校验；获取延迟加载或非单例bean时不校验所有bean定义，
+     * 只在创建过程中检测其依赖链上的循环依赖</p>
+     * @return 按依赖关系排序的bean定义（只读），被依赖的bean定义排在前面
+     * @throws CircularDependencyException 假如存在循环依赖，则抛出该异常
+     * @throws UnsatisfiedDependencyException 假如必须注入的属性在容器中找不到对应的bean，则抛出该异常
+     */
+    public List<IBeanDefinition> validate(){
+        return validate(registry.get());
+    }
+
+    /**
+     * 校验所有bean定义之间的依赖关系，找不到bean定义的字段由给定注册信息中的bean对象注入
+     * @param registry 注册信息
+     * @return 按依赖关系排序的bean定义（只读），被依赖的bean定义排在前面
+     * @throws CircularDependencyException 假如存在循环依赖，则抛出该异常
+     * @throws UnsatisfiedDependencyException 假如必须注入的属性在容器中找不到对应的bean，则抛出该异常
+     */
+    private List<IBeanDefinition> validate(SingletonRegistry registry){
+        BeanCreationPlan plan = getCreationPlan();
+        checkUnresolvedFields(registry, plan.graph);
+        return plan.sortedDefinitions;
+    }
+
+    /**
+     * 校验依赖关系图中找不到bean定义的必须注入的字段能否由给定注册信息中的bean对象注入
+     * @param registry 注册信息
+     * @param graph 依赖关系图
+     * @throws UnsatisfiedDependencyException 假如必须注入的属性在容器中找不到对应的bean，则抛出该异常
+     */
+    private void checkUnresolvedFields(SingletonRegistry registry, BeanDependencyGraph graph){
+        List<IBeanField> unsatisfiedFields = new ArrayList<>();
+        for (IBeanField beanField : graph.getUnresolvedFields()) {
+            if (beanField.isRequired() && !isSatisfiedByBean(registry, beanField)){
+                unsatisfiedFields.add(beanField);
+            }
+        }
+        if (!unsatisfiedFields.isEmpty()){
+            throw new UnsatisfiedDependencyException(
+                    UnsatisfiedDependencyException.getUnsatisfiedDependencyMsg(unsatisfiedFields));
+        }
+    }
+
+    /**
+     * 判断字段是否能由注册信息中已添加的bean对象注入
+     * @param registry 注册信息
+     * @param beanField bean字段
+     * @return true：能，false：不能
+     */
+    private boolean isSatisfiedByBean(SingletonRegistry registry, IBeanField beanField){
+        String refBeanId = beanField.getRefBeanId();
+        if (!XLPStringUtil.isEmpty(refBeanId)){
+            return registry.beanMap.containsKey(refBeanId);
+        }
+        return !getBeanObjects(registry, beanField.getFieldClass()).isEmpty();
+    }
+
+    /**
+     * 获取当前bean定义对应的创建计划，bean定义变化后重新生成
+     * @return 创建计划
+     * @throws CircularDependencyException 假如存在循环依赖，则抛出该异常
+     */
+    private BeanCreationPlan getCreationPlan(){
+        long version = definitionVersion.get();
+        BeanCreationPlan plan = creationPlan;
+        if (plan != null && plan.version == version){
+            return plan;
+        }
+        BeanDependencyGraph graph = buildDependencyGraph();
+        plan = new BeanCreationPlan(version, graph, graph.sort());
+        creationPlan = plan;
+        return plan;
+    }
+
+    /**
+     * 根据容器中所有的bean定义生成依赖关系图
+     * @return 依赖关系图
+     */
+    BeanDependencyGraph buildDependencyGraph(){
+        Set<IBeanDefinition> definitions = new LinkedHashSet<>(beanClassNameBeanDefinitionMap.values());
+        definitions.addAll(beanIdBeanDefinitionMap.values());
+        return new BeanDependencyGraph(definitions, beanIdBeanDefinitionMap::get, beanDefinitionTypeIndex::get);
+    }
+
+    /**
+     * bean创建计划，由某一版本的bean定义生成
+     */
+    private static final class BeanCreationPlan {
+        final long version;
+
+        final BeanDependencyGraph graph;
+
+        /**
+         * 按依赖关系排序的bean定义
+         */
+        final List<IBeanDefinition> sortedDefinitions;
+
+        BeanCreationPlan(long version, BeanDependencyGraph graph, List<IBeanDefinition> sortedDefinitions) {
+            this.version = version;
+            this.graph = graph;
+            this.sortedDefinitions = Collections.unmodifiableList(sortedDefinitions);
+        }
+    }
+
+    /**
+     * 创建bean任务，先并发执行依赖bean的创建任务，再创建自身（只有单例会被创建并存入容器）
+     */
+    private final class CreateBeanTask extends RecursiveAction {
+        private static final long serialVersionUID = -2351476104466870232L;
+
+        private final SingletonRegistry registry;
+
+        private final IBeanDefinition definition;
+
+        private final BeanDependencyGraph graph;
+
+        /**
+         * 已调度的bean定义，保证每个bean定义只生成一个任务
+         */
+        private final Set<IBeanDefinition> scheduled;
+
+        CreateBeanTask(SingletonRegistry registry, IBeanDefinition definition, BeanDependencyGraph graph,
+                       Set<IBeanDefinition> scheduled) {
+            this.registry = registry;
+            this.definition = definition;
+            this.graph = graph;
+            this.scheduled = scheduled;
+        }
+
+        @Override
+        protected void compute() {
+            List<CreateBeanTask> subTasks = new ArrayList<>();
+            for (IBeanDefinition dependency : graph.getDependencies(definition)) {
+                if (scheduled.add(dependency)){
+                    subTasks.add(new CreateBeanTask(registry, dependency, graph, scheduled));
+                }
+            }
+            invokeAll(subTasks);
+            // 依赖已被其他任务调度但未完成时，创建过程中会等待其完成或由当前线程直接创建
+            if (definition.isSingleton() && !definition.isAbstract()){
+                getOrCreateSingleton(registry, definition);
+            }
+        }
+    }
+
+    /**
+     * 冻结容器，创建所有单例bean（包括延迟加载的单例），并生成只读的bean工厂
+     * <p>返回的bean工厂使用预先生成的不可变id表和类型表，获取单例bean时不需要任何同步；
+     * 冻结后调用修改容器的方法（添加bean定义、添加bean、重置、预先创建bean）会抛出{@link BeanBaseException}异常</p>
+     * <p>多次调用返回同一个对象</p>
+     * @return 只读bean工厂
+     * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常，此时容器不会被冻结
+     */
+    public FrozenBeanFactory freeze(){
+        createBeansLock.lock();
+        try {
+            if (frozenBeanFactory != null){
+                return frozenBeanFactory;
+            }
+            // 等待正在进行的修改操作完成后再标记冻结
+            Lock lock = registryLock.writeLock();
+            lock.lock();
+            try {
+                frozen = true;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                SingletonRegistry current = registry.get();
+                for (IBeanDefinition definition : beanIdBeanDefinitionMap.values()) {
+                    createSingletonForFreeze(current, definition);
+                }
+                for (IBeanDefinition definition : beanClassNameBeanDefinitionMap.values()) {
+                    createSingletonForFreeze(current, definition);
+                }
+                frozenBeanFactory = new FrozenBeanFactory(this, beanIdBeanDefinitionMap,
+                        beanClassNameBeanDefinitionMap, current.beanMap, current.beanClassBeanMap);
+                return frozenBeanFactory;
+            } catch (RuntimeException | Error e){
+                frozen = false;
+                throw e;
+            }
+        } finally {
+            createBeansLock.unlock();
+        }
+    }
+
+    private void createSingletonForFreeze(SingletonRegistry registry, IBeanDefinition definition){
+        if (definition.isSingleton() && !definition.isAbstract()){
+            getOrCreateSingleton(registry, definition);
+        }
+    }
+
+    /**
+     * 判断容器是否已冻结
+     * @return true：是，false：否
+     * @see #freeze()
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    /**
+     * 校验容器是否已冻结
+     * @throws BeanBaseException 假如容器已冻结，则抛出该异常
+     */
+    private void checkNotFrozen(){
+        if (frozen){
+            throw new BeanBaseException("容器已冻结，不能再修改！");
+        }
+    }
+
+    /**
+     * 根据非单例bean定义创建新的bean实例，供{@link FrozenBeanFactory}使用
+     * @param beanDefinition bean定义
+     * @return bean实例
+     */
+    Object createPrototype(IBeanDefinition beanDefinition){
+        return getRawObject(doCreateBean(registry.get(), beanDefinition));
+    }
+
+    /**
+     * 根据单例bean定义获取bean实例，未创建时创建，供{@link FrozenBeanFactory}使用
+     * @param beanDefinition 单例bean定义
+     * @return bean实例，没有创建器时返回null
+     */
+    Object getSingleton(IBeanDefinition beanDefinition){
+        return getOrCreateSingleton(registry.get(), beanDefinition);
+    }
+
+    /**
+     * 根据bean定义创建bean对象，{@link #createBeans()}执行中存入正在创建的注册信息
      * @param beanDefinition
      * @return 返回bean实例
      * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
      */
     @SuppressWarnings("UnusedReturnValue")
     protected Object createBean(IBeanDefinition beanDefinition) {
+        return createBean(targetRegistry(), beanDefinition);
+    }
+
+    /**
+     * 在给定的注册信息中根据bean定义创建非延迟加载的单例bean对象
+     * @param registry 注册信息
+     * @param beanDefinition bean定义
+     * @return 返回bean实例，不是非延迟加载的单例时返回null
+     * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
+     */
+    private Object createBean(SingletonRegistry registry, IBeanDefinition beanDefinition) {
         if (beanDefinition.isSingleton() && !beanDefinition.isLazy()
                 && !beanDefinition.isAbstract()){
-            return doCreateBean(beanDefinition);
+            return getOrCreateSingleton(registry, beanDefinition);
         }
         return null;
     }
 
     /**
-     * 根据bean定义创建bean对象
-     * @param beanDefinition bean定义
+     * 获取单例bean，假如未创建则创建，保证每个单例bean定义只被创建一次
+     * <p>其他线程正在创建该bean时，当前线程挂起等待其创建完成</p>
+     * @param registry 注册信息
+     * @param beanDefinition 单例bean定义
      * @return 返回bean实例
      * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
+     * @throws CircularDependencyException 假如当前线程正在创建该bean，即存在循环依赖，则抛出该异常
      */
-    private Object doCreateBean(IBeanDefinition beanDefinition) {
-        String beanId = beanDefinition.getBeanId();
-        Class<?> beanClass = beanDefinition.getBeanClass();
-        boolean beanIdIsBlank = XLPStringUtil.isEmpty(beanId);
+    private Object getOrCreateSingleton(SingletonRegistry registry, IBeanDefinition beanDefinition) {
+        BeanCreation newCreation = new BeanCreation(beanDefinition);
+        BeanCreation creation = registry.singletonCreationMap.computeIfAbsent(beanDefinition, key -> newCreation);
+        if (creation != newCreation){
+            if (creation.isCreatingByCurrentThread()){
+                // 当前线程正在创建该bean，再次获取说明存在循环依赖
+                throw new CircularDependencyException(CircularDependencyException.getCircularDependencyMsg(
+                        Collections.singleton(beanDefinition.getBeanClass())));
+            }
+            BeanObject beanObject = creation.await();
+            return beanObject == null ? null : beanObject.getRawObject();
+        }
+
+        BeanObject beanObject;
+        try {
+            beanObject = doCreateBean(registry, beanDefinition);
+        } catch (Throwable e){
+            // 创建失败，移除创建状态，以便可以再次尝试创建
+            registry.singletonCreationMap.remove(beanDefinition, creation);
+            creation.fail(e);
+            throw e;
+        }
+        creation.complete(beanObject);
+        return beanObject == null ? null : beanObject.getRawObject();
+    }
 
-        // 判断bean是否
+    /**
+     * 根据bean定义创建bean对象，单例bean创建完成后存入注册信息
+     * @param registry 注册信息，从中获取需要注入的bean
+     * @param beanDefinition bean定义
+     * @return 返回bean包装对象，假如没有创建器则返回null
+     * @throws BeanBaseException 假如创建bean实例失败，则抛出该异常或其子类异常
+     * @throws CircularDependencyException 假如当前线程正在创建该非单例bean，即存在循环依赖，则抛出该异常
+     */
+    private BeanObject doCreateBean(SingletonRegistry registry, IBeanDefinition beanDefinition) {
+        if (beanDefinition.isSingleton()){
+            // 单例的循环依赖由其创建状态检测
+            return doCreateBean0(registry, beanDefinition);
+        }
+        Set<IBeanDefinition> creatingPrototypes = prototypesInCreation.get();
+        if (!creatingPrototypes.add(beanDefinition)){
+            Set<Class<?>> cycle = new LinkedHashSet<>();
+            for (IBeanDefinition definition : creatingPrototypes) {
+                cycle.add(definition.getBeanClass());
+            }
+            throw new CircularDependencyException(CircularDependencyException.getCircularDependencyMsg(cycle));
+        }
+        try {
+            return doCreateBean0(registry, beanDefinition);
+        } finally {
+            creatingPrototypes.remove(beanDefinition);
+        }
+    }
+
+    private BeanObject doCreateBean0(SingletonRegistry registry, IBeanDefinition beanDefinition) {
         IBeanCreator beanCreator = beanDefinition.getBeanCreator();
         // 假如没有创建器，则直接跳过
         if (beanCreator == null) return null;
         // 获取bean实例，即为未给其他属性赋值的bean实例
         Object bean = beanCreator.createBean();
         BeanObject beanObject = new BeanObject(beanDefinition, bean);
-        //检验是否存在循环依赖
-        checkExitsCircularDependency(beanClass);
-        addBeanClassToThreadLocal(beanClass);
-        boolean hasException = false;
-        try {
-            if(beanDefinition.isSingleton()) {
-                if (!beanIdIsBlank) {
-                    beanObject = beanHalfMap.putIfAbsent(beanId, beanObject);
-                }
-                assert beanObject != null;
-                beanObject = addBeanObjectToBeanMap(beanObject, beanClassHalfBeanMap);
+        //按预先编译的注入计划给bean属性赋值
+        BeanInjectionPlan.FieldInjection[] injections = beanDefinition.getInjectionPlan().getInjections();
+        if (beanCreator instanceof GeneratedClassBeanCreator){
+            // 生成的bean工厂类一次调用所有set函数
+            Object[] values = new Object[injections.length];
+            for (int i = 0; i < injections.length; i++) {
+                values[i] = getInjectionValue(registry, injections[i]);
             }
-
-            //获取bean要注入的属性
-            IBeanField[] beanFields = beanDefinition.getBeanFields();
-            if (beanFields != null){
-                for (IBeanField beanField : beanFields) {
-                    //跳过不是字段适配的属性
-                    if (beanField.isArray() || beanField.isPrimary() || !beanField.hasSetMethod()){
-                        continue;
-                    }
-                    initBeanAttribute(bean, beanField);
-                }
+            ((GeneratedClassBeanCreator) beanCreator).inject(bean, values);
+        } else {
+            for (BeanInjectionPlan.FieldInjection injection : injections) {
+                //设置bean属性
+                injection.inject(bean, getInjectionValue(registry, injection));
             }
-        } catch (Throwable e){
-            hasException = true;
-            throw e;
-        } finally {
-            if(beanDefinition.isSingleton()) {
-                synchronized (this) {
-                    if (!beanIdIsBlank) {
-                        beanHalfMap.remove(beanId);
-                    }
-                    removeBeanClassFromHalfBeanMap(beanClass, beanObject);
+        }
 
-                    if (!hasException) {
-                        if (!beanIdIsBlank) {
-                            beanObject = beanMap.putIfAbsent(beanId, beanObject);
-                        }
-                        assert beanObject != null;
-                        beanObject = addBeanObjectToBeanMap(beanObject, beanClassBeanMap);
-                    }
-                }
-            }
-            removeBeanClassToThreadLocal(beanClass);
+        if(beanDefinition.isSingleton()) {
+            beanObject = publishSingleton(registry, beanDefinition.getBeanId(), beanObject);
         }
-        return beanObject.getRawObject();
+        return beanObject;
     }
 
-    private void removeBeanClassFromHalfBeanMap(Class<?> beanClass, BeanObject beanObject) {
-        BeanObject[] beanObjects = beanClassHalfBeanMap.get(beanClass);
-        if (XLPArrayUtil.isEmpty(beanObjects)) {
-            beanClassHalfBeanMap.remove(beanClass);
-            return;
-        }
-        HashSet<BeanObject> objects = new HashSet<>(Arrays.asList(beanObjects));
-        objects.remove(beanObject);
-        if (objects.isEmpty()){
-            beanClassHalfBeanMap.remove(beanClass);
-            return;
+    /**
+     * 把已完成属性注入的单例bean存入注册信息
+     * @param registry 注册信息
+     * @param beanId bean id，可为空
+     * @param beanObject bean包装对象
+     * @return 注册信息中的bean包装对象
+     */
+    private BeanObject publishSingleton(SingletonRegistry registry, String beanId, BeanObject beanObject) {
+        Lock lock = registryLock.readLock();
+        lock.lock();
+        try {
+            if (!XLPStringUtil.isEmpty(beanId)) {
+                BeanObject existBeanObject = registry.beanMap.putIfAbsent(beanId, beanObject);
+                if (existBeanObject != null){
+                    beanObject = existBeanObject;
+                }
+            }
+            return addBeanObjectToBeanMap(registry, beanObject);
+        } finally {
+            lock.unlock();
         }
-        beanClassHalfBeanMap.put(beanClass, objects.toArray(new BeanObject[0]));
     }
 
-    private void initBeanAttribute(Object bean, IBeanField beanField) {
-        String fieldId = beanField.getRefBeanId();
-        String fieldRefClassName = beanField.getFieldClassName();
+    /**
+     * 获取字段需要注入的bean
+     * @param registry 注册信息
+     * @param injection 字段注入信息
+     * @return 未找到返回null
+     * @throws BeanBaseException 假如字段必须注入且未找到对应的bean，则抛出该异常
+     */
+    private Object getInjectionValue(SingletonRegistry registry, BeanInjectionPlan.FieldInjection injection) {
+        IBeanField beanField = injection.getBeanField();
         Object fieldBean;
-        if (!XLPStringUtil.isEmpty(fieldId)){
-            fieldBean = _getBean(fieldId);
-        } else if(!XLPStringUtil.isEmpty(fieldRefClassName)){
-            Class<?> beanClass = ClassForNameUtils.forName(fieldRefClassName);
-            fieldBean = _getBean(beanClass, new Type[0]);
+        if (injection.getStrategy() == BeanInjectionPlan.LookupStrategy.REF_ID){
+            fieldBean = _getBean(registry, beanField.getRefBeanId());
         } else {
-            String fieldName = beanField.getName();
-            fieldBean = _getBean(fieldName);
-            Class<?> beanClass = beanField.getFieldClass();
-            if (!beanClass.isInstance(fieldBean)){
-                fieldBean = _getBean(beanClass, beanField.getActualType());
-            }
+            fieldBean = _getBean(registry, injection.getRefClass(), injection.getActualTypes());
         }
         if (beanField.isRequired() && fieldBean == null){
             throw new BeanBaseException("为找到【" + beanField.getBeanClass() + "." + beanField.getName()
                     + "属性对应的bean，装配属性失败。");
         }
-        //设置bean属性
-        MethodUtils.invoke(bean, beanField, fieldBean);
-    }
-
-    private void removeBeanClassToThreadLocal(Class<?> beanClass){
-        Set<Class<?>> classes = CURRENT_THREAD_USED_CLASS.get();
-        if (XLPCollectionUtil.isEmpty(classes)){
-            CURRENT_THREAD_USED_CLASS.remove();
-        }
-        classes.remove(beanClass);
-    }
-
-    private void addBeanClassToThreadLocal(Class<?> beanClass){
-        Set<Class<?>> classes = CURRENT_THREAD_USED_CLASS.get();
-        if (classes == null){
-            classes = new HashSet<>();
-        }
-        classes.add(beanClass);
-        CURRENT_THREAD_USED_CLASS.set(classes);
+        return fieldBean;
     }
 
     /**
-     * 校验bean之间是否存在循环依赖问题
-     * @param beanClass
-     * @throws CircularDependencyException 假如存在循环依赖则抛出该异常
+     * 把bean对象存入{@link SingletonRegistry#beanClassBeanMap}，调用者需持有{@link #registryLock}读锁
+     * @param registry 注册信息
+     * @param beanObject bean对象
+     * @return 注册信息中已存在的同类型同泛型bean对象，不存在则返回参数对象
      */
-    protected void checkExitsCircularDependency(Class<?> beanClass){
-        Optional.ofNullable(CURRENT_THREAD_USED_CLASS.get())
-            .ifPresent(classSet -> {
-                if (classSet.contains(beanClass)){
-                    throw new CircularDependencyException(CircularDependencyException.getCircularDependencyMsg(classSet));
-                }
-            });
-    }
-
-    private BeanObject addBeanObjectToBeanMap(BeanObject beanObject,  Map<Class<?>, BeanObject[]> optionBeanMap) {
-        synchronized (this){
-            Class<?> beanClass = beanObject.getBeanClass();
-            BeanObject[] beanObjects = optionBeanMap.get(beanClass);
+    private BeanObject addBeanObjectToBeanMap(SingletonRegistry registry, BeanObject beanObject) {
+        Class<?> beanClass = beanObject.getBeanClass();
+        return registryStripedLock.execute(beanClass, () -> {
+            BeanObject[] beanObjects = registry.beanClassBeanMap.get(beanClass);
             if (beanObjects != null) {
                 BeanObject _beanObject = getBeanObject(beanObject.getBeanClass(), beanObject.getTypes(),
-                        new HashSet<>(Arrays.asList(beanObjects)), false);
+                        Arrays.asList(beanObjects), false);
                 if (_beanObject != null){
                     return _beanObject;
                 }
@@ -280,9 +876,11 @@ public class DefaultBeansContainer implements IBeansContainer {
             } else {
                 beanObjects = new BeanObject[]{beanObject};
             }
-            optionBeanMap.put(beanClass, beanObjects);
+            registry.beanClassBeanMap.put(beanClass, beanObjects);
+            registry.beanObjectTypeIndex.add(beanClass, beanObject);
+            registry.resolvedCache.invalidate();
             return beanObject;
-        }
+        });
     }
 
     /**
@@ -305,6 +903,99 @@ public class DefaultBeansContainer implements IBeansContainer {
         }
     }
 
+    /**
+     * 移除指定类名的bean定义，已创建的bean对象不会被移除
+     *
+     * @param beanClassName bean类名
+     * @return 被移除的bean定义，不存在时返回null
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    public IBeanDefinition removeBeanDefinition(String beanClassName){
+        AssertUtils.isNotNull(beanClassName, "beanClassName parameter is null or empty!");
+        Lock lock = registryLock.readLock();
+        lock.lock();
+        try {
+            checkNotFrozen();
+            IBeanDefinition beanDefinition = beanClassNameBeanDefinitionMap.get(beanClassName);
+            if (beanDefinition == null){
+                return null;
+            }
+            String beanId = beanDefinition.getBeanId();
+            registryStripedLock.execute(beanId, beanClassName, () -> {
+                if (!beanClassNameBeanDefinitionMap.remove(beanClassName, beanDefinition)){
+                    return;
+                }
+                if (!XLPStringUtil.isEmpty(beanId)){
+                    beanIdBeanDefinitionMap.remove(beanId, beanDefinition);
+                }
+                beanDefinitionTypeIndex.remove(beanDefinition.getBeanClass(), beanDefinition);
+                beanConsumerIndex.remove(beanDefinition);
+                definitionVersion.incrementAndGet();
+                invalidateResolvedCache();
+            });
+            return beanDefinition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 根据class文件变化重新注册受影响的bean定义，其他bean定义不变
+     * <ul>
+     *     <li>新增或修改的类：被{@link Component}标记时覆盖注册；没有被标记时，
+     *     移除之前由{@link Component}注册的bean定义，其他方式注册的bean定义使用新加载的类重新注册，
+     *     bean id、是否单例、是否延迟加载等配置沿用旧的bean定义</li>
+     *     <li>删除的类：移除其bean定义</li>
+     *     <li>加载失败的类（如class文件尚未写完）：记录日志，保留旧的bean定义，等待下次变化</li>
+     * </ul>
+     * <p>已创建的bean对象不会被移除或重新创建，可把返回值传给{@link #refresh(Collection)}重新创建受影响的bean；
+     * 修改的类需使用新的类加载器加载才能得到新的类</p>
+     *
+     * @param events class文件变化事件
+     * @param classLoader 加载新增或修改的类的类加载器
+     * @return 受影响的bean定义，包括被移除或覆盖的旧bean定义及新注册的bean定义
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     * @see org.xlp.scanner.pkg.ClassPathPkgScanner#watch(String, org.xlp.scanner.filter.ScanFilter,
+     *      org.xlp.scanner.watch.ClassChangeListener)
+     */
+    public List<IBeanDefinition> applyClassChanges(List<ClassChangeEvent> events, ClassLoader classLoader){
+        AssertUtils.isNotNull(events, "events parameter is null!");
+        AssertUtils.isNotNull(classLoader, "classLoader parameter is null!");
+        List<IBeanDefinition> changedDefinitions = new ArrayList<>();
+        for (ClassChangeEvent event : events) {
+            String className = event.getClassName();
+            IBeanDefinition oldDefinition = beanClassNameBeanDefinitionMap.get(className);
+            Class<?> beanClass = null;
+            if (event.getType() != ClassChangeEvent.Type.REMOVED){
+                try {
+                    beanClass = classLoader.loadClass(className);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    LOGGER.warn("加载类【" + className + "】失败，保留其原有的bean定义", e);
+                    continue;
+                }
+            }
+            IBeanDefinition newDefinition = null;
+            if (beanClass != null){
+                if (beanClass.isAnnotationPresent(Component.class)){
+                    newDefinition = new ComponentAnnotationBeanDefinition(beanClass);
+                } else if (oldDefinition != null && !(oldDefinition instanceof ComponentAnnotationBeanDefinition)){
+                    newDefinition = new ReloadedClassBeanDefinition(beanClass, oldDefinition);
+                }
+            }
+            if (oldDefinition != null){
+                if (newDefinition == null){
+                    removeBeanDefinition(className);
+                }
+                changedDefinitions.add(oldDefinition);
+            }
+            if (newDefinition != null){
+                addBeanDefinition(newDefinition, true);
+                changedDefinitions.add(newDefinition);
+            }
+        }
+        return changedDefinitions;
+    }
+
     /**
      * 判断bean定义已在容器中存在的类型
      *
@@ -341,51 +1032,97 @@ public class DefaultBeansContainer implements IBeansContainer {
     @Override
     public <T> void addBean(T bean, String beanId, boolean covering, Class<?>... types) throws BeanExistException {
         AssertUtils.isNotNull(bean, "bean parameter is null!");
-        Object _bean = _getBean(beanId);
+        checkNotFrozen();
+        Object _bean = _getBean(registry.get(), beanId);
         if(_bean != null && !covering){
             throw new BeanExistException(beanId, bean);
         }
-        beanMap.put(beanId, new BeanObject(bean, types));
-        _addBean(_bean, bean, (Class<T>) bean.getClass(), types);
+        _addBean(beanId, _bean, bean, (Class<T>) bean.getClass(), types);
     }
 
     /**
      * 向容器中添加指定类型的bean
      *
+     * @param beanId bean id，为null时只按类型添加
      * @param oldBean
      * @param bean
      * @param beanClass
      * @param types     对应的泛型信息
      */
-    private <T> void _addBean(Object oldBean, T bean, Class<? super T> beanClass, Class<?>... types)
+    private <T> void _addBean(String beanId, Object oldBean, T bean, Class<? super T> beanClass, Class<?>... types)
             throws BeanExistException {
-        if(oldBean == null){
-            beanClassBeanMap.compute(beanClass, (key, value) -> {
-                if(XLPArrayUtil.isEmpty(value)){
-                    return new BeanObject[]{new BeanObject(bean, types)};
+        Lock lock = registryLock.readLock();
+        lock.lock();
+        try {
+            checkNotFrozen();
+            // createBeans()执行中同时存入正在创建的注册信息，替换注册信息后该bean仍然存在
+            SingletonRegistry building = buildingRegistry;
+            for (SingletonRegistry target : building == null ? new SingletonRegistry[]{registry.get()}
+                    : new SingletonRegistry[]{registry.get(), building}) {
+                if (beanId != null){
+                    target.beanMap.put(beanId, new BeanObject(bean, types));
                 }
-                int len = value.length;
-                value = Arrays.copyOf(value, len + 1);
-                value[len] = new BeanObject(bean, types);
-                return value;
-            });
-        } else {
+                doAddBean(target, oldBean, bean, beanClass, types);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 向注册信息中添加指定类型的bean，调用者需持有{@link #registryLock}读锁
+     *
+     * @param registry 注册信息
+     * @param oldBean
+     * @param bean
+     * @param beanClass
+     * @param types     对应的泛型信息
+     */
+    private <T> void doAddBean(SingletonRegistry registry, Object oldBean, T bean, Class<? super T> beanClass,
+                               Class<?>... types) {
+        if(oldBean != null){
+            // 覆盖时先移除旧的bean对象
             Class<?> key = null;
-            Set<BeanObject> beanObjects = null;
-            loop: for (Map.Entry<Class<?>, BeanObject[]> entry : beanClassBeanMap.entrySet()) {
+            BeanObject oldBeanObject = null;
+            loop: for (Map.Entry<Class<?>, BeanObject[]> entry : registry.beanClassBeanMap.entrySet()) {
                 for (BeanObject beanObject : entry.getValue()) {
                     if (oldBean == beanObject.getRawObject()){
                         key = entry.getKey();
-                        beanObjects = new HashSet<>(Arrays.asList(entry.getValue()));
-                        beanObjects.remove(beanObject);
+                        oldBeanObject = beanObject;
                         break loop;
                     }
                 }
             }
             if (key != null){
-                beanClassBeanMap.put(key, beanObjects.toArray(new BeanObject[0]));
+                Class<?> _key = key;
+                BeanObject _oldBeanObject = oldBeanObject;
+                registryStripedLock.execute(_key, () -> {
+                    registry.beanClassBeanMap.computeIfPresent(_key, (k, value) -> {
+                        Set<BeanObject> objects = new HashSet<>(Arrays.asList(value));
+                        objects.remove(_oldBeanObject);
+                        return objects.isEmpty() ? null : objects.toArray(new BeanObject[0]);
+                    });
+                    registry.beanObjectTypeIndex.remove(_key, _oldBeanObject);
+                    return null;
+                });
             }
         }
+
+        BeanObject beanObject = new BeanObject(bean, types);
+        registryStripedLock.execute(beanClass, () -> {
+            registry.beanClassBeanMap.compute(beanClass, (key, value) -> {
+                if(XLPArrayUtil.isEmpty(value)){
+                    return new BeanObject[]{beanObject};
+                }
+                int len = value.length;
+                value = Arrays.copyOf(value, len + 1);
+                value[len] = beanObject;
+                return value;
+            });
+            registry.beanObjectTypeIndex.add(beanClass, beanObject);
+            return null;
+        });
+        registry.resolvedCache.invalidate();
     }
 
     /**
@@ -403,30 +1140,34 @@ public class DefaultBeansContainer implements IBeansContainer {
             throws BeanExistException {
         AssertUtils.isNotNull(bean, "bean parameter is null!");
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
-        Object _bean = _getBean(beanClass, types);
+        checkNotFrozen();
+        Object _bean = _getBean(registry.get(), beanClass, types);
         if(_bean != null && !covering){
             throw new BeanExistException(beanClass);
         }
-        _addBean(_bean, bean, beanClass, types);
+        _addBean(null, _bean, bean, beanClass, types);
     }
 
     /**
      * 重置容器中的数据
+     * <p>用空的注册信息整体替换容器当前的注册信息，正在获取bean的线程继续使用旧的注册信息，不会失败；
+     * 其他线程正在执行{@link #createBeans()}时，等待其完成后再重置</p>
+     * @throws BeanBaseException 假如容器已冻结，或在{@link #createBeans()}创建的bean中调用，则抛出该异常
      */
     @Override
     public void reset() {
-        synchronized (this){
-            resetting = true;
-            beanClassHalfBeanMap.clear();
-            beanHalfMap.clear();
-            beanMap.clear();
-            beanClassBeanMap.clear();
-            resetting = false;
+        createBeansLock.lock();
+        try {
+            if (buildingRegistry != null){
+                throw new BeanBaseException("正在预先创建bean，不能重置容器！");
+            }
+            publishRegistry(new SingletonRegistry());
+        } finally {
+            createBeansLock.unlock();
         }
-        CURRENT_THREAD_USED_CLASS.remove();
     }
 
-    private NotSuchBeanException getNotSuchBeanException(String beanId, String className){
+    static NotSuchBeanException getNotSuchBeanException(String beanId, String className){
         String msg = XLPStringUtil.isEmpty(beanId) ? "[" + className + "]该类型的bean未找到"
                 : "[" + beanId + "]该id的bean未找到";
         throw new NotSuchBeanException(msg);
@@ -444,7 +1185,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(id, "id parameter is null or empty!");
         IBeanDefinition beanDefinition = beanIdBeanDefinitionMap.get(id);
         if (beanDefinition != null) return beanDefinition.isProxy();
-        BeanObject beanObject = beanMap.get(id);
+        BeanObject beanObject = registry.get().beanMap.get(id);
         if (beanObject != null) return false;
         throw getNotSuchBeanException(id, null);
     }
@@ -462,7 +1203,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
         IBeanDefinition beanDefinition = getBeanDefinition(beanClass);
         if (beanDefinition != null) return beanDefinition.isProxy();
-        Set<BeanObject> beanObjects = getBeanObjects(beanClass, beanClassBeanMap);
+        Set<BeanObject> beanObjects = getBeanObjects(registry.get(), beanClass);
         if (!XLPCollectionUtil.isEmpty(beanObjects)) return false;
         throw getNotSuchBeanException(null, beanClass.getName());
     }
@@ -470,11 +1211,9 @@ public class DefaultBeansContainer implements IBeansContainer {
     private <T> IBeanDefinition getBeanDefinition(Class<T> beanClass){
         int count = 0;
         IBeanDefinition beanDefinition = null;
-        for (Map.Entry<String, IBeanDefinition> entry : beanClassNameBeanDefinitionMap.entrySet()) {
-            beanDefinition = entry.getValue();
-            if (beanClass.isAssignableFrom(beanDefinition.getBeanClass())){
-                count++;
-            }
+        for (IBeanDefinition definition : beanDefinitionTypeIndex.get(beanClass)) {
+            beanDefinition = definition;
+            count++;
         }
         if (count > 1){
            throw new MultiplyBeanException(beanClass);
@@ -495,7 +1234,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(id, "id parameter is null or empty!");
         IBeanDefinition beanDefinition = beanIdBeanDefinitionMap.get(id);
         if (beanDefinition != null) return beanDefinition.isSingleton();
-        BeanObject beanObject = beanMap.get(id);
+        BeanObject beanObject = registry.get().beanMap.get(id);
         if (beanObject != null) return true;
         throw getNotSuchBeanException(id, null);
     }
@@ -513,7 +1252,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
         IBeanDefinition beanDefinition = getBeanDefinition(beanClass);
         if (beanDefinition != null) return beanDefinition.isSingleton();
-        Set<BeanObject> beanObjects = getBeanObjects(beanClass, beanClassBeanMap);
+        Set<BeanObject> beanObjects = getBeanObjects(registry.get(), beanClass);
         if (!XLPCollectionUtil.isEmpty(beanObjects)) return true;
         throw getNotSuchBeanException(null, beanClass.getName());
     }
@@ -531,7 +1270,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(id, "id parameter is null or empty!");
         IBeanDefinition beanDefinition = beanIdBeanDefinitionMap.get(id);
         if (beanDefinition != null) return beanDefinition.isLazy();
-        BeanObject beanObject = beanMap.get(id);
+        BeanObject beanObject = registry.get().beanMap.get(id);
         if (beanObject != null) return false;
         throw getNotSuchBeanException(id, null);
     }
@@ -549,7 +1288,7 @@ public class DefaultBeansContainer implements IBeansContainer {
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
         IBeanDefinition beanDefinition = getBeanDefinition(beanClass);
         if (beanDefinition != null) return beanDefinition.isLazy();
-        Set<BeanObject> beanObjects = getBeanObjects(beanClass, beanClassBeanMap);
+        Set<BeanObject> beanObjects = getBeanObjects(registry.get(), beanClass);
         if (!XLPCollectionUtil.isEmpty(beanObjects)) return false;
         throw getNotSuchBeanException(null, beanClass.getName());
     }
@@ -565,52 +1304,35 @@ public class DefaultBeansContainer implements IBeansContainer {
     @Override
     public <T> T getBean(String beanId) throws NotSuchBeanException {
         AssertUtils.isNotNull(beanId, "beanId parameter is null or empty!");
-        //判断容器是否在重置中
-        checkContainerResetting();
-        T bean = _getBean(beanId);
+        T bean = _getBean(registry.get(), beanId);
         if (bean == null){
             throw new NotSuchBeanException("未适配到id为【" + beanId + "】的bean实例！");
         }
-        //防止获取半初始化的bean对象
-        awaitRemovedBeanIdFromCache(beanId);
         return bean;
     }
 
     /**
-     * 等待未完成初始化的对象从缓存中移除
-     * @param beanId
-     */
-    private void awaitRemovedBeanIdFromCache(String beanId) {
-        BeanObject beanObject;
-        do {
-            beanObject = beanHalfMap.get(beanId);
-        } while (beanObject != null);
-    }
-
-    /**
-     * 从容器中相应id的bean对象
+     * 从注册信息中相应id的bean对象
      *
+     * @param registry 注册信息
      * @param beanId beanId
      * @return
      * @throws NotSuchBeanException
      */
     @SuppressWarnings("unchecked")
-    private  <T> T _getBean(String beanId) throws NotSuchBeanException {
+    private  <T> T _getBean(SingletonRegistry registry, String beanId) throws NotSuchBeanException {
         BeanObject beanObject = null;
         if (!XLPStringUtil.isEmpty(beanId)){
-            beanObject = beanMap.get(beanId);
+            beanObject = registry.beanMap.get(beanId);
 
             if (beanObject == null){
                 // 未找到再次重bean定义中查找
                 IBeanDefinition beanDefinition = beanIdBeanDefinitionMap.get(beanId);
                 if (beanDefinition != null){
                     if (beanDefinition.isSingleton()){
-                        synchronized (beanDefinition.getBeanClass()){
-                            beanObject = beanMap.get(beanId);
-                            return (T) (beanObject == null ? doCreateBean(beanDefinition) : beanObject.getRawObject());
-                        }
+                        return (T) getOrCreateSingleton(registry, beanDefinition);
                     }
-                    return (T) doCreateBean(beanDefinition);
+                    return (T) getRawObject(doCreateBean(registry, beanDefinition));
                 }
             }
         }
@@ -643,56 +1365,62 @@ public class DefaultBeansContainer implements IBeansContainer {
     @Override
     public <T, I> T getBean(Class<I> beanClass, Type[] types) throws BeanBaseException {
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
-        //判断容器是否在重置中
-        checkContainerResetting();
-
-        T bean = _getBean(beanClass, types);
+        T bean = _getBean(registry.get(), beanClass, types);
         if (bean == null){
             throw new NotSuchBeanException("未适配到类型为【" + beanClass.getName() + getTypesDescription(types)
                     + "】的bean实例！");
         }
-        //防止获取半初始化的bean对象
-        awaitRemovedBeanClassFromCache(beanClass, types);
         return bean;
     }
 
-    private void checkContainerResetting() {
-        if (resetting){
-            throw new BeanBaseException("容器正在重置中，获取bean失败！");
-        }
-    }
-
-    private <I> void awaitRemovedBeanClassFromCache(Class<I> beanClass, Type[] types) {
-        BeanObject[] beanObjects = beanClassHalfBeanMap.get(beanClass);
-        if (XLPArrayUtil.isEmpty(beanObjects)){
-            return;
-        }
-        BeanObject beanObject;
-        do {
-            beanObject = getBeanObject(beanClass, types, new HashSet<>(Arrays.asList(beanObjects)), false);
-        } while (beanObject != null);
+    /**
+     * 获取bean包装对象中的原始对象
+     * @param beanObject bean包装对象
+     * @return 假如参数为null，返回null
+     */
+    private Object getRawObject(BeanObject beanObject){
+        return beanObject == null ? null : beanObject.getRawObject();
     }
 
     /**
-     * 获取该id的bean对象
+     * 从注册信息中获取该类型的bean对象
      *
+     * @param registry 注册信息
      * @param beanClass bean类型
      * @param types     目标泛型类型
      * @return bean 对象
      * @throws BeanBaseException 假如或bean过程失败，则抛出该异常
-     * @throws NullPointerException 假如第一个参数为null，则抛出该异常
+     * @throws NullPointerException 假如第二个参数为null，则抛出该异常
      */
     @SuppressWarnings("unchecked")
-    private  <T, I> T _getBean(Class<I> beanClass, Type[] types) throws BeanBaseException {
+    private  <T, I> T _getBean(SingletonRegistry registry, Class<I> beanClass, Type[] types) throws BeanBaseException {
         AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
-        Set<BeanObject> beanObjectSet = getBeanObjects(beanClass, beanClassBeanMap);
-        BeanObject beanObject = getBeanObject(beanClass, types, beanObjectSet, false);
+        BeanResolvedCache resolvedCache = registry.resolvedCache;
+        // 优先使用已缓存的解析结果，避免重复的类型匹配
+        BeanResolvedCache.Resolution resolution = resolvedCache.get(beanClass, types);
+        if (resolution != null){
+            switch (resolution.kind){
+                case NONE:
+                    return null;
+                case AMBIGUOUS:
+                    throw new MultiplyBeanException(beanClass);
+                case DEFINITION:
+                    return (T) getRawObject(doCreateBean(registry, resolution.beanObject.getBeanDefinition()));
+                default:
+                    return (T) resolution.beanObject.getRawObject();
+            }
+        }
+
+        long generation = resolvedCache.generation();
+        Set<BeanObject> beanObjectSet = getBeanObjects(registry, beanClass);
+        BeanObject beanObject = resolveBeanObject(resolvedCache, beanClass, types, beanObjectSet, generation);
 
         if (beanObject == null){
             // 未找到，从Bean定义中去查找
             beanObjectSet = doGetBeanObjects(beanClass);
-            beanObject = getBeanObject(beanClass, types, beanObjectSet, false);
+            beanObject = resolveBeanObject(resolvedCache, beanClass, types, beanObjectSet, generation);
             if (beanObject == null){
+                resolvedCache.put(beanClass, types, BeanResolvedCache.ResolutionKind.NONE, null, generation);
                 return null;
             }
             IBeanDefinition beanDefinition = beanObject.getBeanDefinition();
@@ -700,23 +1428,44 @@ public class DefaultBeansContainer implements IBeansContainer {
             if (beanDefinition != null){
                 Object bean;
                 if (beanDefinition.isSingleton()){
-                    synchronized (beanDefinition.getBeanClass()){
-                        // 防止单例被创建多个实例对象
-                        beanObjectSet = getBeanObjects(beanClass, beanClassBeanMap);
-                        beanObject = getBeanObject(beanClass, types, beanObjectSet, false);
-                        bean = beanObject == null ? doCreateBean(beanDefinition) : beanObject.getRawObject();
-                    }
+                    // 由创建状态保证单例只被创建一次
+                    bean = getOrCreateSingleton(registry, beanDefinition);
                 } else {
-                    bean = doCreateBean(beanDefinition);
+                    resolvedCache.put(beanClass, types, BeanResolvedCache.ResolutionKind.DEFINITION,
+                            beanObject, generation);
+                    bean = getRawObject(doCreateBean(registry, beanDefinition));
                 }
+
                 return (T) bean;
             }
+        } else {
+            resolvedCache.put(beanClass, types, BeanResolvedCache.ResolutionKind.BEAN, beanObject, generation);
         }
 
         return (T) beanObject.getRawObject();
     }
 
-    private String getTypesDescription(Type[] types){
+    /**
+     * 从给定的bean对象集合中匹配bean对象，匹配到多个时缓存该结果
+     * @param resolvedCache 解析结果缓存
+     * @param beanClass bean类型
+     * @param types 泛型类型
+     * @param beanObjects 候选bean对象集合
+     * @param generation 开始解析时的缓存代数
+     * @return 未匹配到返回null
+     * @throws MultiplyBeanException 假如匹配到多个，则抛出该异常
+     */
+    private BeanObject resolveBeanObject(BeanResolvedCache resolvedCache, Class<?> beanClass, Type[] types,
+                                         Set<BeanObject> beanObjects, long generation){
+        try {
+            return getBeanObject(beanClass, types, beanObjects, false);
+        } catch (MultiplyBeanException e){
+            resolvedCache.put(beanClass, types, BeanResolvedCache.ResolutionKind.AMBIGUOUS, null, generation);
+            throw e;
+        }
+    }
+
+    static String getTypesDescription(Type[] types){
         StringBuilder sb = new StringBuilder();
         boolean start = true;
         types = types == null ? new Type[0] : types;
@@ -747,35 +1496,43 @@ public class DefaultBeansContainer implements IBeansContainer {
         return getBean(beanClass, _types);
     }
 
-    private Set<BeanObject> getBeanObjects(Class<?> beanClass, Map<Class<?>, BeanObject[]> beanClassBeanMap) {
-        Set<BeanObject> beanObjectSet = new HashSet<>();
-        beanClassBeanMap.forEach((key, value) -> {
-            if (beanClass.isAssignableFrom(key)){
-                beanObjectSet.addAll(Arrays.asList(value));
-            }
-        });
-        return beanObjectSet;
+    /**
+     * 从注册信息的类型索引中获取可赋值给指定类型的已创建bean对象
+     * @param registry 注册信息
+     * @param beanClass 目标类型
+     * @return 只读集合
+     */
+    private Set<BeanObject> getBeanObjects(SingletonRegistry registry, Class<?> beanClass) {
+        return registry.beanObjectTypeIndex.get(beanClass);
     }
 
     private Set<BeanObject> doGetBeanObjects(Class<?> beanClass){
-        String beanClassName = beanClass.getName();
         Set<BeanObject> beanObjectList = new HashSet<>();
-        beanClassNameBeanDefinitionMap.forEach((key, value) -> {
-            if (beanClass.isAssignableFrom(value.getBeanClass())
-                && !value.isAbstract()){
-                beanObjectList.add(new BeanObject(value, (Object) null));
+        for (IBeanDefinition definition : beanDefinitionTypeIndex.get(beanClass)) {
+            if (!definition.isAbstract()){
+                beanObjectList.add(new BeanObject(definition, (Object) null));
             }
-        });
+        }
         return beanObjectList;
     }
 
-    private BeanObject getBeanObject(Class<?> beanClass, Type[] types, Set<BeanObject> beanObjects,
-                                     boolean notFindBeanThenThrowException) {
+    /**
+     * 从给定的bean对象集合中获取唯一匹配类型及泛型的bean对象
+     * @param beanClass bean类型
+     * @param types 泛型类型
+     * @param beanObjects 候选bean对象集合
+     * @param notFindBeanThenThrowException 未匹配到时是否抛出异常
+     * @return 匹配的bean对象，未匹配到返回null
+     * @throws NotSuchBeanException 假如未匹配到且最后一个参数为true，则抛出该异常
+     * @throws MultiplyBeanException 假如匹配到多个，则抛出该异常
+     */
+    static BeanObject getBeanObject(Class<?> beanClass, Type[] types, Collection<BeanObject> beanObjects,
+                                    boolean notFindBeanThenThrowException) {
         BeanObject beanObject = null;
         int count = 0;
         for (BeanObject object : beanObjects) {
-            beanObject = object;
-            if (beanObject.compareClassAndTypes(beanClass, types)) {
+            if (object.compareClassAndTypes(beanClass, types)) {
+                beanObject = object;
                 count++;
             }
         }
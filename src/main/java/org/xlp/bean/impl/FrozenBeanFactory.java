@@ -0,0 +1,482 @@
+package org.xlp.bean.impl;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.base.IBeanFactory;
+import org.xlp.bean.exception.BeanBaseException;
+import org.xlp.bean.exception.MultiplyBeanException;
+import org.xlp.bean.exception.NotSuchBeanException;
+import org.xlp.bean.object.BeanObject;
+import org.xlp.bean.util.ClassForNameUtils;
+import org.xlp.bean.util.ParameterizedTypeUtils;
+import org.xlp.bean.util.SuperTypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 冻结后的只读bean工厂，由{@link DefaultBeansContainer#freeze()}生成
+ * <p>冻结时所有单例bean已创建完成，bean id表与类型表在构造时一次性生成且之后不再修改，
+ * 获取单例bean只是对不可变数组和表的读取，不需要任何同步</p>
+ * <p>非单例bean仍由原容器创建，原容器冻结后不能再修改</p>
+ */
+public final class FrozenBeanFactory implements IBeanFactory {
+    /**
+     * 空的bean对象数组
+     */
+    private static final BeanObject[] EMPTY_BEAN_OBJECTS = new BeanObject[0];
+
+    /**
+     * 空的bean定义数组
+     */
+    private static final IBeanDefinition[] EMPTY_BEAN_DEFINITIONS = new IBeanDefinition[0];
+
+    /**
+     * 生成该对象的容器，用来创建非单例bean
+     */
+    private final DefaultBeansContainer container;
+
+    /**
+     * 所有bean对象
+     */
+    private final BeanObject[] beanObjects;
+
+    /**
+     * bean id表，key: bean id, value: id对应的bean信息
+     */
+    private final Map<String, IdEntry> idTable;
+
+    /**
+     * 类型表，key: 目标类型（bean类型的自身、超类或接口）, value: 该类型对应的bean信息
+     */
+    private final Map<Class<?>, TypeEntry> typeTable;
+
+    /**
+     * 构造函数
+     * @param container 已冻结并完成所有单例创建的容器
+     * @param beanIdBeanDefinitionMap bean id 与 bean定义映射
+     * @param beanClassNameBeanDefinitionMap bean类名 与 bean定义映射
+     * @param beanMap bean id 与 bean对象映射
+     * @param beanClassBeanMap bean类型 与 bean对象映射
+     */
+    FrozenBeanFactory(DefaultBeansContainer container,
+                      Map<String, IBeanDefinition> beanIdBeanDefinitionMap,
+                      Map<String, IBeanDefinition> beanClassNameBeanDefinitionMap,
+                      Map<String, BeanObject> beanMap,
+                      Map<Class<?>, BeanObject[]> beanClassBeanMap){
+        this.container = container;
+
+        // 生成bean对象数组及类型与bean对象的映射
+        List<BeanObject> beanObjectList = new ArrayList<>();
+        Map<Class<?>, List<BeanObject>> typeBeanObjects = new HashMap<>();
+        beanClassBeanMap.forEach((beanClass, value) -> {
+            for (BeanObject beanObject : value) {
+                beanObjectList.add(beanObject);
+                for (Class<?> type : SuperTypeUtils.getAllSuperTypes(beanClass)) {
+                    typeBeanObjects.computeIfAbsent(type, key -> new ArrayList<>()).add(beanObject);
+                }
+            }
+        });
+        this.beanObjects = beanObjectList.toArray(EMPTY_BEAN_OBJECTS);
+
+        // 生成类型与bean定义的映射，非单例且非抽象的bean定义单独记录，用来创建实例
+        Map<Class<?>, List<IBeanDefinition>> typeDefinitions = new HashMap<>();
+        Map<Class<?>, List<BeanObject>> typePrototypes = new HashMap<>();
+        for (IBeanDefinition definition : beanClassNameBeanDefinitionMap.values()) {
+            for (Class<?> type : SuperTypeUtils.getAllSuperTypes(definition.getBeanClass())) {
+                typeDefinitions.computeIfAbsent(type, key -> new ArrayList<>()).add(definition);
+                if (!definition.isSingleton() && !definition.isAbstract()){
+                    typePrototypes.computeIfAbsent(type, key -> new ArrayList<>())
+                            .add(new BeanObject(definition, (Object) null));
+                }
+            }
+        }
+
+        Set<Class<?>> types = new HashSet<>(typeBeanObjects.keySet());
+        types.addAll(typeDefinitions.keySet());
+        Map<Class<?>, TypeEntry> typeTable = new HashMap<>(types.size() * 4 / 3 + 1);
+        for (Class<?> type : types) {
+            typeTable.put(type, new TypeEntry(type,
+                    toBeanObjectArray(typeBeanObjects.get(type)),
+                    toBeanObjectArray(typePrototypes.get(type)),
+                    typeDefinitions.getOrDefault(type, Collections.emptyList()).toArray(EMPTY_BEAN_DEFINITIONS)));
+        }
+        this.typeTable = typeTable;
+
+        // 生成bean id表
+        Map<String, IdEntry> idTable = new HashMap<>((beanMap.size() + beanIdBeanDefinitionMap.size()) * 4 / 3 + 1);
+        beanMap.forEach((id, beanObject) -> idTable.put(id, new IdEntry(beanIdBeanDefinitionMap.get(id), beanObject)));
+        beanIdBeanDefinitionMap.forEach((id, definition) -> idTable.putIfAbsent(id, new IdEntry(definition, null)));
+        this.idTable = idTable;
+    }
+
+    private static BeanObject[] toBeanObjectArray(List<BeanObject> list){
+        return list == null ? EMPTY_BEAN_OBJECTS : list.toArray(EMPTY_BEAN_OBJECTS);
+    }
+
+    /**
+     * 获取所有bean对象的数量
+     * @return bean对象数量
+     */
+    public int getBeanCount(){
+        return beanObjects.length;
+    }
+
+    private IdEntry getIdEntry(String id){
+        AssertUtils.isNotNull(id, "id parameter is null or empty!");
+        IdEntry entry = idTable.get(id);
+        if (entry == null){
+            throw DefaultBeansContainer.getNotSuchBeanException(id, null);
+        }
+        return entry;
+    }
+
+    private TypeEntry getTypeEntry(Class<?> beanClass){
+        AssertUtils.isNotNull(beanClass, "beanClass parameter is null!");
+        return typeTable.get(beanClass);
+    }
+
+    /**
+     * 获取指定类型唯一的bean定义
+     * @return 不存在返回null
+     * @throws MultiplyBeanException 假如存在多个，则抛出该异常
+     */
+    private IBeanDefinition getBeanDefinition(Class<?> beanClass, TypeEntry entry){
+        if (entry == null || entry.definitions.length == 0){
+            return null;
+        }
+        if (entry.definitions.length > 1){
+            throw new MultiplyBeanException(beanClass);
+        }
+        return entry.definitions[0];
+    }
+
+    /**
+     * 判断给的id的bean是否被代理
+     *
+     * @param id bean id
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    @Override
+    public boolean isProxy(String id) throws NotSuchBeanException {
+        IdEntry entry = getIdEntry(id);
+        return entry.definition != null && entry.definition.isProxy();
+    }
+
+    /**
+     * 判断给的类型的bean是否被代理
+     *
+     * @param beanClass bean类型
+     * @return true: 是，false：否
+     * @throws NotSuchBeanException 假如未找到指定类名的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    @Override
+    public <T> boolean isProxy(Class<T> beanClass) throws NotSuchBeanException {
+        TypeEntry entry = getTypeEntry(beanClass);
+        IBeanDefinition definition = getBeanDefinition(beanClass, entry);
+        if (definition != null) return definition.isProxy();
+        if (entry != null && entry.beanObjects.length > 0) return false;
+        throw DefaultBeansContainer.getNotSuchBeanException(null, beanClass.getName());
+    }
+
+    /**
+     * 判断给的id的bean是否是单例
+     *
+     * @param id bean id
+     * @return true: 是，false：否
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    @Override
+    public boolean isSingleton(String id) throws NotSuchBeanException {
+        IdEntry entry = getIdEntry(id);
+        return entry.definition == null || entry.definition.isSingleton();
+    }
+
+    /**
+     * 判断给的类型的bean是否是单例
+     *
+     * @param beanClass bean类型
+     * @return true: 是，false：否
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    @Override
+    public <T> boolean isSingleton(Class<T> beanClass) throws NotSuchBeanException {
+        TypeEntry entry = getTypeEntry(beanClass);
+        IBeanDefinition definition = getBeanDefinition(beanClass, entry);
+        if (definition != null) return definition.isSingleton();
+        if (entry != null && entry.beanObjects.length > 0) return true;
+        throw DefaultBeansContainer.getNotSuchBeanException(null, beanClass.getName());
+    }
+
+    /**
+     * 判断给的id的bean是否延迟实例化
+     *
+     * @param id bean id
+     * @return true: 是，false：否
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    @Override
+    public boolean isLazy(String id) throws NotSuchBeanException {
+        IdEntry entry = getIdEntry(id);
+        return entry.definition != null && entry.definition.isLazy();
+    }
+
+    /**
+     * 判断给的类型的bean是否延迟实例化
+     *
+     * @param beanClass bean类型
+     * @return true: 是，false：否
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    @Override
+    public <T> boolean isLazy(Class<T> beanClass) throws NotSuchBeanException {
+        TypeEntry entry = getTypeEntry(beanClass);
+        IBeanDefinition definition = getBeanDefinition(beanClass, entry);
+        if (definition != null) return definition.isLazy();
+        if (entry != null && entry.beanObjects.length > 0) return false;
+        throw DefaultBeansContainer.getNotSuchBeanException(null, beanClass.getName());
+    }
+
+    /**
+     * 获取该id的bean对象
+     *
+     * @param id bean id
+     * @return bean 对象
+     * @throws NotSuchBeanException 假如未找到指定id的bean则抛出该异常
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getBean(String id) throws BeanBaseException {
+        AssertUtils.isNotNull(id, "beanId parameter is null or empty!");
+        IdEntry entry = idTable.get(id);
+        if (entry != null){
+            if (entry.beanObject != null){
+                return (T) entry.beanObject.getRawObject();
+            }
+            // 冻结时未创建的单例（如抽象类或没有创建器）与容器一致按单例获取，不能每次创建新的实例
+            Object bean = entry.definition.isSingleton() ? container.getSingleton(entry.definition)
+                    : container.createPrototype(entry.definition);
+            if (bean != null){
+                return (T) bean;
+            }
+        }
+        throw new NotSuchBeanException("未适配到id为【" + id + "】的bean实例！");
+    }
+
+    /**
+     * 获取该类型的bean对象
+     *
+     * @param beanClass bean类型
+     * @return bean 对象
+     * @throws BeanBaseException 假如或bean过程失败，则抛出该异常
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    @Override
+    public <T, I> T getBean(Class<I> beanClass) throws BeanBaseException {
+        TypeEntry entry = getTypeEntry(beanClass);
+        if (entry == null){
+            throw notSuchBean(beanClass, ParameterizedTypeUtils.getClassTypes(beanClass, true));
+        }
+        // 使用冻结时预先解析好的结果
+        return resolve(beanClass, entry.defaultTypes, entry.defaultResolution);
+    }
+
+    /**
+     * 获取该类型的bean对象
+     *
+     * @param beanClass bean类型
+     * @param types     目标泛型类型
+     * @return bean 对象
+     * @throws BeanBaseException 假如或bean过程失败，则抛出该异常
+     * @throws NullPointerException 假如第一个参数为null，则抛出该异常
+     */
+    @Override
+    public <T, I> T getBean(Class<I> beanClass, Type[] types) throws BeanBaseException {
+        TypeEntry entry = getTypeEntry(beanClass);
+        if (entry == null){
+            throw notSuchBean(beanClass, types);
+        }
+        // 使用按泛型类型缓存的解析结果
+        return resolve(beanClass, types, entry.getResolution(types));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T resolve(Class<?> beanClass, Type[] types, Object resolution){
+        if (resolution == null){
+            throw notSuchBean(beanClass, types);
+        }
+        if (resolution == TypeEntry.AMBIGUOUS){
+            throw new MultiplyBeanException(beanClass);
+        }
+        BeanObject beanObject = (BeanObject) resolution;
+        IBeanDefinition definition = beanObject.getBeanDefinition();
+        if (beanObject.getRawObject() == null && definition != null && !definition.isSingleton()){
+            Object bean = container.createPrototype(definition);
+            if (bean == null){
+                throw notSuchBean(beanClass, types);
+            }
+            return (T) bean;
+        }
+        return (T) beanObject.getRawObject();
+    }
+
+    private NotSuchBeanException notSuchBean(Class<?> beanClass, Type[] types){
+        return new NotSuchBeanException("未适配到类型为【" + beanClass.getName()
+                + DefaultBeansContainer.getTypesDescription(types) + "】的bean实例！");
+    }
+
+    /**
+     * 获取指定类型待泛型目标类型的Bean对象
+     *
+     * @param beanClass bean类型
+     * @param types     泛型目标类型
+     * @return
+     * @throws BeanBaseException 假如或bean过程失败，则抛出该异常
+     */
+    @Override
+    public <T> T getBean(Class<?> beanClass, Class<?>... types) {
+        Type[] _types = new Type[types == null ? 0 : types.length];
+        for (int i = 0, len = _types.length; i < len; i++) {
+            _types[i] = types[i];
+        }
+        return getBean(beanClass, _types);
+    }
+
+    /**
+     * 获取该类全路径名称的bean对象
+     *
+     * @param className 类全路径名称
+     * @return bean 对象
+     * @throws BeanBaseException 假如或bean过程失败，则抛出该异常
+     * @throws NullPointerException 假如参数为null或空，则抛出该异常
+     */
+    @Override
+    public <T> T getBeanByClassName(String className) throws BeanBaseException {
+        AssertUtils.isNotNull(className, "className parameter is null or empty!");
+        return getBean(ClassForNameUtils.forName(className));
+    }
+
+    /**
+     * bean id表项
+     */
+    private static final class IdEntry {
+        /**
+         * bean定义，直接添加的bean对象没有bean定义
+         */
+        final IBeanDefinition definition;
+
+        /**
+         * 单例bean对象，非单例为null
+         */
+        final BeanObject beanObject;
+
+        IdEntry(IBeanDefinition definition, BeanObject beanObject) {
+            this.definition = definition;
+            this.beanObject = beanObject;
+        }
+    }
+
+    /**
+     * 类型表项
+     */
+    private static final class TypeEntry {
+        /**
+         * 标记找到多个匹配的bean
+         */
+        static final Object AMBIGUOUS = new Object();
+
+        /**
+         * 标记未找到匹配的bean，用于缓存
+         */
+        private static final Object NONE = new Object();
+
+        /**
+         * 目标类型
+         */
+        final Class<?> type;
+
+        /**
+         * 可赋值给该类型的bean对象
+         */
+        final BeanObject[] beanObjects;
+
+        /**
+         * 可赋值给该类型的非单例bean定义包装对象
+         */
+        final BeanObject[] prototypes;
+
+        /**
+         * 可赋值给该类型的所有bean定义
+         */
+        final IBeanDefinition[] definitions;
+
+        /**
+         * 未指定泛型类型时使用的泛型类型
+         */
+        final Type[] defaultTypes;
+
+        /**
+         * 未指定泛型类型时的解析结果：{@link BeanObject}、{@link #AMBIGUOUS}或null
+         */
+        final Object defaultResolution;
+
+        /**
+         * 指定泛型类型时的解析结果缓存，key: 泛型类型，value: {@link BeanObject}、{@link #AMBIGUOUS}或{@link #NONE}
+         */
+        private final Map<List<Type>, Object> resolutions = new ConcurrentHashMap<>();
+
+        TypeEntry(Class<?> type, BeanObject[] beanObjects, BeanObject[] prototypes, IBeanDefinition[] definitions) {
+            this.type = type;
+            this.beanObjects = beanObjects;
+            this.prototypes = prototypes;
+            this.definitions = definitions;
+            this.defaultTypes = ParameterizedTypeUtils.getClassTypes(type, true);
+            this.defaultResolution = resolve(defaultTypes);
+        }
+
+        /**
+         * 获取按泛型类型解析bean的结果，首次解析后缓存，之后不再进行类型匹配
+         * @param types 泛型类型
+         * @return {@link BeanObject}、{@link #AMBIGUOUS}或null
+         */
+        Object getResolution(Type[] types){
+            List<Type> key = types == null ? Collections.emptyList() : Arrays.asList(types);
+            if (key.equals(Arrays.asList(defaultTypes))){
+                return defaultResolution;
+            }
+            Object resolution = resolutions.get(key);
+            if (resolution == null){
+                resolution = resolve(types);
+                resolutions.putIfAbsent(new ArrayList<>(key), resolution == null ? NONE : resolution);
+            }
+            return resolution == NONE ? null : resolution;
+        }
+
+        /**
+         * 按泛型类型解析bean，与{@link DefaultBeansContainer}的匹配规则一致：先匹配bean对象，再匹配非单例bean定义
+         * @param types 泛型类型
+         * @return {@link BeanObject}、{@link #AMBIGUOUS}或null
+         */
+        Object resolve(Type[] types){
+            try {
+                BeanObject beanObject = DefaultBeansContainer.getBeanObject(type, types,
+                        Arrays.asList(beanObjects), false);
+                if (beanObject == null){
+                    beanObject = DefaultBeansContainer.getBeanObject(type, types,
+                            Arrays.asList(prototypes), false);
+                }
+                return beanObject;
+            } catch (MultiplyBeanException e){
+                return AMBIGUOUS;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.xlp.bean.impl;
+
+import org.xlp.assertion.AssertUtils;
+import org.xlp.bean.base.AbstractBeanDefinition;
+import org.xlp.bean.base.IBeanDefinition;
+
+/**
+ * 重新加载的类的bean定义，bean id、是否单例、是否延迟加载等配置沿用旧的bean定义
+ * <p>用于重新注册不是由{@link org.xlp.bean.annotation.Component}注册的bean定义，
+ * bean属性及bean创建器根据新加载的类重新生成</p>
+ *
+ * @see DefaultBeansContainer#applyClassChanges(java.util.List, ClassLoader)
+ */
+final class ReloadedClassBeanDefinition extends AbstractBeanDefinition {
+    private final boolean proxy;
+
+    private final boolean singleton;
+
+    private final boolean lazy;
+
+    private final String beanId;
+
+    private final String description;
+
+    /**
+     * 构造函数
+     *
+     * @param beanClass 新加载的bean类型
+     * @param oldDefinition 旧的bean定义
+     * @throws NullPointerException 假如参数为null，则抛出该异常
+     */
+    ReloadedClassBeanDefinition(Class<?> beanClass, IBeanDefinition oldDefinition) {
+        super(beanClass);
+        AssertUtils.isNotNull(oldDefinition, "oldDefinition parameter is null!");
+        this.proxy = oldDefinition.isProxy();
+        this.singleton = oldDefinition.isSingleton();
+        this.lazy = oldDefinition.isLazy();
+        this.beanId = oldDefinition.getBeanId();
+        this.description = oldDefinition.getDescription();
+    }
+
+    @Override
+    public boolean isProxy() {
+        return proxy;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return singleton;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    @Override
+    public String getBeanId() {
+        return beanId;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
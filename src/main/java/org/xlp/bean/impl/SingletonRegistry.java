@@ -0,0 +1,43 @@
+package org.xlp.bean.impl;
+
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.object.BeanObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 容器中bean对象的一代注册信息
+ * <p>重置容器或预先创建bean时生成新的一代，在新的一代中创建bean，完成后整体替换容器当前的注册信息；
+ * 正在获取bean的线程继续使用旧的一代，不会看到被清空一半的注册信息</p>
+ */
+final class SingletonRegistry {
+    /**
+     * 存储bean id 与 bean对象 映射集合
+     * <p>key: beanId, value: {@link BeanObject}对象</p>
+     */
+    final Map<String, BeanObject> beanMap = new ConcurrentHashMap<>(8);
+
+    /**
+     * 存储bean类名与 bean对象 映射集合
+     * <p>key: beanClass , value: {@link BeanObject}对象</p>
+     */
+    final Map<Class<?>, BeanObject[]> beanClassBeanMap = new ConcurrentHashMap<>(8);
+
+    /**
+     * 存储单例bean定义与其创建状态映射集合，保证每个单例在同一代中只被创建一次
+     * <p>key: {@link IBeanDefinition}对象, value: {@link BeanCreation}对象</p>
+     */
+    final Map<IBeanDefinition, BeanCreation> singletonCreationMap = new ConcurrentHashMap<>(8);
+
+    /**
+     * bean对象类型索引，key为bean类型的所有父类型（自身、超类、接口）
+     * <p>与{@link #beanClassBeanMap}同步维护，按类型查找bean对象时无需遍历</p>
+     */
+    final BeanTypeIndex<BeanObject> beanObjectTypeIndex = new BeanTypeIndex<>();
+
+    /**
+     * 按类型获取bean的解析结果缓存，注册信息或bean定义变化时失效
+     */
+    final BeanResolvedCache resolvedCache = new BeanResolvedCache();
+}
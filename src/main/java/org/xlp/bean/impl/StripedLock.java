@@ -0,0 +1,91 @@
+package org.xlp.bean.impl;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 分段锁，按key的hash值把操作分散到固定数量的锁上
+ * <p>锁对象只在容器内部可见，不会与外部代码对同一对象加锁产生竞争</p>
+ */
+final class StripedLock {
+    /**
+     * 锁数组，长度为2的幂
+     */
+    private final ReentrantLock[] locks;
+
+    /**
+     * 取锁下标的掩码
+     */
+    private final int mask;
+
+    /**
+     * 构造函数
+     * @param stripes 锁数量，会被调整为不小于该值的2的幂
+     */
+    StripedLock(int stripes){
+        int size = 1;
+        while (size < stripes){
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 获取给定key对应的锁下标
+     * @param key 可为null
+     * @return 锁下标
+     */
+    private int indexOf(Object key){
+        if (key == null){
+            return 0;
+        }
+        int h = key.hashCode();
+        // 扰动hash值，避免低位相同的key集中在同一个锁上
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    /**
+     * 持有给定key对应的锁执行操作
+     * @param key 锁key
+     * @param action 要执行的操作
+     * @return 操作结果
+     */
+    <R> R execute(Object key, Supplier<R> action){
+        ReentrantLock lock = locks[indexOf(key)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 同时持有两个key对应的锁执行操作，按下标顺序加锁以避免死锁
+     * @param key1 锁key
+     * @param key2 锁key
+     * @param action 要执行的操作
+     */
+    void execute(Object key1, Object key2, Runnable action){
+        int index1 = indexOf(key1);
+        int index2 = indexOf(key2);
+        ReentrantLock first = locks[Math.min(index1, index2)];
+        ReentrantLock second = index1 == index2 ? null : locks[Math.max(index1, index2)];
+        first.lock();
+        try {
+            if (second != null) second.lock();
+            try {
+                action.run();
+            } finally {
+                if (second != null) second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+}
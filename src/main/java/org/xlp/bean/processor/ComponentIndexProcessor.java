@@ -0,0 +1,137 @@
+package org.xlp.bean.processor;
+
+import org.xlp.bean.annotation.Component;
+import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.index.ComponentIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link Component}组件索引注解处理器
+ * <p>编译时把{@link Component}标记的顶层类（与{@link org.xlp.scanner.pkg.ClassPathPkgScanner}一样忽略内部类）
+ * 及其id、singleton、lazy、proxy属性写入{@link ScannerPkgConsts#COMPONENT_INDEX_LOCATION}，
+ * 运行时{@link org.xlp.scanner.pkg.ComponentIndexScanner}直接读取该索引，无需扫描类路径</p>
+ * <p>增量编译时，会合并已存在的索引文件中没有被重新编译、且仍然被{@link Component}标记的类；
+ * 为了在重新编译的类都去掉{@link Component}时也能更新索引，该处理器支持所有注解，但不声明处理了任何注解</p>
+ * <p>该处理器通过jar中的META-INF/services注册，依赖本jar的项目编译时javac会自动发现并执行；
+ * 不需要组件索引时，可在编译参数中设置<code>-proc:none</code>，或用<code>-processor</code>只指定需要的注解处理器</p>
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    /**
+     * 本次编译收集的组件，key: 类全路径名称
+     */
+    private final Map<String, ComponentIndex.Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * 本次编译的所有顶层类的全路径名称
+     */
+    private final Set<String> compiledClassNames = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()){
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind().isClass() || element.getKind().isInterface()){
+                compiledClassNames.add(processingEnv.getElementUtils()
+                        .getBinaryName((TypeElement) element).toString());
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (!element.getKind().isClass() || element.getKind() == ElementKind.ENUM){
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) element;
+            if (typeElement.getNestingKind() != NestingKind.TOP_LEVEL){
+                continue;
+            }
+            Component component = typeElement.getAnnotation(Component.class);
+            String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+            try {
+                entries.put(className, new ComponentIndex.Entry(className, component.id(),
+                        component.singleton(), component.lazy(), component.proxy()));
+            } catch (IllegalArgumentException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@Component id不能包含换行符", element);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入索引文件，保留已存在的索引文件中没有被重新编译、且仍然被{@link Component}标记的类；
+     * 没有任何组件且不存在索引文件时不写入
+     */
+    private void writeIndex(){
+        Map<String, ComponentIndex.Entry> allEntries = new LinkedHashMap<>();
+        boolean indexExists = false;
+        for (ComponentIndex.Entry entry : readExistingIndex()) {
+            indexExists = true;
+            if (compiledClassNames.contains(entry.getClassName())){
+                continue;
+            }
+            TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(entry.getClassName());
+            if (typeElement != null && typeElement.getAnnotation(Component.class) != null){
+                allEntries.put(entry.getClassName(), entry);
+            }
+        }
+        if (!indexExists && entries.isEmpty()){
+            return;
+        }
+        allEntries.putAll(entries);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+                    "", ScannerPkgConsts.COMPONENT_INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                ComponentIndex.write(allEntries.values(), writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "写入组件索引文件失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取输出目录中已存在的索引文件
+     * @return 不存在返回空集合
+     */
+    private Iterable<ComponentIndex.Entry> readExistingIndex(){
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT,
+                    "", ScannerPkgConsts.COMPONENT_INDEX_LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                return ComponentIndex.read(in);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
+}
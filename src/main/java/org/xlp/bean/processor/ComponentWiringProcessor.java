@@ -0,0 +1,500 @@
+package org.xlp.bean.processor;
+
+import org.xlp.bean.annotation.AutoFill;
+import org.xlp.bean.annotation.Component;
+import org.xlp.bean.annotation.MethodProxy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译时生成容器装配代码的注解处理器
+ * <p>设置注解处理器参数<code>-Axlp.bean.wiringClass=生成类全路径名称</code>后启用，未设置时不做任何操作。
+ * 读取本次编译中{@link Component}、{@link AutoFill}、{@link MethodProxy}标记的信息，生成
+ * {@link org.xlp.bean.impl.DefaultBeansContainer}的子类：构造函数中添加所有组件的bean定义，
+ * 重写{@link org.xlp.bean.impl.DefaultBeansContainer#createPrebuiltSingletons(
+ * org.xlp.bean.impl.DefaultBeansContainer.SingletonRegistrar)}，
+ * 直接用new及set函数创建并装配能在编译时确定依赖关系的单例bean</p>
+ * <p>以下情况无法在编译时确定，相应的bean（及依赖它的bean）由容器在运行时通过反射创建：</p>
+ * <ul>
+ *     <li>非单例bean，需要代理的bean（proxy为true、实现IBeanWrapper或有{@link MethodProxy}标记的函数）</li>
+ *     <li>不是public的顶层类，或没有public无参构造函数</li>
+ *     <li>父类中有{@link AutoFill}标记的字段</li>
+ *     <li>依赖的bean有多个候选（需要运行时泛型匹配），或依赖非单例、需代理的bean</li>
+ * </ul>
+ * <p>编译时的依赖关系只在容器中仅有本次编译的组件时成立，因此运行时若在生成的容器中额外添加了bean定义，
+ * 则不再预先创建，全部由容器创建</p>
+ * <p>生成类需要所有组件的信息，因此在最后一轮处理时生成，生成的源码不再参与注解处理</p>
+ * <p>与{@link ComponentIndexProcessor}一样通过jar中的META-INF/services注册，依赖本jar的项目编译时会被自动执行，
+ * 未设置上述参数时只注册而不生成任何代码</p>
+ */
+@SupportedAnnotationTypes("org.xlp.bean.annotation.Component")
+@SupportedOptions(ComponentWiringProcessor.WIRING_CLASS_OPTION)
+public class ComponentWiringProcessor extends AbstractProcessor {
+    /**
+     * 生成类全路径名称的注解处理器参数
+     */
+    public static final String WIRING_CLASS_OPTION = "xlp.bean.wiringClass";
+
+    /**
+     * bean包装接口，实现该接口的bean需要被代理
+     */
+    private static final String BEAN_WRAPPER_CLASS_NAME = "org.xlp.bean.base.IBeanWrapper";
+
+    /**
+     * 容器不注入的类型，与{@link org.xlp.bean.util.PrimaryTypeUtils}一致
+     */
+    private static final String[] NOT_INJECTED_SUPER_TYPES = {
+            "java.lang.CharSequence", "java.util.Collection", "java.util.Map", "java.lang.Number",
+            "java.lang.Runtime", "java.lang.Boolean", "java.lang.Character", "java.lang.Enum"
+    };
+
+    /**
+     * 本次编译的所有组件，key: 类全路径名称
+     */
+    private final Map<String, ComponentModel> components = new LinkedHashMap<>();
+
+    private Elements elements;
+
+    private Types types;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        String wiringClassName = processingEnv.getOptions().get(WIRING_CLASS_OPTION);
+        if (wiringClassName == null || wiringClassName.trim().isEmpty()){
+            return false;
+        }
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        if (!roundEnv.processingOver()){
+            for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+                if (element.getKind() == ElementKind.CLASS
+                        && ((TypeElement) element).getNestingKind() == NestingKind.TOP_LEVEL){
+                    TypeElement typeElement = (TypeElement) element;
+                    components.put(typeElement.getQualifiedName().toString(), new ComponentModel(typeElement));
+                }
+            }
+            return false;
+        }
+        if (!components.isEmpty()){
+            writeWiringClass(wiringClassName.trim());
+        }
+        return false;
+    }
+
+    /**
+     * 计算能在编译时装配的单例bean，并按依赖顺序排序
+     * @return 需要预先创建的组件，被依赖的组件排在前面
+     */
+    private List<ComponentModel> resolvePrebuiltComponents(){
+        Set<ComponentModel> candidates = new LinkedHashSet<>();
+        for (ComponentModel component : components.values()) {
+            if (component.isStaticShape()){
+                candidates.add(component);
+            }
+        }
+        // 去除依赖无法静态确定的组件，直到不再变化
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Iterator<ComponentModel> iterator = candidates.iterator(); iterator.hasNext();) {
+                ComponentModel component = iterator.next();
+                if (!component.resolveDependencies(candidates)){
+                    iterator.remove();
+                    changed = true;
+                }
+            }
+        }
+
+        // 只预先创建非延迟加载的单例及其依赖，与容器创建的bean一致
+        List<ComponentModel> sorted = new ArrayList<>();
+        Map<ComponentModel, Boolean> visiting = new HashMap<>();
+        Set<ComponentModel> cyclic = new HashSet<>();
+        for (ComponentModel component : candidates) {
+            if (!component.lazy){
+                visit(component, visiting, sorted, cyclic);
+            }
+        }
+        if (!cyclic.isEmpty()){
+            // 存在循环依赖时，运行时校验会抛出异常，不预先创建
+            return Collections.emptyList();
+        }
+        return sorted;
+    }
+
+    private void visit(ComponentModel component, Map<ComponentModel, Boolean> visiting,
+                       List<ComponentModel> sorted, Set<ComponentModel> cyclic){
+        Boolean state = visiting.get(component);
+        if (state != null){
+            if (state){
+                cyclic.add(component);
+            }
+            return;
+        }
+        visiting.put(component, Boolean.TRUE);
+        for (FieldModel field : component.fields) {
+            if (field.dependency != null){
+                visit(field.dependency, visiting, sorted, cyclic);
+            }
+        }
+        visiting.put(component, Boolean.FALSE);
+        sorted.add(component);
+    }
+
+    /**
+     * 生成容器子类源码，生成的源码只包含ASCII字符，不受编译编码影响
+     * @param wiringClassName 生成类全路径名称
+     */
+    private void writeWiringClass(String wiringClassName){
+        List<ComponentModel> prebuilt = resolvePrebuiltComponents();
+        int dotIndex = wiringClassName.lastIndexOf('.');
+        String packageName = dotIndex < 0 ? "" : wiringClassName.substring(0, dotIndex);
+        String simpleName = wiringClassName.substring(dotIndex + 1);
+
+        Set<String> ids = new HashSet<>();
+        for (ComponentModel component : components.values()) {
+            if (!component.id.isEmpty()){
+                ids.add(component.id);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()){
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Generated at compile time by {@link ").append(ComponentWiringProcessor.class.getName())
+                .append("}, do not edit\n")
+                .append(" * <p>Prebuilt singletons: ").append(prebuilt.size()).append(", components: ")
+                .append(components.size()).append("</p>\n")
+                .append(" */\n")
+                .append("public class ").append(simpleName)
+                .append(" extends org.xlp.bean.impl.DefaultBeansContainer {\n")
+                .append("    /**\n     * Number of components at compile time\n     */\n")
+                .append("    private static final int COMPONENT_COUNT = ").append(components.size()).append(";\n\n")
+                .append("    /**\n     * Number of components with an id at compile time\n     */\n")
+                .append("    private static final int ID_COMPONENT_COUNT = ").append(ids.size()).append(";\n\n")
+                .append("    public ").append(simpleName).append("() {\n");
+        for (ComponentModel component : components.values()) {
+            if (component.isAccessibleFrom(packageName)){
+                source.append("        addBeanDefinition(").append(component.className).append(".class);\n");
+            } else {
+                source.append("        addBeanDefinition(new org.xlp.bean.impl.ComponentAnnotationBeanDefinition(\"")
+                        .append(elements.getBinaryName(component.type)).append("\"));\n");
+            }
+        }
+        source.append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected void createPrebuiltSingletons(SingletonRegistrar registrar) {\n")
+                .append("        if (beanClassNameBeanDefinitionMap.size() != COMPONENT_COUNT\n")
+                .append("                || beanIdBeanDefinitionMap.size() != ID_COMPONENT_COUNT) {\n")
+                .append("            // other bean definitions were added, the compile time wiring may no longer hold\n")
+                .append("            return;\n")
+                .append("        }\n");
+        Map<ComponentModel, String> variables = new HashMap<>();
+        for (ComponentModel component : prebuilt) {
+            String variable = "bean" + variables.size();
+            variables.put(component, variable);
+            source.append("        ").append(component.className).append(' ').append(variable)
+                    .append(" = new ").append(component.className).append("();\n");
+            for (FieldModel field : component.fields) {
+                if (field.skipped){
+                    continue;
+                }
+                source.append("        ").append(variable).append('.').append(field.setter.getSimpleName())
+                        .append('(').append(field.dependency == null ? "null" : variables.get(field.dependency))
+                        .append(");\n");
+            }
+            source.append("        registrar.register(").append(component.className).append(".class, ")
+                    .append(variable).append(");\n");
+        }
+        source.append("    }\n}\n");
+
+        try {
+            Element[] originatingElements = new Element[components.size()];
+            int i = 0;
+            for (ComponentModel component : components.values()) {
+                originatingElements[i++] = component.type;
+            }
+            try (Writer writer = processingEnv.getFiler().createSourceFile(wiringClassName, originatingElements)
+                    .openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "生成容器类[" + wiringClassName + "]失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 判断是否是容器不注入的字段类型，与容器跳过的基本类型、数组及常用类型一致
+     * @param type 字段类型
+     * @return true：是，false：否
+     */
+    private boolean isNotInjectedType(TypeMirror type){
+        if (type.getKind() != TypeKind.DECLARED){
+            return true;
+        }
+        TypeMirror erasure = types.erasure(type);
+        for (String superType : NOT_INJECTED_SUPER_TYPES) {
+            TypeElement superElement = elements.getTypeElement(superType);
+            if (superElement != null && types.isAssignable(erasure, types.erasure(superElement.asType()))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPublic(Element element){
+        return element.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    /**
+     * 组件信息
+     */
+    private final class ComponentModel {
+        final TypeElement type;
+
+        /**
+         * 源码中使用的类名称
+         */
+        final String className;
+
+        final String id;
+
+        final boolean singleton;
+
+        final boolean lazy;
+
+        final boolean proxy;
+
+        final List<FieldModel> fields = new ArrayList<>();
+
+        ComponentModel(TypeElement type) {
+            this.type = type;
+            this.className = type.getQualifiedName().toString();
+            Component component = type.getAnnotation(Component.class);
+            this.id = component.id();
+            this.singleton = component.singleton();
+            this.lazy = component.lazy();
+            this.proxy = component.proxy() || isBeanWrapper(type) || hasMethodProxy(type);
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                AutoFill autoFill = field.getAnnotation(AutoFill.class);
+                if (autoFill != null){
+                    fields.add(new FieldModel(type, field, autoFill));
+                }
+            }
+        }
+
+        boolean isAbstract(){
+            return type.getModifiers().contains(Modifier.ABSTRACT);
+        }
+
+        boolean isAccessibleFrom(String packageName){
+            PackageElement packageElement = elements.getPackageOf(type);
+            if (packageElement.isUnnamed()){
+                return packageName.isEmpty();
+            }
+            return isPublic(type) || packageElement.getQualifiedName().contentEquals(packageName);
+        }
+
+        /**
+         * 判断该组件本身能否在编译时创建，不考虑依赖
+         */
+        boolean isStaticShape(){
+            if (!singleton || proxy || isAbstract() || !isPublic(type)
+                    || elements.getPackageOf(type).isUnnamed() || superClassHasAutoFill()){
+                return false;
+            }
+            boolean hasPublicConstructor = false;
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                if (constructor.getParameters().isEmpty() && isPublic(constructor)){
+                    hasPublicConstructor = true;
+                }
+            }
+            if (!hasPublicConstructor){
+                return false;
+            }
+            for (FieldModel field : fields) {
+                if (field.isStatic || (!field.skipped && !isPublic(field.setter))){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 解析依赖的组件
+         * @param candidates 能在编译时创建的组件
+         * @return 所有依赖都能静态确定返回true，否则返回false
+         */
+        boolean resolveDependencies(Set<ComponentModel> candidates){
+            for (FieldModel field : fields) {
+                if (field.skipped){
+                    continue;
+                }
+                List<ComponentModel> resolved = field.resolve();
+                if (resolved == null || resolved.size() > 1){
+                    return false;
+                }
+                if (resolved.isEmpty()){
+                    // 找不到依赖时，非必须字段注入null，必须字段由容器校验并报错
+                    if (field.required){
+                        return false;
+                    }
+                    field.dependency = null;
+                } else {
+                    ComponentModel dependency = resolved.get(0);
+                    if (!candidates.contains(dependency)){
+                        return false;
+                    }
+                    field.dependency = dependency;
+                }
+            }
+            return true;
+        }
+
+        private boolean superClassHasAutoFill(){
+            TypeMirror superType = type.getSuperclass();
+            while (superType.getKind() == TypeKind.DECLARED) {
+                TypeElement superElement = (TypeElement) ((DeclaredType) superType).asElement();
+                if (superElement.getQualifiedName().contentEquals("java.lang.Object")){
+                    return false;
+                }
+                for (VariableElement field : ElementFilter.fieldsIn(superElement.getEnclosedElements())) {
+                    if (field.getAnnotation(AutoFill.class) != null){
+                        return true;
+                    }
+                }
+                superType = superElement.getSuperclass();
+            }
+            return false;
+        }
+
+        private boolean isBeanWrapper(TypeElement typeElement){
+            TypeElement wrapper = elements.getTypeElement(BEAN_WRAPPER_CLASS_NAME);
+            return wrapper != null && types.isAssignable(types.erasure(typeElement.asType()),
+                    types.erasure(wrapper.asType()));
+        }
+
+        private boolean hasMethodProxy(TypeElement typeElement){
+            for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(typeElement))) {
+                if (method.getAnnotation(MethodProxy.class) != null){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isAssignableTo(TypeMirror target){
+            return types.isAssignable(types.erasure(type.asType()), types.erasure(target));
+        }
+    }
+
+    /**
+     * {@link AutoFill}标记的字段信息
+     */
+    private final class FieldModel {
+        final String name;
+
+        final TypeMirror fieldType;
+
+        final String refId;
+
+        final boolean required;
+
+        final boolean isStatic;
+
+        /**
+         * 是否是容器不注入的字段（基本类型、数组、常用类型或没有set函数）
+         */
+        final boolean skipped;
+
+        /**
+         * set函数
+         */
+        final ExecutableElement setter;
+
+        /**
+         * 静态解析出的依赖组件，为null时注入null
+         */
+        ComponentModel dependency;
+
+        FieldModel(TypeElement owner, VariableElement field, AutoFill autoFill) {
+            this.name = field.getSimpleName().toString();
+            this.fieldType = field.asType();
+            this.refId = autoFill.refId();
+            this.required = autoFill.required();
+            this.isStatic = field.getModifiers().contains(Modifier.STATIC);
+            this.setter = isNotInjectedType(fieldType) ? null : findSetter(owner);
+            this.skipped = setter == null;
+        }
+
+        /**
+         * 查找set函数，与运行时Class#getMethod(setXxx, 字段类型)一致
+         */
+        private ExecutableElement findSetter(TypeElement owner){
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            TypeMirror erasure = types.erasure(fieldType);
+            for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(owner))) {
+                if (method.getSimpleName().contentEquals(setterName) && isPublic(method)
+                        && !method.getModifiers().contains(Modifier.STATIC)
+                        && method.getParameters().size() == 1
+                        && types.isSameType(types.erasure(method.getParameters().get(0).asType()), erasure)){
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 按容器的查找顺序解析依赖的组件：refId &gt; 字段类型
+         * @return 候选组件，无法静态确定返回null
+         */
+        List<ComponentModel> resolve(){
+            if (!refId.isEmpty()){
+                ComponentModel component = findById(refId);
+                return component == null ? Collections.emptyList() : Collections.singletonList(component);
+            }
+            return findByType(fieldType);
+        }
+
+        private ComponentModel findById(String id){
+            for (ComponentModel component : components.values()) {
+                if (component.id.equals(id)){
+                    return component;
+                }
+            }
+            return null;
+        }
+
+        private List<ComponentModel> findByType(TypeMirror targetType){
+            List<ComponentModel> result = new ArrayList<>();
+            for (ComponentModel component : components.values()) {
+                if (!component.isAbstract() && component.isAssignableTo(targetType)){
+                    result.add(component);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.xlp.bean.proxy;
 
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
+import net.sf.cglib.proxy.NoOp;
 import org.xlp.assertion.AssertUtils;
 import org.xlp.bean.base.IBeanWrapper;
 import org.xlp.bean.base.IMethodProxy;
@@ -11,6 +14,10 @@ import org.xlp.bean.util.IgnoreUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 代理类生成类
@@ -20,11 +27,32 @@ import java.lang.reflect.Modifier;
  * 
  */
 public class CglibProxy implements MethodInterceptor{
+	/**
+	 * 需要拦截的方法使用的回调下标，即当前对象
+	 */
+	private static final int INTERCEPT_CALLBACK_INDEX = 0;
+
+	/**
+	 * 不需要增强的方法使用的回调下标，即{@link NoOp#INSTANCE}，直接调用父类方法
+	 */
+	private static final int NO_OP_CALLBACK_INDEX = 1;
+
 	/**
 	 * 要被代理的类型
 	 */
 	private final Class<?> targetClass;
 
+	/**
+	 * 被代理的类型是否实现了{@link IBeanWrapper}接口
+	 */
+	private final boolean beanWrapper;
+
+	/**
+	 * 每个被代理方法的增强信息，首次调用该方法时解析
+	 * <p>key: 被代理的方法，value: 该方法的增强信息</p>
+	 */
+	private final Map<Method, MethodAdvice> methodAdviceMap = new ConcurrentHashMap<>();
+
 	/**
 	 * 构造器
 	 * @param targetClass bean类型
@@ -33,10 +61,13 @@ public class CglibProxy implements MethodInterceptor{
 	public CglibProxy(Class<?> targetClass){
 		AssertUtils.isNotNull(targetClass, "targetClass parameter is null!");
 		this.targetClass = targetClass;
+		this.beanWrapper = IBeanWrapper.class.isAssignableFrom(targetClass);
 	}
 
 	/**
 	 * 根据要代理的类创建代理对象
+	 * <p>生成代理类时按方法分派回调，只有可能需要增强的方法及抽象方法由{@link #intercept}处理，
+	 * 其他方法直接调用父类方法</p>
 	 * 
 	 * @return 代理对象
 	 */
@@ -45,7 +76,8 @@ public class CglibProxy implements MethodInterceptor{
 		Enhancer enhancer = new Enhancer();
 		enhancer.setClassLoader(targetClass.getClassLoader());
 		enhancer.setSuperclass(targetClass);
-		enhancer.setCallback(this);
+		enhancer.setCallbacks(new Callback[]{this, NoOp.INSTANCE});
+		enhancer.setCallbackFilter(new AdviceCallbackFilter(targetClass, beanWrapper));
 		return (T) enhancer.create();
 	}
 	
@@ -65,9 +97,9 @@ public class CglibProxy implements MethodInterceptor{
 	@Override
 	public Object intercept(Object object, Method method, Object[] params,
 			MethodProxy methodProxy) throws Throwable {
-		String methodName = method.getName();
+		MethodAdvice methodAdvice = getMethodAdvice(method);
 		// 标记目标方法是否要进行额外的操作
-		boolean targetMethodIsExecuteExtraOption = methodNeedExtraOption(object, method, params);
+		boolean targetMethodIsExecuteExtraOption = methodAdvice.isAdvised(object, method, params);
 		Object value = null;
 		try {
 			//执行目标方法前需要执行的额外逻辑
@@ -75,7 +107,7 @@ public class CglibProxy implements MethodInterceptor{
 				((IBeanWrapper) object).beforeExecute(method, params);
 			}
 			// 判断方法是否是抽象方法，是跳过执行目标方法
-			if (!Modifier.isAbstract(method.getModifiers())){
+			if (!methodAdvice.abstractMethod){
 				value = methodProxy.invokeSuper(object, params);
 			}
 			//执行目标方法后需要执行的额外逻辑
@@ -101,44 +133,147 @@ public class CglibProxy implements MethodInterceptor{
 	}
 
 	/**
-	 * 判断给定对象的指定方法是否需要额外的操作
-	 * @param object
-	 * @param method
-	 * @param params
-	 * @return true：要，false：不需要
+	 * 获取方法的增强信息，未解析时解析并缓存
+	 * @param method 被代理的方法
+	 * @return 方法的增强信息
 	 */
-	private boolean methodNeedExtraOption(Object object, Method method, Object[] params){
-		// 标记目标方法是否要进行额外的操作
-		boolean targetMethodIsExecuteExtraOption = false;
-		boolean isIBeanWrapper = (object instanceof IBeanWrapper);
-		// 假如是IBeanWrapper的实现类或接口，则需排查该接口中的方法
-		if (isIBeanWrapper){
+	private MethodAdvice getMethodAdvice(Method method){
+		MethodAdvice methodAdvice = methodAdviceMap.get(method);
+		if (methodAdvice == null){
+			methodAdvice = methodAdviceMap.computeIfAbsent(method, this::resolveMethodAdvice);
+		}
+		return methodAdvice;
+	}
+
+	/**
+	 * 解析方法的增强信息，配置的{@link IMethodProxy}在此时创建实例
+	 * @param method 被代理的方法
+	 * @return 方法的增强信息
+	 * @throws org.xlp.bean.exception.BeanBaseException 假如创建{@link IMethodProxy}实例失败，则抛出该异常
+	 */
+	private MethodAdvice resolveMethodAdvice(Method method){
+		boolean abstractMethod = Modifier.isAbstract(method.getModifiers());
+		// 假如是IBeanWrapper的实现类，则需排查该接口中的方法
+		if (!beanWrapper){
+			return new MethodAdvice(abstractMethod, false, null);
+		}
+		org.xlp.bean.annotation.MethodProxy methodProxy = method.getAnnotation(org.xlp.bean.annotation.MethodProxy.class);
+		// 判断方法是否有MethodProxy注解
+		if (methodProxy != null){
+			Class<? extends IMethodProxy>[] ms = methodProxy.methodProxy();
+			if (ms.length == 0){
+				return new MethodAdvice(abstractMethod, methodProxy.proxy(), null);
+			}
+			List<IMethodProxy> proxies = new ArrayList<>(ms.length);
+			for (Class<? extends IMethodProxy> m : ms) {
+				if (Modifier.isAbstract(m.getModifiers())){
+					continue;
+				}
+				// 通过反射创建IMethodProxy实例对象
+				IMethodProxy proxy = new NoParameterConstructorReflectBeanCreator(m).createBean();
+				proxies.add(proxy);
+			}
+			return new MethodAdvice(abstractMethod, true, proxies.toArray(new IMethodProxy[0]));
+		}
+		return new MethodAdvice(abstractMethod, !isIgnoredMethod(method), null);
+	}
+
+	/**
+	 * 判断没有{@link org.xlp.bean.annotation.MethodProxy}注解的方法是否不需要增强
+	 * @param method 被代理的方法
+	 * @return true：不需要，false：需要
+	 */
+	private static boolean isIgnoredMethod(Method method){
+		String methodName = method.getName();
+		return IgnoreUtils.methodInIBeanWrapper(methodName)
+				// 判断是否是Object类中的方法，暂时只更具方法名称来判断
+				|| IgnoreUtils.methodInObject(methodName);
+	}
+
+	/**
+	 * 生成代理类时为每个方法选择回调，不需要增强的非抽象方法使用{@link NoOp#INSTANCE}
+	 * <p>按被代理的类型判断是否相等，同一类型的代理类可被cglib缓存复用</p>
+	 */
+	private static final class AdviceCallbackFilter implements CallbackFilter {
+		private final Class<?> targetClass;
+
+		private final boolean beanWrapper;
+
+		AdviceCallbackFilter(Class<?> targetClass, boolean beanWrapper) {
+			this.targetClass = targetClass;
+			this.beanWrapper = beanWrapper;
+		}
+
+		@Override
+		public int accept(Method method) {
+			// 抽象方法需要拦截，跳过目标方法的执行
+			if (Modifier.isAbstract(method.getModifiers())){
+				return INTERCEPT_CALLBACK_INDEX;
+			}
+			if (!beanWrapper){
+				return NO_OP_CALLBACK_INDEX;
+			}
 			org.xlp.bean.annotation.MethodProxy methodProxy = method.getAnnotation(org.xlp.bean.annotation.MethodProxy.class);
-			// 判断方法是否有MethodProxy注解
-			if (methodProxy != null){
-				boolean pass = true;
-				Class<? extends IMethodProxy>[] ms = methodProxy.methodProxy();
-				if (ms.length > 0){
-					for (Class<? extends IMethodProxy> m : ms) {
-						if (Modifier.isAbstract(m.getModifiers())){
-							continue;
-						}
-						// 通过反射创建IMethodProxy实例对象
-						IMethodProxy proxy = new NoParameterConstructorReflectBeanCreator(m).createBean();
-						pass = proxy.proxy(object, method, params);
-						if (!pass) break;
-					}
-					targetMethodIsExecuteExtraOption = pass;
-				} else {
-					targetMethodIsExecuteExtraOption = methodProxy.proxy();
+			boolean advised = methodProxy != null ? methodProxy.methodProxy().length > 0 || methodProxy.proxy()
+					: !isIgnoredMethod(method);
+			return advised ? INTERCEPT_CALLBACK_INDEX : NO_OP_CALLBACK_INDEX;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			return targetClass == ((AdviceCallbackFilter) o).targetClass;
+		}
+
+		@Override
+		public int hashCode() {
+			return targetClass.hashCode();
+		}
+	}
+
+	/**
+	 * 被代理方法的增强信息，每个方法只解析一次
+	 */
+	private static final class MethodAdvice {
+		/**
+		 * 是否是抽象方法，是则不执行目标方法
+		 */
+		final boolean abstractMethod;
+
+		/**
+		 * 没有配置{@link IMethodProxy}时，该方法是否需要增强
+		 */
+		final boolean advised;
+
+		/**
+		 * 配置的{@link IMethodProxy}实例，未配置时为null
+		 */
+		final IMethodProxy[] methodProxies;
+
+		MethodAdvice(boolean abstractMethod, boolean advised, IMethodProxy[] methodProxies) {
+			this.abstractMethod = abstractMethod;
+			this.advised = advised;
+			this.methodProxies = methodProxies;
+		}
+
+		/**
+		 * 判断给定对象的指定方法本次调用是否需要额外的操作
+		 * @param object 代理对象
+		 * @param method 被代理的方法
+		 * @param params 方法参数
+		 * @return true：要，false：不需要
+		 */
+		boolean isAdvised(Object object, Method method, Object[] params){
+			if (methodProxies == null){
+				return advised;
+			}
+			for (IMethodProxy proxy : methodProxies) {
+				if (!proxy.proxy(object, method, params)){
+					return false;
 				}
-			} else {
-				String methodName = method.getName();
-				targetMethodIsExecuteExtraOption = (!IgnoreUtils.methodInIBeanWrapper(methodName)
-						// 判断是否是Object类中的方法，暂时只更具方法名称来判断
-						&& !IgnoreUtils.methodInObject(methodName));
 			}
+			return true;
 		}
-		return targetMethodIsExecuteExtraOption;
 	}
 }
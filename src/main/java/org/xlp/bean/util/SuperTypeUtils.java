@@ -0,0 +1,36 @@
+package org.xlp.bean.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 获取类所有父类型（自身、超类、接口）的工具类
+ */
+public class SuperTypeUtils {
+    /**
+     * 获取给定类型的所有可赋值目标类型，包括自身、所有超类、所有接口（含父接口）以及Object
+     * <p>即返回集合中的每个类型<code>type</code>都满足<code>type.isAssignableFrom(clazz)</code></p>
+     * @param clazz 类型
+     * @return 假如参数为null，返回空集合
+     */
+    public static Set<Class<?>> getAllSuperTypes(Class<?> clazz){
+        Set<Class<?>> types = new LinkedHashSet<>();
+        if (clazz == null){
+            return types;
+        }
+        collectSuperTypes(clazz, types);
+        // 接口的超类为null，但Object.class.isAssignableFrom(接口)为true
+        types.add(Object.class);
+        return types;
+    }
+
+    private static void collectSuperTypes(Class<?> clazz, Set<Class<?>> types){
+        if (clazz == null || !types.add(clazz)){
+            return;
+        }
+        collectSuperTypes(clazz.getSuperclass(), types);
+        for (Class<?> anInterface : clazz.getInterfaces()) {
+            collectSuperTypes(anInterface, types);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package org.xlp.scanner.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * jar文件扫描结果的磁盘缓存
+ * </p>
+ * 以jar文件路径为key，记录jar文件的大小、最后修改时间及其中所有class条目（不包括内部类），
+ * 大小和最后修改时间都没有变化时直接使用缓存，否则重新扫描该jar文件；目录内容变化无法通过目录本身判断，不缓存
+ * <p>
+ * 缓存文件为二进制格式，加载时使用内存映射读取，只解析各条目的位置，class条目在使用时才解码；
+ * 文件头中记录了内容的CRC32校验值，版本不一致、校验失败或格式错误时丢弃整个缓存。
+ * 保存时先写入同目录下的临时文件，再替换缓存文件
+ * </p>
+ * 文件格式（大端序）：
+ *
+ * <pre>
+ * int   魔数
+ * int   版本
+ * int   条目数量
+ * long  内容CRC32
+ * 条目：int路径长度 + 路径(UTF-8)，long大小，long最后修改时间，int class数量，
+ *      每个class：short长度 + class条目路径(UTF-8，xx/xx/Yy，不包含.class后缀)
+ * </pre>
+ *
+ * @version 1.0
+ */
+public class ScanResultCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ScanResultCache.class);
+
+	/**
+	 * 缓存文件魔数：“XLPS”
+	 */
+	private static final int MAGIC = 0x584C5053;
+
+	/**
+	 * 缓存文件格式版本，格式变化时递增
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * 文件头长度
+	 */
+	private static final int HEADER_LENGTH = 4 + 4 + 4 + 8;
+
+	/**
+	 * 缓存文件
+	 */
+	private final Path cacheFile;
+
+	/**
+	 * 缓存条目，key: jar文件绝对路径
+	 */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * 是否已加载缓存文件
+	 */
+	private volatile boolean loaded;
+
+	/**
+	 * 缓存内容是否有变化，需要保存
+	 */
+	private volatile boolean dirty;
+
+	/**
+	 * 构造函数
+	 *
+	 * @param cacheFile 缓存文件，不存在时在第一次保存时创建
+	 * @throws NullPointerException 假如参数为null，则抛出该异常
+	 */
+	public ScanResultCache(Path cacheFile) {
+		if (cacheFile == null) {
+			throw new NullPointerException("cacheFile parameter is null!");
+		}
+		this.cacheFile = cacheFile.toAbsolutePath();
+	}
+
+	/**
+	 * 构造函数
+	 *
+	 * @param cacheFile 缓存文件，不存在时在第一次保存时创建
+	 * @throws NullPointerException 假如参数为null，则抛出该异常
+	 */
+	public ScanResultCache(File cacheFile) {
+		this(cacheFile == null ? null : cacheFile.toPath());
+	}
+
+	/**
+	 * 获取jar文件的缓存扫描结果
+	 *
+	 * @param jarFile jar文件
+	 * @return jar文件中所有class条目路径（xx/xx/Yy，不包含.class后缀及内部类），
+	 *         没有缓存或jar文件已变化时返回null
+	 */
+	public List<String> get(File jarFile) {
+		ensureLoaded();
+		Entry entry = entries.get(jarFile.getAbsolutePath());
+		if (entry == null || entry.size != jarFile.length() || entry.lastModified != jarFile.lastModified()) {
+			return null;
+		}
+		return entry.getClassPaths();
+	}
+
+	/**
+	 * 缓存jar文件的扫描结果
+	 *
+	 * @param jarFile jar文件
+	 * @param classPaths jar文件中所有class条目路径（xx/xx/Yy，不包含.class后缀及内部类）
+	 */
+	public void put(File jarFile, Collection<String> classPaths) {
+		ensureLoaded();
+		entries.put(jarFile.getAbsolutePath(), new Entry(jarFile.length(), jarFile.lastModified(),
+				Collections.unmodifiableList(new ArrayList<String>(classPaths))));
+		dirty = true;
+	}
+
+	/**
+	 * 保存缓存，内容没有变化时不写入；会删除jar文件已不存在的条目
+	 *
+	 * @throws IOException 假如写入失败，则抛出该异常
+	 */
+	public synchronized void save() throws IOException {
+		if (!dirty) {
+			return;
+		}
+		// 先清除标记再读取条目，读取期间或之后添加的条目会重新标记，下次保存时写入
+		dirty = false;
+		try {
+			write();
+		} catch (IOException | RuntimeException | Error e) {
+			dirty = true;
+			throw e;
+		}
+	}
+
+	/**
+	 * 把当前条目写入缓存文件
+	 *
+	 * @throws IOException 假如写入失败，则抛出该异常
+	 */
+	private void write() throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(body);
+		int count = 0;
+		for (Map.Entry<String, Entry> item : entries.entrySet()) {
+			if (!new File(item.getKey()).isFile()) {
+				continue;
+			}
+			Entry entry = item.getValue();
+			byte[] path = item.getKey().getBytes(StandardCharsets.UTF_8);
+			output.writeInt(path.length);
+			output.write(path);
+			output.writeLong(entry.size);
+			output.writeLong(entry.lastModified);
+			List<String> classPaths = entry.getClassPaths();
+			output.writeInt(classPaths.size());
+			for (String classPath : classPaths) {
+				byte[] bytes = classPath.getBytes(StandardCharsets.UTF_8);
+				output.writeShort(bytes.length);
+				output.write(bytes);
+			}
+			count++;
+		}
+		output.flush();
+		byte[] bytes = body.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		Path dir = cacheFile.getParent();
+		if (dir != null) {
+			Files.createDirectories(dir);
+		}
+		Path tempFile = Files.createTempFile(dir, cacheFile.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				DataOutputStream header = new DataOutputStream(out);
+				header.writeInt(MAGIC);
+				header.writeInt(VERSION);
+				header.writeInt(count);
+				header.writeLong(crc.getValue());
+				header.write(bytes);
+				header.flush();
+			}
+			try {
+				Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("保存扫描缓存【" + cacheFile + "】，共" + count + "个jar文件");
+		}
+	}
+
+	/**
+	 * 清空缓存，下次保存时重写缓存文件
+	 */
+	public void clear() {
+		ensureLoaded();
+		entries.clear();
+		dirty = true;
+	}
+
+	/**
+	 * 获取缓存文件
+	 *
+	 * @return 缓存文件
+	 */
+	public Path getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * 第一次使用时加载缓存文件
+	 */
+	private void ensureLoaded() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					load();
+					loaded = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 加载缓存文件，文件无效时丢弃
+	 */
+	private void load() {
+		if (!Files.isRegularFile(cacheFile)) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			Map<String, Entry> loadedEntries = read(buffer);
+			if (loadedEntries == null) {
+				LOGGER.warn("扫描缓存【" + cacheFile + "】无效或版本不一致，已丢弃");
+				dirty = true;
+				return;
+			}
+			entries.putAll(loadedEntries);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("读取扫描缓存【" + cacheFile + "】失败，已丢弃", e);
+			entries.clear();
+			dirty = true;
+		}
+	}
+
+	/**
+	 * 解析缓存文件内容
+	 *
+	 * @param buffer 缓存文件内容
+	 * @return 文件无效时返回null
+	 */
+	private static Map<String, Entry> read(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			return null;
+		}
+		int count = buffer.getInt();
+		long crcValue = buffer.getLong();
+		ByteBuffer body = buffer.slice();
+		CRC32 crc = new CRC32();
+		byte[] chunk = new byte[8192];
+		ByteBuffer crcBuffer = body.duplicate();
+		while (crcBuffer.hasRemaining()) {
+			int length = Math.min(chunk.length, crcBuffer.remaining());
+			crcBuffer.get(chunk, 0, length);
+			crc.update(chunk, 0, length);
+		}
+		if (crc.getValue() != crcValue) {
+			return null;
+		}
+
+		Map<String, Entry> result = new ConcurrentHashMap<String, Entry>(Math.max(16, count * 2));
+		try {
+			for (int i = 0; i < count; i++) {
+				String path = readString(body, body.getInt());
+				long size = body.getLong();
+				long lastModified = body.getLong();
+				int classCount = body.getInt();
+				// 只记录class条目的位置，使用时再解码
+				ByteBuffer classes = body.slice();
+				for (int j = 0; j < classCount; j++) {
+					int length = body.getShort() & 0xFFFF;
+					body.position(body.position() + length);
+				}
+				result.put(path, new Entry(size, lastModified, classes, classCount));
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+			return null;
+		}
+		return body.hasRemaining() ? null : result;
+	}
+
+	private static String readString(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 单个jar文件的缓存
+	 */
+	private static final class Entry {
+		final long size;
+
+		final long lastModified;
+
+		/**
+		 * 未解码的class条目，解码后为null
+		 */
+		private ByteBuffer encodedClassPaths;
+
+		private final int classCount;
+
+		private volatile List<String> classPaths;
+
+		Entry(long size, long lastModified, List<String> classPaths) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.classPaths = classPaths;
+			this.classCount = classPaths.size();
+		}
+
+		Entry(long size, long lastModified, ByteBuffer encodedClassPaths, int classCount) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.encodedClassPaths = encodedClassPaths;
+			this.classCount = classCount;
+		}
+
+		List<String> getClassPaths() {
+			List<String> result = classPaths;
+			if (result == null) {
+				synchronized (this) {
+					result = classPaths;
+					if (result == null) {
+						ByteBuffer buffer = encodedClassPaths.duplicate();
+						List<String> list = new ArrayList<String>(classCount);
+						for (int i = 0; i < classCount; i++) {
+							list.add(readString(buffer, buffer.getShort() & 0xFFFF));
+						}
+						result = classPaths = Collections.unmodifiableList(list);
+						encodedClassPaths = null;
+					}
+				}
+			}
+			return result;
+		}
+	}
+}
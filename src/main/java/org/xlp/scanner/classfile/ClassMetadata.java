@@ -0,0 +1,316 @@
+package org.xlp.scanner.classfile;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * 直接从class文件字节中读取的类信息，不加载该类
+ * </p>
+ * 只解析常量池、类名、父类、接口及类上的RuntimeVisibleAnnotations属性，字段及函数只跳过不解析；
+ * 只依赖JDK
+ *
+ * @version 1.0
+ */
+public final class ClassMetadata {
+	/**
+	 * class文件魔数
+	 */
+	private static final int MAGIC = 0xCAFEBABE;
+
+	/**
+	 * 运行时可见注解属性名称
+	 */
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+	/**
+	 * 注解类型访问标识
+	 */
+	private static final int ACC_ANNOTATION = 0x2000;
+
+	// 常量池类型
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELD_REF = 9;
+	private static final int CONSTANT_METHOD_REF = 10;
+	private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	/**
+	 * 类全路径名称（xx.xx.yy）
+	 */
+	private final String className;
+
+	/**
+	 * 父类全路径名称，没有父类时为null
+	 */
+	private final String superClassName;
+
+	/**
+	 * 直接实现的接口全路径名称
+	 */
+	private final List<String> interfaceNames;
+
+	/**
+	 * 类上的运行时可见注解的全路径名称
+	 */
+	private final List<String> annotationNames;
+
+	/**
+	 * 访问标识
+	 */
+	private final int accessFlags;
+
+	private ClassMetadata(String className, String superClassName, List<String> interfaceNames,
+			List<String> annotationNames, int accessFlags) {
+		this.className = className;
+		this.superClassName = superClassName;
+		this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+		this.annotationNames = Collections.unmodifiableList(annotationNames);
+		this.accessFlags = accessFlags;
+	}
+
+	/**
+	 * 从class文件输入流中读取类信息
+	 *
+	 * @param in class文件输入流，该函数不关闭该流
+	 * @return 类信息
+	 * @throws IOException 假如读取失败或不是有效的class文件，则抛出该异常
+	 */
+	public static ClassMetadata read(InputStream in) throws IOException {
+		try {
+			return read(new DataInputStream(new BufferedInputStream(in)));
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("不是有效的class文件！", e);
+		}
+	}
+
+	private static ClassMetadata read(DataInputStream input) throws IOException {
+		if (input.readInt() != MAGIC) {
+			throw new IOException("不是有效的class文件！");
+		}
+		// minor_version, major_version
+		skip(input, 4);
+
+		int constantPoolCount = input.readUnsignedShort();
+		String[] utf8s = new String[constantPoolCount];
+		int[] classNameIndexes = new int[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = input.readUnsignedByte();
+			switch (tag) {
+			case CONSTANT_UTF8:
+				utf8s[i] = input.readUTF();
+				break;
+			case CONSTANT_CLASS:
+				classNameIndexes[i] = input.readUnsignedShort();
+				break;
+			case CONSTANT_STRING:
+			case CONSTANT_METHOD_TYPE:
+			case CONSTANT_MODULE:
+			case CONSTANT_PACKAGE:
+				skip(input, 2);
+				break;
+			case CONSTANT_METHOD_HANDLE:
+				skip(input, 3);
+				break;
+			case CONSTANT_INTEGER:
+			case CONSTANT_FLOAT:
+			case CONSTANT_FIELD_REF:
+			case CONSTANT_METHOD_REF:
+			case CONSTANT_INTERFACE_METHOD_REF:
+			case CONSTANT_NAME_AND_TYPE:
+			case CONSTANT_DYNAMIC:
+			case CONSTANT_INVOKE_DYNAMIC:
+				skip(input, 4);
+				break;
+			case CONSTANT_LONG:
+			case CONSTANT_DOUBLE:
+				// 占两个常量池位置
+				skip(input, 8);
+				i++;
+				break;
+			default:
+				throw new IOException("不能识别的常量池类型：" + tag);
+			}
+		}
+
+		int accessFlags = input.readUnsignedShort();
+		String className = getClassName(utf8s, classNameIndexes, input.readUnsignedShort());
+		String superClassName = getClassName(utf8s, classNameIndexes, input.readUnsignedShort());
+		int interfaceCount = input.readUnsignedShort();
+		List<String> interfaceNames = new ArrayList<String>(interfaceCount);
+		for (int i = 0; i < interfaceCount; i++) {
+			interfaceNames.add(getClassName(utf8s, classNameIndexes, input.readUnsignedShort()));
+		}
+		if (className == null) {
+			throw new IOException("不是有效的class文件！");
+		}
+
+		// 跳过字段及函数
+		skipMembers(input);
+		skipMembers(input);
+
+		List<String> annotationNames = new ArrayList<String>();
+		int attributeCount = input.readUnsignedShort();
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = utf8s[input.readUnsignedShort()];
+			int length = input.readInt();
+			if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+				int annotationCount = input.readUnsignedShort();
+				for (int j = 0; j < annotationCount; j++) {
+					String descriptor = utf8s[input.readUnsignedShort()];
+					if (descriptor != null && descriptor.startsWith("L") && descriptor.endsWith(";")) {
+						annotationNames.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+					}
+					skipElementValuePairs(input);
+				}
+			} else {
+				skip(input, length);
+			}
+		}
+		return new ClassMetadata(className, superClassName, interfaceNames, annotationNames, accessFlags);
+	}
+
+	/**
+	 * 获取常量池中类名称
+	 *
+	 * @return 索引为0时返回null
+	 */
+	private static String getClassName(String[] utf8s, int[] classNameIndexes, int index) throws IOException {
+		if (index == 0) {
+			return null;
+		}
+		if (index >= classNameIndexes.length || utf8s[classNameIndexes[index]] == null) {
+			throw new IOException("不是有效的class文件！");
+		}
+		return utf8s[classNameIndexes[index]].replace('/', '.');
+	}
+
+	/**
+	 * 跳过字段或函数表
+	 */
+	private static void skipMembers(DataInputStream input) throws IOException {
+		int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			// access_flags, name_index, descriptor_index
+			skip(input, 6);
+			int attributeCount = input.readUnsignedShort();
+			for (int j = 0; j < attributeCount; j++) {
+				skip(input, 2);
+				skip(input, input.readInt());
+			}
+		}
+	}
+
+	/**
+	 * 跳过注解的属性值
+	 */
+	private static void skipElementValuePairs(DataInputStream input) throws IOException {
+		int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			skip(input, 2);
+			skipElementValue(input);
+		}
+	}
+
+	private static void skipElementValue(DataInputStream input) throws IOException {
+		int tag = input.readUnsignedByte();
+		switch (tag) {
+		case 'e':
+			skip(input, 4);
+			break;
+		case '@':
+			skip(input, 2);
+			skipElementValuePairs(input);
+			break;
+		case '[':
+			int count = input.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skipElementValue(input);
+			}
+			break;
+		default:
+			// B C D F I J S Z s c
+			skip(input, 2);
+		}
+	}
+
+	private static void skip(DataInputStream input, int length) throws IOException {
+		if (length < 0) {
+			throw new IOException("不是有效的class文件！");
+		}
+		while (length > 0) {
+			int skipped = input.skipBytes(length);
+			if (skipped <= 0) {
+				throw new EOFException();
+			}
+			length -= skipped;
+		}
+	}
+
+	/**
+	 * 判断类上是否直接标记了给定的注解
+	 *
+	 * @param annotationName 注解全路径名称
+	 * @return true：是，false：否
+	 */
+	public boolean hasAnnotation(String annotationName) {
+		return annotationNames.contains(annotationName);
+	}
+
+	public boolean isInterface() {
+		return Modifier.isInterface(accessFlags);
+	}
+
+	public boolean isAbstract() {
+		return Modifier.isAbstract(accessFlags);
+	}
+
+	public boolean isAnnotation() {
+		return (accessFlags & ACC_ANNOTATION) != 0;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getSuperClassName() {
+		return superClassName;
+	}
+
+	public List<String> getInterfaceNames() {
+		return interfaceNames;
+	}
+
+	public List<String> getAnnotationNames() {
+		return annotationNames;
+	}
+
+	public int getAccessFlags() {
+		return accessFlags;
+	}
+
+	@Override
+	public String toString() {
+		return "ClassMetadata [className=" + className + ", superClassName=" + superClassName
+				+ ", interfaceNames=" + interfaceNames + ", annotationNames=" + annotationNames + "]";
+	}
+}
@@ -0,0 +1,140 @@
+package org.xlp.scanner.classfile;
+
+import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * 通过类加载器读取class文件字节，获取类信息及判断注解、继承关系，不加载（定义）类
+ * </p>
+ * 读取的是类加载器加载该类时会使用的同一个class文件（目录或jar文件中），已读取的类信息会被缓存
+ *
+ * @version 1.0
+ */
+public class ClassMetadataReader {
+	/**
+	 * 根类名称
+	 */
+	private static final String OBJECT_CLASS_NAME = "java.lang.Object";
+
+	/**
+	 * 类加载器
+	 */
+	private final ClassLoader classLoader;
+
+	/**
+	 * 已读取的类信息，key: 类全路径名称
+	 */
+	private final Map<String, ClassMetadata> metadataCache = new ConcurrentHashMap<String, ClassMetadata>();
+
+	/**
+	 * 构造函数
+	 *
+	 * @param classLoader 类加载器，为null时使用系统类加载器
+	 */
+	public ClassMetadataReader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * 获取类信息
+	 *
+	 * @param className 类全路径名称（xx.xx.yy）
+	 * @return 假如找不到该类的class文件，则返回null
+	 * @throws IOException 假如读取失败或不是有效的class文件，则抛出该异常
+	 */
+	public ClassMetadata getClassMetadata(String className) throws IOException {
+		ClassMetadata metadata = metadataCache.get(className);
+		if (metadata != null) {
+			return metadata;
+		}
+		String resourceName = StringUtils.dotToSplash(className) + ScannerPkgConsts.CLASS_FILE_EXT;
+		InputStream in = (classLoader != null ? classLoader.getResourceAsStream(resourceName)
+				: ClassLoader.getSystemResourceAsStream(resourceName));
+		if (in == null) {
+			return null;
+		}
+		try {
+			metadata = ClassMetadata.read(in);
+		} finally {
+			in.close();
+		}
+		metadataCache.put(className, metadata);
+		return metadata;
+	}
+
+	/**
+	 * 判断类上是否标记了给定的注解
+	 *
+	 * @param className 类全路径名称
+	 * @param annotationName 注解全路径名称
+	 * @param inherited 注解是否被{@link java.lang.annotation.Inherited}标记，为true时也查找父类上的注解
+	 * @return true：是，false：否
+	 * @throws IOException 假如找不到或读取该类（或父类）的class文件失败，则抛出该异常
+	 */
+	public boolean hasAnnotation(String className, String annotationName, boolean inherited) throws IOException {
+		String name = className;
+		while (name != null && !OBJECT_CLASS_NAME.equals(name)) {
+			ClassMetadata metadata = getRequiredClassMetadata(name);
+			if (metadata.hasAnnotation(annotationName)) {
+				return true;
+			}
+			if (!inherited || metadata.isInterface()) {
+				return false;
+			}
+			name = metadata.getSuperClassName();
+		}
+		return false;
+	}
+
+	/**
+	 * 判断类是否是给定类型或其子类型（包括实现的接口）
+	 *
+	 * @param className 类全路径名称
+	 * @param superTypeName 父类型全路径名称
+	 * @return true：是，false：否
+	 * @throws IOException 假如找不到或读取继承链上某个类的class文件失败，则抛出该异常
+	 */
+	public boolean isAssignableTo(String className, String superTypeName) throws IOException {
+		if (OBJECT_CLASS_NAME.equals(superTypeName)) {
+			return true;
+		}
+		return isAssignableTo(className, superTypeName, new HashSet<String>());
+	}
+
+	private boolean isAssignableTo(String className, String superTypeName, Set<String> visited)
+			throws IOException {
+		if (className.equals(superTypeName)) {
+			return true;
+		}
+		if (OBJECT_CLASS_NAME.equals(className) || !visited.add(className)) {
+			return false;
+		}
+		ClassMetadata metadata = getRequiredClassMetadata(className);
+		if (metadata.getSuperClassName() != null
+				&& isAssignableTo(metadata.getSuperClassName(), superTypeName, visited)) {
+			return true;
+		}
+		for (String interfaceName : metadata.getInterfaceNames()) {
+			if (isAssignableTo(interfaceName, superTypeName, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private ClassMetadata getRequiredClassMetadata(String className) throws IOException {
+		ClassMetadata metadata = getClassMetadata(className);
+		if (metadata == null) {
+			throw new IOException("找不到【" + className + "】的class文件");
+		}
+		return metadata;
+	}
+}
@@ -55,4 +55,25 @@ public final class ScannerPkgConsts {
 	 * JAR URL和JAR中的文件路径之间的分隔符：“！/"
 	 */
 	public final static String JAR_URL_SEPARATOR = "!/";
+	
+	/**
+	 * fat jar中依赖jar文件所在目录：Spring Boot可执行jar
+	 */
+	public final static String BOOT_INF_LIB = "BOOT-INF/lib/";
+	
+	/**
+	 * fat jar中依赖jar文件所在目录：war包
+	 */
+	public final static String WEB_INF_LIB = "WEB-INF/lib/";
+	
+	/**
+	 * fat jar中依赖jar文件所在目录：其他打包方式
+	 */
+	public final static String LIB = "lib/";
+	
+	/**
+	 * 编译时生成的{@link org.xlp.bean.annotation.Component}组件索引文件位置
+	 */
+	public final static String COMPONENT_INDEX_LOCATION = "META-INF/xlp-bean.components";
+
 }
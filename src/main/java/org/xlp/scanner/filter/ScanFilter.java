@@ -0,0 +1,385 @@
+package org.xlp.scanner.filter;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * 包扫描过滤条件
+ * </p>
+ * 支持以下条件，添加时即编译成匹配规则，扫描时在创建类名称字符串及加载类之前判断：
+ * <ul>
+ * <li>包名称通配符（包含/排除）：“*”匹配一级包名中任意个字符，“?”匹配一个字符，“**”匹配任意级（包括0级）包，
+ * 如“org.xlp.**”匹配org.xlp及其所有子包，“**.test.**”匹配所有名为test的包及其子包</li>
+ * <li>类名称后缀（包含/排除）：匹配不含包名的类名称，如“Test”</li>
+ * <li>标记注解：类上需标记其中任意一个注解，从class文件中判断，不加载类；只在获取class对象时判断</li>
+ * </ul>
+ * 设置了包含条件时，需满足其中任意一个；满足任意一个排除条件的类都被排除。
+ * 排除条件以“**”结尾时，匹配的包下的子目录不会被遍历
+ * <p>
+ * 该类在添加条件后不应再修改，多线程扫描时只读
+ * </p>
+ *
+ * @version 1.0
+ */
+public class ScanFilter {
+	/**
+	 * 不过滤任何类的过滤条件
+	 */
+	public static final ScanFilter ACCEPT_ALL = new ScanFilter();
+
+	/**
+	 * 任意级包通配符
+	 */
+	private static final String ANY_PACKAGES = "**";
+
+	/**
+	 * 包含的包名称通配符
+	 */
+	private final List<String[]> includePackages = new ArrayList<String[]>();
+
+	/**
+	 * 排除的包名称通配符
+	 */
+	private final List<String[]> excludePackages = new ArrayList<String[]>();
+
+	/**
+	 * 包含的类名称后缀
+	 */
+	private final List<String> includeSuffixes = new ArrayList<String>();
+
+	/**
+	 * 排除的类名称后缀
+	 */
+	private final List<String> excludeSuffixes = new ArrayList<String>();
+
+	/**
+	 * 标记注解
+	 */
+	private final List<Class<? extends Annotation>> annotations = new ArrayList<Class<? extends Annotation>>();
+
+	/**
+	 * 添加包含的包名称通配符
+	 *
+	 * @param patterns 包名称通配符，如“org.xlp.**”
+	 * @return 当前对象
+	 * @throws IllegalArgumentException 假如通配符为空，则抛出该异常
+	 */
+	public ScanFilter includePackages(String... patterns) {
+		checkModifiable();
+		for (String pattern : patterns) {
+			includePackages.add(compile(pattern));
+		}
+		return this;
+	}
+
+	/**
+	 * 添加排除的包名称通配符
+	 *
+	 * @param patterns 包名称通配符，如“**.test.**”
+	 * @return 当前对象
+	 * @throws IllegalArgumentException 假如通配符为空，则抛出该异常
+	 */
+	public ScanFilter excludePackages(String... patterns) {
+		checkModifiable();
+		for (String pattern : patterns) {
+			excludePackages.add(compile(pattern));
+		}
+		return this;
+	}
+
+	/**
+	 * 添加包含的类名称后缀
+	 *
+	 * @param suffixes 不含包名的类名称后缀，如“Service”
+	 * @return 当前对象
+	 */
+	public ScanFilter includeSuffixes(String... suffixes) {
+		checkModifiable();
+		Collections.addAll(includeSuffixes, suffixes);
+		return this;
+	}
+
+	/**
+	 * 添加排除的类名称后缀
+	 *
+	 * @param suffixes 不含包名的类名称后缀，如“Test”
+	 * @return 当前对象
+	 */
+	public ScanFilter excludeSuffixes(String... suffixes) {
+		checkModifiable();
+		Collections.addAll(excludeSuffixes, suffixes);
+		return this;
+	}
+
+	/**
+	 * 添加标记注解，类上需标记其中任意一个注解；注解被{@link Inherited}标记时也查找父类
+	 *
+	 * @param annotationClasses 注解类型
+	 * @return 当前对象
+	 */
+	@SafeVarargs
+	public final ScanFilter annotatedWith(Class<? extends Annotation>... annotationClasses) {
+		checkModifiable();
+		Collections.addAll(annotations, annotationClasses);
+		return this;
+	}
+
+	/**
+	 * 获取标记注解
+	 *
+	 * @return 只读集合，没有设置返回空集合
+	 */
+	public List<Class<? extends Annotation>> getAnnotations() {
+		return Collections.unmodifiableList(annotations);
+	}
+
+	/**
+	 * 是否设置了标记注解
+	 *
+	 * @return true：是，false：否
+	 */
+	public boolean hasAnnotations() {
+		return !annotations.isEmpty();
+	}
+
+	/**
+	 * 判断包及其所有子包是否都可跳过（不需要遍历）
+	 *
+	 * @param packageName 包名称
+	 * @param start 包名称在字符序列中的开始位置
+	 * @param end 包名称在字符序列中的结束位置（不包含）
+	 * @param separator 包之间的分隔符，“.”或“/”
+	 * @return true：可跳过，false：不可跳过
+	 */
+	public boolean skipsPackageTree(CharSequence packageName, int start, int end, char separator) {
+		for (String[] pattern : excludePackages) {
+			if (ANY_PACKAGES.equals(pattern[pattern.length - 1])
+					&& match(pattern, 0, packageName, firstSegment(start, end), end, separator, false)) {
+				return true;
+			}
+		}
+		if (includePackages.isEmpty()) {
+			return false;
+		}
+		for (String[] pattern : includePackages) {
+			if (match(pattern, 0, packageName, firstSegment(start, end), end, separator, true)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 判断包是否满足包名称条件
+	 *
+	 * @param packageName 包名称
+	 * @param start 包名称在字符序列中的开始位置
+	 * @param end 包名称在字符序列中的结束位置（不包含）
+	 * @param separator 包之间的分隔符，“.”或“/”
+	 * @return true：满足，false：不满足
+	 */
+	public boolean acceptsPackage(CharSequence packageName, int start, int end, char separator) {
+		for (String[] pattern : excludePackages) {
+			if (match(pattern, 0, packageName, firstSegment(start, end), end, separator, false)) {
+				return false;
+			}
+		}
+		if (includePackages.isEmpty()) {
+			return true;
+		}
+		for (String[] pattern : includePackages) {
+			if (match(pattern, 0, packageName, firstSegment(start, end), end, separator, false)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 判断不含包名的类名称是否满足后缀条件
+	 *
+	 * @param simpleName 类名称
+	 * @param start 类名称在字符序列中的开始位置
+	 * @param end 类名称在字符序列中的结束位置（不包含）
+	 * @return true：满足，false：不满足
+	 */
+	public boolean acceptsSimpleName(CharSequence simpleName, int start, int end) {
+		for (String suffix : excludeSuffixes) {
+			if (endsWith(simpleName, start, end, suffix)) {
+				return false;
+			}
+		}
+		if (includeSuffixes.isEmpty()) {
+			return true;
+		}
+		for (String suffix : includeSuffixes) {
+			if (endsWith(simpleName, start, end, suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 判断类是否满足包名称及后缀条件（不判断注解）
+	 *
+	 * @param className 类全路径名称或class条目路径（不包含.class后缀）
+	 * @param start 类名称在字符序列中的开始位置
+	 * @param end 类名称在字符序列中的结束位置（不包含）
+	 * @param separator 包之间的分隔符，“.”或“/”
+	 * @return true：满足，false：不满足
+	 */
+	public boolean acceptsClass(CharSequence className, int start, int end, char separator) {
+		int simpleNameStart = start;
+		for (int i = end - 1; i >= start; i--) {
+			if (className.charAt(i) == separator) {
+				simpleNameStart = i + 1;
+				break;
+			}
+		}
+		int packageEnd = simpleNameStart == start ? start : simpleNameStart - 1;
+		return acceptsSimpleName(className, simpleNameStart, end)
+				&& acceptsPackage(className, start, packageEnd, separator);
+	}
+
+	/**
+	 * 判断类是否满足包名称及后缀条件（不判断注解）
+	 *
+	 * @param className 类全路径名称（xx.xx.Yy）
+	 * @return true：满足，false：不满足
+	 */
+	public boolean acceptsClass(String className) {
+		return acceptsClass(className, 0, className.length(), '.');
+	}
+
+	/**
+	 * 判断已加载的类是否满足标记注解条件
+	 *
+	 * @param aClass 类
+	 * @return 没有设置标记注解或类上标记了其中任意一个注解时返回true，否则返回false
+	 */
+	public boolean acceptsAnnotations(Class<?> aClass) {
+		if (annotations.isEmpty()) {
+			return true;
+		}
+		for (Class<? extends Annotation> annotation : annotations) {
+			if (aClass.isAnnotationPresent(annotation)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 是否没有包名称及后缀条件
+	 *
+	 * @return true：是，false：否
+	 */
+	public boolean isNameFilterEmpty() {
+		return includePackages.isEmpty() && excludePackages.isEmpty() && includeSuffixes.isEmpty()
+				&& excludeSuffixes.isEmpty();
+	}
+
+	private void checkModifiable() {
+		if (this == ACCEPT_ALL) {
+			throw new UnsupportedOperationException("ACCEPT_ALL can not be modified!");
+		}
+	}
+
+	/**
+	 * 编译包名称通配符
+	 *
+	 * @return 各级包的通配符
+	 */
+	private static String[] compile(String pattern) {
+		if (pattern == null || pattern.trim().isEmpty()) {
+			throw new IllegalArgumentException("package pattern parameter is null or empty!");
+		}
+		return pattern.trim().replace('/', '.').split("\\.");
+	}
+
+	/**
+	 * 包名称为空时没有任何一级包，用开始位置大于结束位置表示
+	 */
+	private static int firstSegment(int start, int end) {
+		return start == end ? end + 1 : start;
+	}
+
+	/**
+	 * 从第patternIndex级通配符、包名称start位置开始匹配，start大于end时表示没有更多的包
+	 *
+	 * @param prefix 为true时，包名称匹配完而通配符还有剩余也视为匹配（子包可能匹配）
+	 */
+	private static boolean match(String[] pattern, int patternIndex, CharSequence name, int start, int end,
+			char separator, boolean prefix) {
+		if (start > end && prefix) {
+			return true;
+		}
+		if (patternIndex == pattern.length) {
+			return start > end;
+		}
+		String segmentPattern = pattern[patternIndex];
+		if (ANY_PACKAGES.equals(segmentPattern)) {
+			if (match(pattern, patternIndex + 1, name, start, end, separator, prefix)) {
+				return true;
+			}
+			return start <= end && match(pattern, patternIndex, name, segmentEnd(name, start, end, separator) + 1,
+					end, separator, prefix);
+		}
+		if (start > end) {
+			return false;
+		}
+		int segmentEnd = segmentEnd(name, start, end, separator);
+		return matchSegment(segmentPattern, 0, name, start, segmentEnd)
+				&& match(pattern, patternIndex + 1, name, segmentEnd + 1, end, separator, prefix);
+	}
+
+	private static int segmentEnd(CharSequence name, int start, int end, char separator) {
+		for (int i = start; i < end; i++) {
+			if (name.charAt(i) == separator) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * 匹配一级包名，支持“*”及“?”
+	 */
+	private static boolean matchSegment(String pattern, int patternIndex, CharSequence name, int start, int end) {
+		while (patternIndex < pattern.length()) {
+			char c = pattern.charAt(patternIndex);
+			if (c == '*') {
+				for (int i = end; i >= start; i--) {
+					if (matchSegment(pattern, patternIndex + 1, name, i, end)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if (start >= end || (c != '?' && c != name.charAt(start))) {
+				return false;
+			}
+			patternIndex++;
+			start++;
+		}
+		return start == end;
+	}
+
+	private static boolean endsWith(CharSequence name, int start, int end, String suffix) {
+		int length = suffix.length();
+		if (end - start < length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (name.charAt(end - length + i) != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
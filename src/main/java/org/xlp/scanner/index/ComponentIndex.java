@@ -0,0 +1,265 @@
+package org.xlp.scanner.index;
+
+import org.xlp.scanner.constants.ScannerPkgConsts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * {@link org.xlp.bean.annotation.Component}组件索引
+ * </p>
+ * 索引文件由{@link org.xlp.bean.processor.ComponentIndexProcessor}在编译时生成，位置为
+ * {@link ScannerPkgConsts#COMPONENT_INDEX_LOCATION}，UTF-8编码，每行一个组件，格式为：
+ * <pre>
+ * 类全路径名称	singleton	lazy	proxy	id
+ * </pre>
+ * 各项之间用制表符分隔，以“#”开头的行为注释
+ * <p>该类也会在注解处理器中使用，因此只依赖JDK</p>
+ *
+ * @version 1.0
+ */
+public final class ComponentIndex {
+	/**
+	 * 注释行前缀
+	 */
+	private static final String COMMENT_PREFIX = "#";
+
+	/**
+	 * 各项之间的分隔符
+	 */
+	private static final char SEPARATOR = '\t';
+
+	/**
+	 * 所有组件，key: 类全路径名称
+	 */
+	private final Map<String, Entry> entries;
+
+	/**
+	 * 构造函数
+	 *
+	 * @param entries 组件
+	 */
+	public ComponentIndex(Collection<Entry> entries) {
+		Map<String, Entry> entryMap = new LinkedHashMap<String, Entry>();
+		if (entries != null) {
+			for (Entry entry : entries) {
+				entryMap.put(entry.getClassName(), entry);
+			}
+		}
+		this.entries = Collections.unmodifiableMap(entryMap);
+	}
+
+	/**
+	 * 读取类加载器下所有的组件索引文件
+	 *
+	 * @param classLoader 类加载器，为null时使用系统类加载器
+	 * @return 假如类路径中没有组件索引文件，则返回null
+	 * @throws IOException 假如读取索引文件失败，则抛出该异常
+	 */
+	public static ComponentIndex load(ClassLoader classLoader) throws IOException {
+		Enumeration<URL> urls = (classLoader != null
+				? classLoader.getResources(ScannerPkgConsts.COMPONENT_INDEX_LOCATION)
+				: ClassLoader.getSystemResources(ScannerPkgConsts.COMPONENT_INDEX_LOCATION));
+		if (!urls.hasMoreElements()) {
+			return null;
+		}
+		List<Entry> entries = new ArrayList<Entry>();
+		while (urls.hasMoreElements()) {
+			URL url = urls.nextElement();
+			InputStream in = url.openStream();
+			try {
+				entries.addAll(read(in));
+			} finally {
+				in.close();
+			}
+		}
+		return new ComponentIndex(entries);
+	}
+
+	/**
+	 * 读取组件索引
+	 *
+	 * @param in 索引文件输入流，该函数不关闭该流
+	 * @return 组件集合，忽略格式不正确的行
+	 * @throws IOException 假如读取失败，则抛出该异常
+	 */
+	public static List<Entry> read(InputStream in) throws IOException {
+		List<Entry> entries = new ArrayList<Entry>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+				continue;
+			}
+			Entry entry = Entry.parse(line);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * 写入组件索引
+	 *
+	 * @param entries 组件
+	 * @param writer 输出，该函数不关闭该输出
+	 * @throws IOException 假如写入失败，则抛出该异常
+	 */
+	public static void write(Collection<Entry> entries, Writer writer) throws IOException {
+		writer.write(COMMENT_PREFIX + " xlp-bean component index, generated at compile time\n");
+		for (Entry entry : entries) {
+			writer.write(entry.toLine());
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * 获取所有组件
+	 *
+	 * @return 只读集合
+	 */
+	public Collection<Entry> getEntries() {
+		return entries.values();
+	}
+
+	/**
+	 * 获取指定包（包括子包）下的组件
+	 *
+	 * @param packageName 包名称（xxx.xxx），为空时返回所有组件
+	 * @return 组件集合
+	 */
+	public List<Entry> getEntries(String packageName) {
+		packageName = packageName == null ? "" : packageName.trim();
+		String prefix = packageName.isEmpty() ? "" : packageName + ".";
+		List<Entry> result = new ArrayList<Entry>();
+		for (Entry entry : entries.values()) {
+			if (entry.getClassName().startsWith(prefix)) {
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取给定类的组件信息
+	 *
+	 * @param className 类全路径名称
+	 * @return 不存在返回null
+	 */
+	public Entry getEntry(String className) {
+		return entries.get(className);
+	}
+
+	/**
+	 * 单个组件的索引信息
+	 */
+	public static final class Entry {
+		/**
+		 * 类全路径名称
+		 */
+		private final String className;
+
+		/**
+		 * bean id，没有配置为空字符串
+		 */
+		private final String id;
+
+		private final boolean singleton;
+
+		private final boolean lazy;
+
+		private final boolean proxy;
+
+		/**
+		 * 构造函数
+		 *
+		 * @param className 类全路径名称
+		 * @param id bean id，可为null
+		 * @param singleton 是否是单例
+		 * @param lazy 是否延迟实例化
+		 * @param proxy 是否需要被代理
+		 * @throws IllegalArgumentException 假如类名称为空或id中包含换行符，则抛出该异常
+		 */
+		public Entry(String className, String id, boolean singleton, boolean lazy, boolean proxy) {
+			if (className == null || className.isEmpty()) {
+				throw new IllegalArgumentException("className parameter is null or empty!");
+			}
+			id = id == null ? "" : id;
+			if (id.indexOf('\n') >= 0 || id.indexOf('\r') >= 0) {
+				throw new IllegalArgumentException("id parameter must not contain line breaks!");
+			}
+			this.className = className;
+			this.id = id;
+			this.singleton = singleton;
+			this.lazy = lazy;
+			this.proxy = proxy;
+		}
+
+		/**
+		 * 解析索引行
+		 *
+		 * @param line 索引行
+		 * @return 格式不正确返回null
+		 */
+		static Entry parse(String line) {
+			String[] items = line.split(String.valueOf(SEPARATOR), 5);
+			if (items.length < 4 || items[0].isEmpty()) {
+				return null;
+			}
+			String id = items.length == 5 ? items[4] : "";
+			return new Entry(items[0], id, Boolean.parseBoolean(items[1]), Boolean.parseBoolean(items[2]),
+					Boolean.parseBoolean(items[3]));
+		}
+
+		/**
+		 * 转换成索引行
+		 *
+		 * @return 索引行
+		 */
+		String toLine() {
+			return className + SEPARATOR + singleton + SEPARATOR + lazy + SEPARATOR + proxy + SEPARATOR + id;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public boolean isSingleton() {
+			return singleton;
+		}
+
+		public boolean isLazy() {
+			return lazy;
+		}
+
+		public boolean isProxy() {
+			return proxy;
+		}
+
+		@Override
+		public String toString() {
+			return "Entry [className=" + className + ", id=" + id + ", singleton=" + singleton + ", lazy=" + lazy
+					+ ", proxy=" + proxy + "]";
+		}
+	}
+}
@@ -0,0 +1,593 @@
+package org.xlp.scanner.jar;
+
+import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.filter.ScanFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * <p>
+ * 直接读取jar（zip）文件中央目录的class条目
+ * </p>
+ * 使用内存映射读取文件末尾的中央目录，在条目名称的原始字节上匹配包路径前缀、“.class”后缀及内部类标识“$”，
+ * 过滤条件也在原始字节上判断，只为匹配的条目创建字符串，不创建{@link java.util.jar.JarEntry}对象；支持ZIP64格式及文件头部附加了其他数据的jar文件
+ * <p>
+ * 嵌套在jar文件中的jar文件（如fat jar中BOOT-INF/lib下的依赖）不解压到磁盘：未压缩存储的直接映射其所在区域，
+ * 按同样的方式读取其中央目录；压缩存储的通过{@link ZipInputStream}流式读取条目名称
+ * </p>
+ * <p>
+ * 映射的内存在被垃圾回收时释放
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class JarCentralDirectory {
+	/**
+	 * 中央目录结束记录签名
+	 */
+	private static final int END_SIGNATURE = 0x06054b50;
+
+	/**
+	 * ZIP64中央目录结束记录签名
+	 */
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+	/**
+	 * ZIP64中央目录结束记录定位器签名
+	 */
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+	/**
+	 * 中央目录文件头签名
+	 */
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+	/**
+	 * 本地文件头签名
+	 */
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	/**
+	 * 中央目录结束记录长度（不包含注释）
+	 */
+	private static final int END_LENGTH = 22;
+
+	/**
+	 * ZIP64中央目录结束记录定位器长度
+	 */
+	private static final int ZIP64_LOCATOR_LENGTH = 20;
+
+	/**
+	 * ZIP64中央目录结束记录长度（不包含扩展数据）
+	 */
+	private static final int ZIP64_END_LENGTH = 56;
+
+	/**
+	 * 中央目录文件头长度（不包含名称、扩展字段及注释）
+	 */
+	private static final int CENTRAL_HEADER_LENGTH = 46;
+
+	/**
+	 * 本地文件头长度（不包含名称及扩展字段）
+	 */
+	private static final int LOCAL_HEADER_LENGTH = 30;
+
+	/**
+	 * ZIP64扩展字段标识
+	 */
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+
+	/**
+	 * 大小或偏移量记录在ZIP64扩展字段中时的标记值
+	 */
+	private static final long ZIP64_MAGIC_VALUE = 0xFFFFFFFFL;
+
+	/**
+	 * 注释最大长度
+	 */
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+	private static final byte[] CLASS_FILE_EXT = ScannerPkgConsts.CLASS_FILE_EXT.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte INNER_CLASS_FLAG = (byte) ScannerPkgConsts.INNER_CLASS_FLAG.charAt(0);
+
+	private static final byte[] JAR_FILE_EXT = ScannerPkgConsts.JAR_FILE_EXT.getBytes(StandardCharsets.UTF_8);
+
+	private JarCentralDirectory() {
+	}
+
+	/**
+	 * 获取jar文件中指定包（包括子包）下所有class名称，不包括内部类
+	 *
+	 * @param jarFile jar文件
+	 * @param packageName 包名称（xx.xx），为空时返回所有class
+	 * @return class名称（xx.xx.Yy）
+	 * @throws IOException 假如读取失败或不是有效的jar文件，则抛出该异常
+	 */
+	public static List<String> findClassNames(File jarFile, String packageName) throws IOException {
+		return find(jarFile, packageName, ScanFilter.ACCEPT_ALL, (byte) '.');
+	}
+
+	/**
+	 * 获取jar文件中指定包（包括子包）下满足过滤条件的class名称，不包括内部类
+	 *
+	 * @param jarFile jar文件
+	 * @param packageName 包名称（xx.xx），为空时返回所有class
+	 * @param filter 过滤条件，为null时不过滤；不判断标记注解
+	 * @return class名称（xx.xx.Yy）
+	 * @throws IOException 假如读取失败或不是有效的jar文件，则抛出该异常
+	 */
+	public static List<String> findClassNames(File jarFile, String packageName, ScanFilter filter)
+			throws IOException {
+		return find(jarFile, packageName, filter, (byte) '.');
+	}
+
+	/**
+	 * 获取jar文件中指定包（包括子包）下所有class条目路径，不包括内部类
+	 *
+	 * @param jarFile jar文件
+	 * @param packageName 包名称（xx.xx），为空时返回所有class
+	 * @return class条目路径（xx/xx/Yy，不包含.class后缀）
+	 * @throws IOException 假如读取失败或不是有效的jar文件，则抛出该异常
+	 */
+	public static List<String> findClassPaths(File jarFile, String packageName) throws IOException {
+		return find(jarFile, packageName, ScanFilter.ACCEPT_ALL, (byte) '/');
+	}
+
+	/**
+	 * 获取jar文件中指定包（包括子包）下满足过滤条件的class条目路径，不包括内部类
+	 *
+	 * @param jarFile jar文件
+	 * @param packageName 包名称（xx.xx），为空时返回所有class
+	 * @param filter 过滤条件，为null时不过滤；不判断标记注解
+	 * @return class条目路径（xx/xx/Yy，不包含.class后缀）
+	 * @throws IOException 假如读取失败或不是有效的jar文件，则抛出该异常
+	 */
+	public static List<String> findClassPaths(File jarFile, String packageName, ScanFilter filter)
+			throws IOException {
+		return find(jarFile, packageName, filter, (byte) '/');
+	}
+
+	/**
+	 * @param separator 返回结果中包之间的分隔符
+	 */
+	private static List<String> find(File jarFile, String packageName, ScanFilter filter, byte separator)
+			throws IOException {
+		byte[] prefix = toPackageBasePath(packageName).getBytes(StandardCharsets.UTF_8);
+		List<String> result = new ArrayList<String>();
+		try (FileChannel channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.READ)) {
+			find(channel, 0, channel.size(), jarFile.toString(), prefix, filter, separator, result);
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("【" + jarFile + "】不是有效的jar文件", e);
+		}
+		return result;
+	}
+
+	/**
+	 * 获取jar文件中嵌套的jar文件里指定包（包括子包）下满足过滤条件的class名称，不包括内部类；
+	 * 不包括外层jar文件本身的class
+	 *
+	 * @param jarFile 外层jar文件
+	 * @param nestedJarMatcher 根据条目名称（如BOOT-INF/lib/xx.jar）判断是否读取该嵌套jar文件
+	 * @param packageName 包名称（xx.xx），为空时返回所有class
+	 * @param filter 过滤条件，为null时不过滤；不判断标记注解
+	 * @return class名称（xx.xx.Yy）
+	 * @throws IOException 假如读取失败、外层或嵌套的jar文件无效，则抛出该异常
+	 */
+	public static List<String> findNestedClassNames(File jarFile, Predicate<String> nestedJarMatcher,
+			String packageName, ScanFilter filter) throws IOException {
+		byte[] prefix = toPackageBasePath(packageName).getBytes(StandardCharsets.UTF_8);
+		List<String> result = new ArrayList<String>();
+		try (FileChannel channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.READ)) {
+			Archive archive = mapCentralDirectory(channel, 0, channel.size());
+			ByteBuffer directory = archive.directory;
+			while (directory.remaining() >= CENTRAL_HEADER_LENGTH
+					&& directory.getInt(directory.position()) == CENTRAL_HEADER_SIGNATURE) {
+				int position = directory.position();
+				int nameLength = directory.getShort(position + 28) & 0xFFFF;
+				int extraLength = directory.getShort(position + 30) & 0xFFFF;
+				int commentLength = directory.getShort(position + 32) & 0xFFFF;
+				int nameStart = position + CENTRAL_HEADER_LENGTH;
+				if (nameStart + nameLength + extraLength > directory.limit()) {
+					throw new IOException("【" + jarFile + "】中央目录格式错误");
+				}
+				if (endsWith(directory, nameStart, nameLength, JAR_FILE_EXT)) {
+					String name = decode(directory, nameStart, nameLength);
+					if (nestedJarMatcher.test(name)) {
+						findInNestedJar(channel, archive, directory, position, jarFile + "!/" + name, prefix,
+								filter, result);
+					}
+				}
+				directory.position(nameStart + nameLength + extraLength + commentLength);
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("【" + jarFile + "】不是有效的jar文件", e);
+		}
+		return result;
+	}
+
+	/**
+	 * 读取中央目录中指定位置的条目对应的嵌套jar文件
+	 *
+	 * @param position 条目在中央目录中的位置
+	 */
+	private static void findInNestedJar(FileChannel channel, Archive archive, ByteBuffer directory, int position,
+			String nestedJarName, byte[] prefix, ScanFilter filter, List<String> result) throws IOException {
+		int method = directory.getShort(position + 10) & 0xFFFF;
+		long[] values = {directory.getInt(position + 24) & 0xFFFFFFFFL, directory.getInt(position + 20) & 0xFFFFFFFFL,
+				directory.getInt(position + 42) & 0xFFFFFFFFL};
+		int nameLength = directory.getShort(position + 28) & 0xFFFF;
+		int extraLength = directory.getShort(position + 30) & 0xFFFF;
+		readZip64Extra(directory, position + CENTRAL_HEADER_LENGTH + nameLength, extraLength, values);
+		long size = values[0];
+		long compressedSize = values[1];
+
+		long localHeaderStart = archive.start + values[2];
+		ByteBuffer localHeader = channel.map(FileChannel.MapMode.READ_ONLY, localHeaderStart, LOCAL_HEADER_LENGTH)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+			throw new IOException("【" + nestedJarName + "】本地文件头格式错误");
+		}
+		long dataStart = localHeaderStart + LOCAL_HEADER_LENGTH + (localHeader.getShort(26) & 0xFFFF)
+				+ (localHeader.getShort(28) & 0xFFFF);
+		if (dataStart + compressedSize > channel.size()) {
+			throw new IOException("【" + nestedJarName + "】位置错误");
+		}
+
+		if (method == ZipEntry.STORED) {
+			find(channel, dataStart, size, nestedJarName, prefix, filter, (byte) '.', result);
+		} else if (method == ZipEntry.DEFLATED) {
+			ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, compressedSize);
+			Inflater inflater = new Inflater(true);
+			try (ZipInputStream input = new ZipInputStream(
+					new InflaterInputStream(new ByteBufferInputStream(data), inflater))) {
+				findInStream(input, new String(prefix, StandardCharsets.UTF_8), filter, result);
+			} finally {
+				inflater.end();
+			}
+		} else {
+			throw new IOException("【" + nestedJarName + "】不支持的压缩方式：" + method);
+		}
+	}
+
+	/**
+	 * 流式读取压缩存储的嵌套jar文件中的条目名称
+	 */
+	private static void findInStream(ZipInputStream input, String prefix, ScanFilter filter, List<String> result)
+			throws IOException {
+		int extLength = ScannerPkgConsts.CLASS_FILE_EXT.length();
+		ZipEntry entry;
+		while ((entry = input.getNextEntry()) != null) {
+			String name = entry.getName();
+			int end = name.length() - extLength;
+			if (end > prefix.length() && name.startsWith(prefix) && name.endsWith(ScannerPkgConsts.CLASS_FILE_EXT)
+					&& name.lastIndexOf(ScannerPkgConsts.INNER_CLASS_FLAG, end) < prefix.length()
+					&& (filter == null || filter.acceptsClass(name, 0, end, '/'))) {
+				result.add(name.substring(0, end).replace('/', '.'));
+			}
+		}
+	}
+
+	/**
+	 * 大小或偏移量为{@link #ZIP64_MAGIC_VALUE}时，从ZIP64扩展字段中读取实际值
+	 *
+	 * @param values 依次为：未压缩大小、压缩后大小、本地文件头偏移量
+	 */
+	private static void readZip64Extra(ByteBuffer directory, int extraStart, int extraLength, long[] values) {
+		int position = extraStart;
+		int end = extraStart + extraLength;
+		while (position + 4 <= end) {
+			int id = directory.getShort(position) & 0xFFFF;
+			int length = directory.getShort(position + 2) & 0xFFFF;
+			if (id == ZIP64_EXTRA_ID) {
+				int valuePosition = position + 4;
+				for (int i = 0; i < values.length && valuePosition + 8 <= position + 4 + length; i++) {
+					if (values[i] == ZIP64_MAGIC_VALUE) {
+						values[i] = directory.getLong(valuePosition);
+						valuePosition += 8;
+					}
+				}
+				return;
+			}
+			position += 4 + length;
+		}
+	}
+
+	/**
+	 * 读取jar文件（或嵌套jar文件所在区域）的中央目录
+	 *
+	 * @param start jar文件在文件中的开始位置
+	 * @param size jar文件大小
+	 * @param archiveName jar文件名称，用于异常信息
+	 * @param prefix 包路径前缀
+	 * @param separator 返回结果中包之间的分隔符
+	 * @param result 结果
+	 */
+	private static void find(FileChannel channel, long start, long size, String archiveName, byte[] prefix,
+			ScanFilter filter, byte separator, List<String> result) throws IOException {
+		boolean filtered = filter != null && !filter.isNameFilterEmpty();
+		ByteBuffer directory = mapCentralDirectory(channel, start, size).directory;
+		EntryName entryName = filtered ? new EntryName(directory) : null;
+		byte[] name = new byte[256];
+		while (directory.remaining() >= CENTRAL_HEADER_LENGTH
+				&& directory.getInt(directory.position()) == CENTRAL_HEADER_SIGNATURE) {
+			int position = directory.position();
+			int nameLength = directory.getShort(position + 28) & 0xFFFF;
+			int extraLength = directory.getShort(position + 30) & 0xFFFF;
+			int commentLength = directory.getShort(position + 32) & 0xFFFF;
+			int nameStart = position + CENTRAL_HEADER_LENGTH;
+			if (nameStart + nameLength > directory.limit()) {
+				throw new IOException("【" + archiveName + "】中央目录格式错误");
+			}
+			if (matches(directory, nameStart, nameLength, prefix)
+					&& (!filtered || entryName.accepts(filter, nameStart, nameLength - CLASS_FILE_EXT.length))) {
+				int length = nameLength - CLASS_FILE_EXT.length;
+				if (name.length < length) {
+					name = new byte[Math.max(length, name.length * 2)];
+				}
+				for (int i = 0; i < length; i++) {
+					byte b = directory.get(nameStart + i);
+					name[i] = b == '/' ? separator : b;
+				}
+				result.add(new String(name, 0, length, StandardCharsets.UTF_8));
+			}
+			directory.position(nameStart + nameLength + extraLength + commentLength);
+		}
+	}
+
+	private static boolean endsWith(ByteBuffer directory, int nameStart, int nameLength, byte[] suffix) {
+		if (nameLength < suffix.length) {
+			return false;
+		}
+		int suffixStart = nameStart + nameLength - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (directory.get(suffixStart + i) != suffix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String decode(ByteBuffer directory, int start, int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = directory.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 在条目名称的原始字节上判断是否是指定包下的class文件且不是内部类
+	 */
+	private static boolean matches(ByteBuffer directory, int nameStart, int nameLength, byte[] prefix) {
+		if (nameLength < prefix.length + CLASS_FILE_EXT.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (directory.get(nameStart + i) != prefix[i]) {
+				return false;
+			}
+		}
+		int suffixStart = nameStart + nameLength - CLASS_FILE_EXT.length;
+		for (int i = 0; i < CLASS_FILE_EXT.length; i++) {
+			if (directory.get(suffixStart + i) != CLASS_FILE_EXT[i]) {
+				return false;
+			}
+		}
+		for (int i = nameStart + prefix.length; i < suffixStart; i++) {
+			if (directory.get(i) == INNER_CLASS_FLAG) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 中央目录中条目名称的字符视图，用于在不创建字符串的情况下判断过滤条件；
+	 * 名称只包含ASCII字符时直接按字节读取，否则解码成字符串后再判断
+	 */
+	private static final class EntryName implements CharSequence {
+		private final ByteBuffer directory;
+
+		private int start;
+
+		private int length;
+
+		EntryName(ByteBuffer directory) {
+			this.directory = directory;
+		}
+
+		/**
+		 * @param start 名称在中央目录中的开始位置
+		 * @param length 名称长度（不包含.class后缀）
+		 */
+		boolean accepts(ScanFilter filter, int start, int length) {
+			for (int i = start; i < start + length; i++) {
+				if (directory.get(i) < 0) {
+					byte[] bytes = new byte[length];
+					for (int j = 0; j < length; j++) {
+						bytes[j] = directory.get(start + j);
+					}
+					String name = new String(bytes, StandardCharsets.UTF_8);
+					return filter.acceptsClass(name, 0, name.length(), '/');
+				}
+			}
+			this.start = start;
+			this.length = length;
+			return filter.acceptsClass(this, 0, length, '/');
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) directory.get(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = directory.get(start + i);
+			}
+			return new String(bytes, StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * 查找中央目录结束记录并映射中央目录
+	 *
+	 * @param start jar文件在文件中的开始位置，嵌套的jar文件为其数据所在位置
+	 * @param fileSize jar文件大小
+	 * @return 映射的中央目录
+	 */
+	private static Archive mapCentralDirectory(FileChannel channel, long start, long fileSize) throws IOException {
+		if (fileSize < END_LENGTH) {
+			throw new IOException("不是有效的jar文件");
+		}
+		long tailStart = Math.max(0, fileSize - END_LENGTH - MAX_COMMENT_LENGTH - ZIP64_LOCATOR_LENGTH);
+		ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, start + tailStart, fileSize - tailStart)
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+		// 从后往前查找注释长度与文件末尾一致的结束记录
+		int endPosition = -1;
+		for (int i = tail.limit() - END_LENGTH; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIGNATURE
+					&& i + END_LENGTH + (tail.getShort(i + 20) & 0xFFFF) == tail.limit()) {
+				endPosition = i;
+				break;
+			}
+		}
+		if (endPosition < 0) {
+			throw new IOException("没有找到中央目录结束记录");
+		}
+
+		long directorySize = tail.getInt(endPosition + 12) & 0xFFFFFFFFL;
+		long directoryOffset = tail.getInt(endPosition + 16) & 0xFFFFFFFFL;
+		// 中央目录紧挨在结束记录（ZIP64时为ZIP64结束记录）之前，文件头部附加了其他数据时偏移量不准确
+		long directoryEnd = tailStart + endPosition;
+		int locatorPosition = endPosition - ZIP64_LOCATOR_LENGTH;
+		if (locatorPosition >= 0 && tail.getInt(locatorPosition) == ZIP64_LOCATOR_SIGNATURE) {
+			long zip64EndOffset = tail.getLong(locatorPosition + 8);
+			long zip64EndPosition = tailStart + locatorPosition - ZIP64_END_LENGTH;
+			ByteBuffer zip64End = channel.map(FileChannel.MapMode.READ_ONLY,
+					start + zip64EndPosition, ZIP64_END_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+			if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+				// ZIP64结束记录带有扩展数据，使用记录中的偏移量
+				zip64EndPosition = zip64EndOffset;
+				zip64End = channel.map(FileChannel.MapMode.READ_ONLY, start + zip64EndPosition, ZIP64_END_LENGTH)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+					throw new IOException("ZIP64中央目录结束记录格式错误");
+				}
+			}
+			directorySize = zip64End.getLong(40);
+			directoryOffset = zip64End.getLong(48);
+			directoryEnd = zip64EndPosition;
+		}
+
+		long directoryStart = directoryEnd - directorySize;
+		if (directoryStart < 0 || directorySize > Integer.MAX_VALUE) {
+			directoryStart = directoryOffset;
+		}
+		if (directoryStart < 0 || directoryStart + directorySize > fileSize || directorySize > Integer.MAX_VALUE) {
+			throw new IOException("中央目录位置错误");
+		}
+		ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, start + directoryStart, directorySize)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		// 文件头部附加了其他数据时，条目中记录的偏移量需加上附加数据的长度
+		return new Archive(directory, start + directoryStart - directoryOffset);
+	}
+
+	/**
+	 * 映射的中央目录
+	 */
+	private static final class Archive {
+		/**
+		 * 中央目录，小端序，位置为中央目录开始
+		 */
+		final ByteBuffer directory;
+
+		/**
+		 * 条目中记录的偏移量为0时对应的文件位置
+		 */
+		final long start;
+
+		Archive(ByteBuffer directory, long start) {
+			this.directory = directory;
+			this.start = start;
+		}
+	}
+
+	/**
+	 * 读取映射内存的输入流
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			length = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, length);
+			return length;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+
+	/**
+	 * 包名称转换成条目路径前缀
+	 *
+	 * @param packageName 包名称（xx.xx）
+	 * @return 以“/”结束的路径前缀，包名称为空时返回空字符串
+	 */
+	private static String toPackageBasePath(String packageName) {
+		packageName = packageName == null ? "" : packageName.trim();
+		if (packageName.isEmpty()) {
+			return "";
+		}
+		String packageBasePath = packageName.replace('.', '/');
+		return packageBasePath.endsWith("/") ? packageBasePath : packageBasePath + "/";
+	}
+}
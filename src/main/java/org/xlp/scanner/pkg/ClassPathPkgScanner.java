@@ -2,23 +2,51 @@ package org.xlp.scanner.pkg;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xlp.scanner.cache.ScanResultCache;
+import org.xlp.scanner.classfile.ClassMetadataReader;
 import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.jar.JarCentralDirectory;
 import org.xlp.scanner.util.ClassUtils;
 import org.xlp.scanner.util.StringUtils;
 import org.xlp.scanner.util.URLUtils;
+import org.xlp.scanner.watch.ClassChangeListener;
+import org.xlp.scanner.watch.ClassDirectoryWatcher;
 import org.xlp.utils.XLPStringUtil;
 import org.xlp.utils.XLPSystemParamUtil;
 
 import java.io.File;
-import java.io.FileFilter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -34,11 +62,52 @@ import java.util.jar.JarFile;
 public class ClassPathPkgScanner implements ScannerPkg {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClassPathPkgScanner.class);
 
+	/**
+	 * info日志中输出的最慢类路径条目数量
+	 */
+	private static final int SLOWEST_ENTRY_LOG_COUNT = 5;
+
 	/**
 	 * 类加载器
 	 */
 	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
 
+	/**
+	 * 扫描目录时的并行度，默认为1（在当前线程中扫描）
+	 */
+	private volatile int parallelism = 1;
+
+	/**
+	 * jar文件扫描结果的磁盘缓存，为null时不使用缓存
+	 */
+	private volatile ScanResultCache scanResultCache;
+
+	/**
+	 * 是否直接读取jar文件的中央目录获取class条目，默认为false（使用{@link JarFile#entries()}）
+	 */
+	private volatile boolean readJarCentralDirectory;
+
+	/**
+	 * 是否扫描类路径中jar文件里嵌套的jar文件
+	 */
+	private volatile boolean scanNestedJars;
+
+	/**
+	 * 嵌套的jar文件所在目录
+	 */
+	private volatile List<String> nestedJarDirectories = Collections.unmodifiableList(Arrays.asList(
+			ScannerPkgConsts.BOOT_INF_LIB, ScannerPkgConsts.WEB_INF_LIB, ScannerPkgConsts.LIB));
+
+	/**
+	 * 扫描整个类路径时并发扫描各条目的线程数，默认为CPU核数
+	 */
+	private volatile int classPathScanThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 最近一次扫描整个类路径时各条目的扫描耗时（纳秒）
+	 */
+	private volatile Map<String, Long> classPathScanTimes = Collections.emptyMap();
+
 	/**
 	 * 构造函数
 	 */
@@ -65,30 +134,124 @@ public class ClassPathPkgScanner implements ScannerPkg {
 	 */
 	@Override
 	public Set<String> scanner(String packageName) throws IOException {
+		return scanner(packageName, ScanFilter.ACCEPT_ALL);
+	}
+
+	/**
+	 * 过滤条件在遍历目录及jar文件条目时判断：排除的包对应的子目录不会被遍历，
+	 * 不满足条件的条目不会创建类名称字符串
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 */
+	@Override
+	public Set<String> scanner(String packageName, ScanFilter filter) throws IOException {
 		Set<String> classSet = new HashSet<String>();
+		scanner(packageName, filter, ScanSink.of(classSet));
+		return classSet;
+	}
+
+	/**
+	 * 在扫描过程中回调，不保存扫描结果；扫描jar文件时，单个jar文件中的结果在读取该jar文件的条目后再回调。
+	 * 回调不会被并发调用，但并行扫描时可能在不同的线程中调用；回调返回false后不再回调，并尽快结束扫描；
+	 * 同名的类存在于多个类路径条目中时会回调多次
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如回调为null，则抛出该异常
+	 */
+	@Override
+	public void scan(String packageName, ScanFilter filter, ScanVisitor<String> visitor) throws IOException {
+		if (visitor == null) {
+			throw new NullPointerException("visitor parameter is null!");
+		}
+		scanner(packageName, filter, new ScanSink(visitor));
+	}
+
+	/**
+	 * 监听指定包对应的目录中class文件的变化，jar文件中的class不会被监听
+	 * <p>
+	 * 启动时扫描一次所有目录，之后只检查变化的文件，按批次通知新增、删除或修改的类；
+	 * 可通过{@link ClassDirectoryWatcher#getClassNames()}获取当前所有的类名称
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称，为空时监听类路径中的所有目录
+	 * @param filter
+	 *            过滤条件，为null时不过滤；不判断标记注解
+	 * @param listener
+	 *            变化监听器
+	 * @return 已启动的监听器，不再使用时需关闭
+	 * @throws IOException
+	 *             假如解析包名或注册目录失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如监听器为null，则抛出该异常
+	 */
+	public ClassDirectoryWatcher watch(String packageName, ScanFilter filter, ClassChangeListener listener)
+			throws IOException {
 		packageName = XLPStringUtil.emptyTrim(packageName);
+		Map<Path, String> roots = new LinkedHashMap<Path, String>();
+		if (XLPStringUtil.isEmpty(packageName)) {
+			for (String cp : XLPSystemParamUtil.getJavaClassPath().split(XLPSystemParamUtil.getPathSeparator())) {
+				File file = new File(cp);
+				if (file.isDirectory()) {
+					roots.put(file.getAbsoluteFile().toPath(), XLPStringUtil.EMPTY);
+				}
+			}
+		} else {
+			String packagePath = StringUtils.dotToSplash(packageName);
+			Enumeration<URL> resourceUrls = (classLoader != null ? classLoader.getResources(packagePath)
+					: ClassLoader.getSystemResources(packagePath));
+			while (resourceUrls.hasMoreElements()) {
+				URL packageUrl = resourceUrls.nextElement();
+				if (URLUtils.isFileProtocol(packageUrl)) {
+					roots.put(URLUtils.getFile(packageUrl).getAbsoluteFile().toPath(), packageName);
+				} else if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("不是目录，不监听：" + packageUrl);
+				}
+			}
+		}
+		ClassDirectoryWatcher watcher = new ClassDirectoryWatcher(roots, filter, listener);
+		watcher.start();
+		return watcher;
+	}
+
+	/**
+	 * 扫描指定包下的class文件，交给给定的接收者，接收者停止后不再继续扫描
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param sink
+	 *            扫描结果接收者
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 */
+	private void scanner(String packageName, ScanFilter filter, ScanSink sink) throws IOException {
+		packageName = XLPStringUtil.emptyTrim(packageName);
+		filter = filter == null ? ScanFilter.ACCEPT_ALL : filter;
 		
 		//假如传过来的包名为空，则扫描类路径下的所有类
 		if (XLPStringUtil.isEmpty(packageName)) { 
 			String classPath = XLPSystemParamUtil.getJavaClassPath();
 			//获取所有的类路径，包括jar文件
 			String[] classPaths = classPath.split(XLPSystemParamUtil.getPathSeparator());
-			File tempFile;
-			for (String cp : classPaths) {
-				tempFile = new File(cp);
-				//判断是否是jar文件
-				if (tempFile.isFile() && cp.endsWith(ScannerPkgConsts.JAR_FILE_EXT)) {
-					classSet.addAll(findByJarFile(new JarFile(tempFile)));
-				} else if (tempFile.isDirectory()) {
-					//获取所有的子文件或文件夹
-					File[] childrenFile = tempFile.listFiles();
-					if (childrenFile != null) {
-						for (File childFile : childrenFile) {
-							// 以文件的方式扫描整个包下的文件 并添加到集合中
-							findClassesInPackageByFile(XLPStringUtil.EMPTY, childFile.getAbsolutePath(), classSet);
-						}
-					}
-				}
+			findClassesInClassPaths(classPaths, sink, filter);
+		} else if (filter.skipsPackageTree(packageName, 0, packageName.length(), '.')) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("包" + packageName + "被过滤条件排除，不扫描");
 			}
 		} else {
 			//扫描自定包下的所有类
@@ -100,7 +263,7 @@ public class ClassPathPkgScanner implements ScannerPkg {
 			Enumeration<URL> resourceUrls = (classLoader != null ? classLoader.getResources(packagePath)
 					: ClassLoader.getSystemResources(packagePath));
 			boolean isDebug = LOGGER.isDebugEnabled();
-			while (resourceUrls.hasMoreElements()) {
+			while (resourceUrls.hasMoreElements() && !sink.isStopped()) {
 				URL packageUrl = (URL) resourceUrls.nextElement();
 				if (isDebug) {
 					LOGGER.debug("开始扫描：" + packageUrl + "中的class文件"); 
@@ -113,17 +276,496 @@ public class ClassPathPkgScanner implements ScannerPkg {
 					// 获取包的物理路径
 					String filePath = file.getAbsolutePath();
 					// 以文件的方式扫描整个包下的文件 并添加到集合中
-					findClassesInPackageByFile(packageName, filePath, classSet);
+					findClassesInPackageByFile(packageName, filePath, sink, filter);
 				} else if (URLUtils.isJarProtocol(packageUrl)) { 
-					findClassesInJarFile(packageName, packageUrl, classSet); 
+					findClassesInJarFile(packageName, packageUrl, sink, filter); 
+				}
+			}
+			// 嵌套的jar文件不在类加载器的资源中，从类路径中的jar文件里查找
+			if (scanNestedJars) {
+				for (String cp : XLPSystemParamUtil.getJavaClassPath().split(XLPSystemParamUtil.getPathSeparator())) {
+					if (sink.isStopped()) {
+						break;
+					}
+					File file = new File(cp);
+					if (file.isFile() && cp.endsWith(ScannerPkgConsts.JAR_FILE_EXT)) {
+						addNestedClassNames(file, packageName, sink, filter);
+					}
 				}
 			}
 		}
-		return classSet;
+		saveScanResultCache();
+	}
+
+	/**
+	 * 并发扫描所有类路径条目（jar文件或目录），各条目的扫描结果直接交给接收者，不在内存中合并
+	 * 
+	 * @param classPaths
+	 *            类路径条目
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 * @throws IOException
+	 *             假如读取jar文件失败，则抛出该异常
+	 */
+	private void findClassesInClassPaths(String[] classPaths, ScanSink sink, ScanFilter filter)
+			throws IOException {
+		long startTime = System.nanoTime();
+		Map<String, Long> scanTimes = new LinkedHashMap<String, Long>();
+		int threads = Math.min(classPathScanThreads, classPaths.length);
+		if (threads <= 1) {
+			for (String cp : classPaths) {
+				if (sink.isStopped()) {
+					break;
+				}
+				long entryStartTime = System.nanoTime();
+				findClassesInClassPath(cp, sink, filter);
+				scanTimes.put(cp, System.nanoTime() - entryStartTime);
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				private final AtomicInteger index = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "xlp-classpath-scanner-" + index.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			try {
+				List<Future<Void>> futures = new ArrayList<Future<Void>>(classPaths.length);
+				final long[] entryTimes = new long[classPaths.length];
+				for (int i = 0; i < classPaths.length; i++) {
+					final String cp = classPaths[i];
+					final int index = i;
+					futures.add(executor.submit(() -> {
+						if (sink.isStopped()) {
+							return null;
+						}
+						long entryStartTime = System.nanoTime();
+						try {
+							findClassesInClassPath(cp, sink, filter);
+							return null;
+						} finally {
+							entryTimes[index] = System.nanoTime() - entryStartTime;
+						}
+					}));
+				}
+				for (int i = 0; i < classPaths.length; i++) {
+					getScanResult(futures.get(i));
+					scanTimes.put(classPaths[i], entryTimes[i]);
+				}
+			} finally {
+				// 异常结束时仍在运行的任务不再回调
+				sink.stop();
+				executor.shutdownNow();
+			}
+		}
+		this.classPathScanTimes = Collections.unmodifiableMap(scanTimes);
+		logClassPathScanTimes(scanTimes, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * 等待并发扫描任务完成
+	 * 
+	 * @throws IOException
+	 *             假如扫描任务抛出该异常或被中断，则抛出该异常
+	 */
+	private static void getScanResult(Future<Void> future) throws IOException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("扫描类路径被中断");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * 扫描单个类路径条目下的所有class
+	 * 
+	 * @param cp
+	 *            类路径条目（jar文件或目录）
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 * @throws IOException
+	 *             假如读取jar文件失败，则抛出该异常
+	 */
+	private void findClassesInClassPath(String cp, ScanSink sink, ScanFilter filter) throws IOException {
+		File tempFile = new File(cp);
+		//判断是否是jar文件
+		if (tempFile.isFile() && cp.endsWith(ScannerPkgConsts.JAR_FILE_EXT)) {
+			ScanResultCache cache = scanResultCache;
+			if (cache != null) {
+				addClassNames(getClassPathsInJarFile(cache, tempFile), XLPStringUtil.EMPTY, sink, filter);
+			} else {
+				List<String> classNames = readJarCentralDirectory(tempFile, XLPStringUtil.EMPTY, false, filter);
+				if (classNames != null) {
+					sink.acceptAll(classNames);
+				} else {
+					try (JarFile jarFile = new JarFile(tempFile)) {
+						addClassNames(findClassPathsInJarFile(XLPStringUtil.EMPTY, jarFile, filter),
+								XLPStringUtil.EMPTY, sink, ScanFilter.ACCEPT_ALL);
+					}
+				}
+			}
+			addNestedClassNames(tempFile, XLPStringUtil.EMPTY, sink, filter);
+		} else if (tempFile.isDirectory()) {
+			// 以文件的方式扫描整个目录，目录本身对应默认包
+			findClassesInPackageByFile(XLPStringUtil.EMPTY, tempFile.getAbsolutePath(), sink, filter);
+		}
+	}
+
+	/**
+	 * 记录各类路径条目的扫描耗时，debug级别输出每个条目，info级别输出总耗时及最慢的条目
+	 */
+	private void logClassPathScanTimes(Map<String, Long> scanTimes, long totalTime) {
+		if (LOGGER.isDebugEnabled()) {
+			for (Map.Entry<String, Long> entry : scanTimes.entrySet()) {
+				LOGGER.debug("扫描类路径【" + entry.getKey() + "】耗时" + toMillis(entry.getValue()) + "ms");
+			}
+		}
+		if (LOGGER.isInfoEnabled()) {
+			List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(scanTimes.entrySet());
+			Collections.sort(entries, (o1, o2) -> Long.compare(o2.getValue(), o1.getValue()));
+			StringBuilder message = new StringBuilder("扫描").append(scanTimes.size()).append("个类路径条目耗时")
+					.append(toMillis(totalTime)).append("ms");
+			for (int i = 0; i < Math.min(SLOWEST_ENTRY_LOG_COUNT, entries.size()); i++) {
+				message.append(i == 0 ? "，最慢的条目：" : "，").append(entries.get(i).getKey()).append('(')
+						.append(toMillis(entries.get(i).getValue())).append("ms)");
+			}
+			LOGGER.info(message.toString());
+		}
+	}
+
+	private static String toMillis(long nanos) {
+		return String.format("%.2f", nanos / 1_000_000.0);
+	}
+
+	/**
+	 * 设置扫描整个类路径时并发扫描各条目的线程数
+	 * 
+	 * @param classPathScanThreads
+	 *            线程数，为1时在当前线程中依次扫描
+	 * @throws IllegalArgumentException
+	 *             假如参数小于1，则抛出该异常
+	 */
+	public void setClassPathScanThreads(int classPathScanThreads) {
+		if (classPathScanThreads < 1) {
+			throw new IllegalArgumentException("classPathScanThreads parameter must be greater than 0!");
+		}
+		this.classPathScanThreads = classPathScanThreads;
+	}
+
+	/**
+	 * 获取扫描整个类路径时并发扫描各条目的线程数
+	 * 
+	 * @return 线程数
+	 */
+	public int getClassPathScanThreads() {
+		return classPathScanThreads;
+	}
+
+	/**
+	 * 获取最近一次扫描整个类路径时各条目的扫描耗时
+	 * 
+	 * @return key: 类路径条目，value: 耗时（纳秒），按类路径顺序排列；没有扫描过整个类路径时返回空集合
+	 */
+	public Map<String, Long> getClassPathScanTimes() {
+		return classPathScanTimes;
+	}
+
+	/**
+	 * 设置jar文件扫描结果的磁盘缓存
+	 * <p>
+	 * 设置后，jar文件的大小和最后修改时间没有变化时直接使用缓存中的class条目，不再遍历jar文件；
+	 * 每次扫描结束后保存有变化的缓存。目录不缓存，每次都重新扫描
+	 * </p>
+	 * 
+	 * @param scanResultCache
+	 *            缓存，为null时不使用缓存
+	 */
+	public void setScanResultCache(ScanResultCache scanResultCache) {
+		this.scanResultCache = scanResultCache;
+	}
+
+	/**
+	 * 获取jar文件扫描结果的磁盘缓存
+	 * 
+	 * @return 没有设置返回null
+	 */
+	public ScanResultCache getScanResultCache() {
+		return scanResultCache;
+	}
+
+	/**
+	 * 通过缓存获取jar文件中所有class条目路径，没有缓存或jar文件已变化时重新遍历jar文件并缓存
+	 * 
+	 * @param cache
+	 *            扫描缓存
+	 * @param file
+	 *            jar文件
+	 * @return class条目路径（xx/xx/Yy，不包含.class后缀及内部类）
+	 * @throws IOException
+	 *             假如打开jar文件失败，则抛出该异常
+	 */
+	private List<String> getClassPathsInJarFile(ScanResultCache cache, File file) throws IOException {
+		List<String> classPaths = cache.get(file);
+		if (classPaths == null) {
+			classPaths = readJarCentralDirectory(file, XLPStringUtil.EMPTY, true, ScanFilter.ACCEPT_ALL);
+			if (classPaths == null) {
+				try (JarFile jarFile = new JarFile(file)) {
+					classPaths = findClassPathsInJarFile(XLPStringUtil.EMPTY, jarFile, ScanFilter.ACCEPT_ALL);
+				}
+			}
+			cache.put(file, classPaths);
+		}
+		return classPaths;
+	}
+
+	/**
+	 * 设置是否直接读取jar文件的中央目录获取class条目
+	 * <p>
+	 * 设置为true时，使用{@link JarCentralDirectory}内存映射jar文件的中央目录，在条目名称的原始字节上匹配，
+	 * 只为匹配的class条目创建字符串；读取失败时仍使用{@link JarFile#entries()}
+	 * </p>
+	 * 
+	 * @param readJarCentralDirectory
+	 *            是否直接读取中央目录
+	 */
+	public void setReadJarCentralDirectory(boolean readJarCentralDirectory) {
+		this.readJarCentralDirectory = readJarCentralDirectory;
+	}
+
+	/**
+	 * 是否直接读取jar文件的中央目录获取class条目
+	 * 
+	 * @return true：是，false：否
+	 */
+	public boolean isReadJarCentralDirectory() {
+		return readJarCentralDirectory;
+	}
+
+	/**
+	 * 设置是否扫描类路径中jar文件里嵌套的jar文件（如Spring Boot可执行jar中BOOT-INF/lib下的依赖）
+	 * <p>
+	 * 设置为true时，扫描类路径中的jar文件时同时扫描其中{@link #setNestedJarDirectories(String...)}目录下的jar文件，
+	 * 直接读取外层jar文件，不解压到磁盘；包名不为空时，也扫描类路径中各jar文件里嵌套的jar文件。
+	 * 嵌套的jar文件的扫描结果不使用扫描缓存
+	 * </p>
+	 * 
+	 * @param scanNestedJars
+	 *            是否扫描嵌套的jar文件
+	 */
+	public void setScanNestedJars(boolean scanNestedJars) {
+		this.scanNestedJars = scanNestedJars;
+	}
+
+	/**
+	 * 是否扫描类路径中jar文件里嵌套的jar文件
+	 * 
+	 * @return true：是，false：否
+	 */
+	public boolean isScanNestedJars() {
+		return scanNestedJars;
+	}
+
+	/**
+	 * 设置嵌套的jar文件所在目录，只扫描这些目录下（不包括子目录）的jar文件，
+	 * 默认为BOOT-INF/lib/、WEB-INF/lib/及lib/
+	 * 
+	 * @param nestedJarDirectories
+	 *            目录（xx/xx/）
+	 * @throws NullPointerException
+	 *             假如参数为null，则抛出该异常
+	 */
+	public void setNestedJarDirectories(String... nestedJarDirectories) {
+		if (nestedJarDirectories == null) {
+			throw new NullPointerException("nestedJarDirectories parameter is null!");
+		}
+		List<String> directories = new ArrayList<String>(nestedJarDirectories.length);
+		for (String directory : nestedJarDirectories) {
+			directory = StringUtils.dotToSplash(directory.trim());
+			directories.add(directory.isEmpty() || directory.endsWith("/") ? directory : directory + "/");
+		}
+		this.nestedJarDirectories = Collections.unmodifiableList(directories);
+	}
+
+	/**
+	 * 获取嵌套的jar文件所在目录
+	 * 
+	 * @return 只读集合
+	 */
+	public List<String> getNestedJarDirectories() {
+		return nestedJarDirectories;
+	}
+
+	/**
+	 * 获取jar文件中嵌套的jar文件（{@link #getNestedJarDirectories()}目录下）里满足过滤条件的class名称，
+	 * 不包括外层jar文件本身的class；不解压到磁盘
+	 * 
+	 * @param packageName
+	 *            包名前缀xx.xx
+	 * @param jarFile
+	 *            外层jar文件
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @return class名称集合
+	 * @throws IOException
+	 *             假如读取失败、外层或嵌套的jar文件无效，则抛出该异常
+	 */
+	public Set<String> findByNestedJars(String packageName, File jarFile, ScanFilter filter) throws IOException {
+		List<String> directories = nestedJarDirectories;
+		return new HashSet<String>(JarCentralDirectory.findNestedClassNames(jarFile, name -> {
+			for (String directory : directories) {
+				if (name.startsWith(directory) && name.indexOf('/', directory.length()) < 0) {
+					return true;
+				}
+			}
+			return false;
+		}, XLPStringUtil.emptyTrim(packageName), filter));
+	}
+
+	/**
+	 * 开启了扫描嵌套的jar文件时，添加jar文件中嵌套的jar文件里的class名称
+	 * 
+	 * @param file
+	 *            外层jar文件
+	 * @param packageName
+	 *            包名称
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 */
+	private void addNestedClassNames(File file, String packageName, ScanSink sink, ScanFilter filter) {
+		if (!scanNestedJars || sink.isStopped()) {
+			return;
+		}
+		try {
+			sink.acceptAll(findByNestedJars(packageName, file, filter));
+		} catch (IOException e) {
+			LOGGER.warn("读取【" + file + "】中嵌套的jar文件失败", e);
+		}
+	}
+
+	/**
+	 * 直接读取jar文件的中央目录获取class条目
+	 * 
+	 * @param file
+	 *            jar文件
+	 * @param packageName
+	 *            包名称
+	 * @param classPath
+	 *            true：返回class条目路径（xx/xx/Yy），false：返回class名称（xx.xx.Yy）
+	 * @param filter
+	 *            过滤条件
+	 * @return 没有开启或读取失败时返回null
+	 */
+	private List<String> readJarCentralDirectory(File file, String packageName, boolean classPath,
+			ScanFilter filter) {
+		if (!readJarCentralDirectory) {
+			return null;
+		}
+		try {
+			return classPath ? JarCentralDirectory.findClassPaths(file, packageName, filter)
+					: JarCentralDirectory.findClassNames(file, packageName, filter);
+		} catch (IOException e) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("读取jar文件【" + file + "】的中央目录失败，遍历jar文件条目", e);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * 保存有变化的扫描缓存，保存失败不影响扫描结果
+	 */
+	private void saveScanResultCache() {
+		ScanResultCache cache = scanResultCache;
+		if (cache != null) {
+			try {
+				cache.save();
+			} catch (IOException e) {
+				LOGGER.warn("保存扫描缓存【" + cache.getCacheFile() + "】失败", e);
+			}
+		}
+	}
+
+	/**
+	 * 把指定包下的class条目路径转换成class名称交给接收者
+	 * 
+	 * @param classPaths
+	 *            class条目路径（xx/xx/Yy）
+	 * @param packageName
+	 *            包名称
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 */
+	private static void addClassNames(List<String> classPaths, String packageName, ScanSink sink,
+			ScanFilter filter) {
+		String packageBasePath = toPackageBasePath(packageName);
+		for (String classPath : classPaths) {
+			if (classPath.startsWith(packageBasePath)
+					&& filter.acceptsClass(classPath, 0, classPath.length(), '/')
+					&& !sink.accept(StringUtils.splashToDot(classPath))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 包名称转换成jar条目路径前缀
+	 * 
+	 * @param packageName
+	 *            包名称（xx.xx）
+	 * @return 以“/”结束的路径前缀，包名称为空时返回空字符串
+	 */
+	private static String toPackageBasePath(String packageName) {
+		String packageBasePath = StringUtils.dotToSplash(XLPStringUtil.emptyTrim(packageName));
+		if (!"".equals(packageBasePath) && !packageBasePath.endsWith("/")) {
+			// 根条目路径必须以斜杠结束，以允许正确的匹配。匹配sunjre在这里不返回斜杠，但是beajrockit返回。
+			packageBasePath = packageBasePath + "/";
+		}
+		return packageBasePath;
+	}
+
+	/**
+	 * 扫描jar文件中的class
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param packageUrl
+	 *            jar的url
+	 * @param classSet
+	 *            class全路径集合
+	 * @throws IOException 假如解析出现io异常时，则抛出该异常
+	 * @see java.net.JarURLConnection
+	 */
+	protected void findClassesInJarFile(String packageName, URL packageUrl, 
+			Set<String> classSet) throws IOException {
+		findClassesInJarFile(packageName, packageUrl, classSet, ScanFilter.ACCEPT_ALL);
 	}
 
 	/**
-	 * 扫描jar文件中的class
+	 * 扫描jar文件中满足过滤条件的class
 	 * 
 	 * @param packageName
 	 *            包名称
@@ -131,11 +773,45 @@ public class ClassPathPkgScanner implements ScannerPkg {
 	 *            jar的url
 	 * @param classSet
 	 *            class全路径集合
+	 * @param filter
+	 *            过滤条件
 	 * @throws IOException 假如解析出现io异常时，则抛出该异常
-	 * @see java.net.JarURLConnection
 	 */
 	protected void findClassesInJarFile(String packageName, URL packageUrl, 
-			Set<String> classSet) throws IOException {
+			Set<String> classSet, ScanFilter filter) throws IOException {
+		findClassesInJarFile(packageName, packageUrl, ScanSink.of(classSet), filter);
+	}
+
+	/**
+	 * 扫描jar文件中满足过滤条件的class，交给扫描结果接收者
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param packageUrl
+	 *            jar的url
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 * @throws IOException 假如解析出现io异常时，则抛出该异常
+	 */
+	private void findClassesInJarFile(String packageName, URL packageUrl, 
+			ScanSink sink, ScanFilter filter) throws IOException {
+		// 嵌套的jar文件：jar:file:/xx.jar!/BOOT-INF/lib/yy.jar!/package，直接读取外层jar文件
+		String packageUrlFile = packageUrl.getFile();
+		int jarSeparatorIndex = packageUrlFile.indexOf(ScannerPkgConsts.JAR_URL_SEPARATOR);
+		int nestedStart = jarSeparatorIndex + ScannerPkgConsts.JAR_URL_SEPARATOR.length();
+		int nestedSeparatorIndex = jarSeparatorIndex < 0 ? -1
+				: packageUrlFile.indexOf(ScannerPkgConsts.JAR_URL_SEPARATOR, nestedStart);
+		if (nestedSeparatorIndex > 0) {
+			String nestedJarName = packageUrlFile.substring(nestedStart, nestedSeparatorIndex);
+			if (nestedJarName.endsWith(ScannerPkgConsts.JAR_FILE_EXT)) {
+				findClassesInNestedJar(packageName, packageUrlFile.substring(0, jarSeparatorIndex), nestedJarName,
+						sink, filter);
+				return;
+			}
+		}
+
 		URLConnection con = packageUrl.openConnection();
 		JarFile jarFile = null; 
 		String jarFileUrl = ""; 
@@ -178,7 +854,20 @@ public class ClassPathPkgScanner implements ScannerPkg {
 				LOGGER.debug("在jar文件中查找匹配的资源 [" + jarFileUrl + "]");
 			}
 			
-			classSet.addAll(findByJarFile(packageName, jarFile));
+			ScanResultCache cache = scanResultCache;
+			if (cache == null) {
+				addClassNames(findClassPathsInJarFile(packageName, jarFile, filter), packageName, sink,
+						ScanFilter.ACCEPT_ALL);
+				return;
+			}
+			// 使用缓存时记录整个jar文件的class条目，其他包的扫描也可使用
+			File file = new File(jarFile.getName());
+			List<String> classPaths = cache.get(file);
+			if (classPaths == null) {
+				classPaths = findClassPathsInJarFile(XLPStringUtil.EMPTY, jarFile, ScanFilter.ACCEPT_ALL);
+				cache.put(file, classPaths);
+			}
+			addClassNames(classPaths, packageName, sink, filter);
 		} finally {
 			if (closeJarFile && jarFile != null) {
 				jarFile.close();
@@ -204,30 +893,63 @@ public class ClassPathPkgScanner implements ScannerPkg {
 	 * @return class名称集合， 假如参数为null，返回大小为0的集合
 	 */
 	public Set<String> findByJarFile(String packageName, JarFile jarFile) {
+		return findByJarFile(packageName, jarFile, ScanFilter.ACCEPT_ALL);
+	}
+
+	/**
+	 * 获取指定jar文件中满足过滤条件的class名称（包名+类名称） xx.xx.yy
+	 * 
+	 * @param packageName 包名前缀xx.xx
+	 * @param jarFile jar文件
+	 * @param filter 过滤条件，为null时不过滤
+	 * @return class名称集合， 假如参数为null，返回大小为0的集合
+	 */
+	public Set<String> findByJarFile(String packageName, JarFile jarFile, ScanFilter filter) {
 		Set<String> classSet = new HashSet<>();
 		if (jarFile == null) {
 			return classSet;
 		}
-		packageName = XLPStringUtil.emptyTrim(packageName);
-		String packageBasePath = StringUtils.dotToSplash(packageName);
-		if (!"".equals(packageBasePath) && !packageBasePath.endsWith("/")) {
-			// 根条目路径必须以斜杠结束，以允许正确的匹配。匹配sunjre在这里不返回斜杠，但是beajrockit返回。
-			packageBasePath = packageBasePath + "/";
+		filter = filter == null ? ScanFilter.ACCEPT_ALL : filter;
+		List<String> classNames = readJarCentralDirectory(new File(jarFile.getName()), packageName, false, filter);
+		if (classNames != null) {
+			classSet.addAll(classNames);
+			return classSet;
+		}
+		for (String classPath : findClassPathsInJarFile(packageName, jarFile, filter)) {
+			classSet.add(StringUtils.splashToDot(classPath));
+		}
+		return classSet;
+	}
+
+	/**
+	 * 获取指定jar文件中指定包下所有class条目路径
+	 * 
+	 * @param packageName 包名前缀xx.xx
+	 * @param jarFile jar文件
+	 * @param filter 过滤条件
+	 * @return class条目路径（xx/xx/Yy，不包含.class后缀及内部类）
+	 */
+	private List<String> findClassPathsInJarFile(String packageName, JarFile jarFile, ScanFilter filter) {
+		List<String> classPaths = readJarCentralDirectory(new File(jarFile.getName()), packageName, true, filter);
+		if (classPaths != null) {
+			return classPaths;
 		}
+		String packageBasePath = toPackageBasePath(packageName);
+		classPaths = new ArrayList<String>();
 		for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
 			JarEntry entry = entries.nextElement();
 			String entryPath = entry.getName();
 			if (entryPath.startsWith(packageBasePath) && entryPath.endsWith(ScannerPkgConsts.CLASS_FILE_EXT)) { 
 				int index = entryPath.indexOf(ScannerPkgConsts.CLASS_FILE_EXT);
-				String relativePath = entryPath.substring(0, index);
-				//排除内部类
-				if (relativePath.contains(ScannerPkgConsts.INNER_CLASS_FLAG)) {
+				//排除内部类及不满足过滤条件的类
+				if (entryPath.lastIndexOf(ScannerPkgConsts.INNER_CLASS_FLAG, index) >= 0
+						|| !filter.acceptsClass(entryPath, 0, index, '/')) {
 					continue;
 				}
-				classSet.add(StringUtils.splashToDot(relativePath));
+				classPaths.add(entryPath.substring(0, index));
 			}
 		}
-		return classSet;
+		return classPaths;
 	}
 
 	/**
@@ -236,19 +958,90 @@ public class ClassPathPkgScanner implements ScannerPkg {
 	 * @param jarFileUrl
 	 */
 	protected JarFile getJarFile(String jarFileUrl) throws IOException {
+		return new JarFile(getJarFilePath(jarFileUrl));
+	}
+
+	/**
+	 * 解析jar文件路径
+	 * 
+	 * @param jarFileUrl
+	 *            jar文件的url
+	 * @return jar文件路径
+	 */
+	private static String getJarFilePath(String jarFileUrl) {
 		if (jarFileUrl.startsWith(ScannerPkgConsts.FILE_URL_PREFIX)) {
 			try {
-				return new JarFile(URLUtils.toURI(jarFileUrl).getSchemeSpecificPart());
+				return URLUtils.toURI(jarFileUrl).getSchemeSpecificPart();
 			} catch (URISyntaxException ex) {
-				return new JarFile(jarFileUrl.substring(ScannerPkgConsts.FILE_URL_PREFIX.length()));
+				return jarFileUrl.substring(ScannerPkgConsts.FILE_URL_PREFIX.length());
+			}
+		}
+		return jarFileUrl;
+	}
+
+	/**
+	 * 扫描嵌套的jar文件中的class，直接读取外层jar文件，不解压到磁盘
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param jarFileUrl
+	 *            外层jar文件的url
+	 * @param nestedJarName
+	 *            嵌套的jar文件在外层jar文件中的条目名称
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 */
+	private void findClassesInNestedJar(String packageName, String jarFileUrl, String nestedJarName,
+			ScanSink sink, ScanFilter filter) {
+		File file = new File(getJarFilePath(jarFileUrl));
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("在嵌套的jar文件中查找匹配的资源 [" + file + "!/" + nestedJarName + "]");
+		}
+		try {
+			sink.acceptAll(JarCentralDirectory.findNestedClassNames(file, nestedJarName::equals, packageName,
+					filter));
+		} catch (IOException e) {
+			if (LOGGER.isWarnEnabled()) {
+				LOGGER.warn("跳过无效jar classpath条目 [" + file + "!/" + nestedJarName + "]", e);
 			}
-		} else {
-			return new JarFile(jarFileUrl);
 		}
 	}
 	
+	/**
+	 * 设置扫描目录时的并行度
+	 * <p>
+	 * 大于1时，{@link #findClassesInPackageByFile(String, String, Set)}把各子目录拆分成任务，
+	 * 在该并行度的{@link ForkJoinPool}中并发扫描，扫描结果与并行度为1时相同
+	 * </p>
+	 * 
+	 * @param parallelism
+	 *            并行度
+	 * @throws IllegalArgumentException
+	 *             假如参数小于1，则抛出该异常
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism parameter must be greater than 0!");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * 获取扫描目录时的并行度
+	 * 
+	 * @return 并行度
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
 	/**
 	 * 以文件的方式扫描整个包下的文件 并添加到集合中
+	 * <p>
+	 * 使用{@link DirectoryStream}遍历目录，每个条目只读取一次文件属性；并行度大于1时各子目录并发扫描
+	 * </p>
 	 * 
 	 * @param packageName
 	 *            包名称
@@ -256,9 +1049,44 @@ public class ClassPathPkgScanner implements ScannerPkg {
 	 *            包的物理路径
 	 * @param classSet
 	 *            class全路径集合
+	 * @see #setParallelism(int)
 	 */
 	protected void findClassesInPackageByFile(String packageName, String packagePath, 
 			Set<String> classSet) {
+		findClassesInPackageByFile(packageName, packagePath, classSet, ScanFilter.ACCEPT_ALL);
+	}
+
+	/**
+	 * 以文件的方式扫描整个包下满足过滤条件的文件 并添加到集合中，被排除的子包对应的目录不会被遍历
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param packagePath
+	 *            包的物理路径
+	 * @param classSet
+	 *            class全路径集合
+	 * @param filter
+	 *            过滤条件
+	 */
+	protected void findClassesInPackageByFile(String packageName, String packagePath, 
+			Set<String> classSet, ScanFilter filter) {
+		findClassesInPackageByFile(packageName, packagePath, ScanSink.of(classSet), filter);
+	}
+
+	/**
+	 * 以文件的方式扫描整个包下满足过滤条件的文件 并交给扫描结果接收者，被排除的子包对应的目录不会被遍历
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param packagePath
+	 *            包的物理路径
+	 * @param sink
+	 *            扫描结果接收者
+	 * @param filter
+	 *            过滤条件
+	 */
+	private void findClassesInPackageByFile(String packageName, String packagePath, 
+			ScanSink sink, ScanFilter filter) {
 		// 获取此包的目录 建立一个File
 		File dir = new File(packagePath);
 		// 如果不存在或者 也不是目录就直接返回
@@ -270,36 +1098,120 @@ public class ClassPathPkgScanner implements ScannerPkg {
 			LOGGER.warn("用户定义包名: 【" + packageName + "】不是目录！");
 			return;
 		}
-		// 如果存在 就获取包下的所有文件 包括目录
-		File[] dirfiles = dir.listFiles(new FileFilter() {
-			// 自定义过滤规则 如果可以循环(包含子目录) 或则是以.class结尾的文件(编译好的java类文件)，去除内部类
-			public boolean accept(File file) {
-				String name = file.getName();
-				return (file.isDirectory()) || ((name.endsWith(ScannerPkgConsts.CLASS_FILE_EXT)
-						&& !name.contains(ScannerPkgConsts.INNER_CLASS_FLAG)));
-			}
-		});
-		
-		if (dirfiles == null) {
+		int parallelism = this.parallelism;
+		if (parallelism <= 1) {
+			findClassesInDirectory(packageName, dir.toPath(), sink, filter, null);
 			return;
 		}
-		
-		// 循环所有文件
-		for (File file : dirfiles) {
-			String name = file.getName();
-			// 如果是目录 则继续扫描
-			if (file.isDirectory()) {
-				findClassesInPackageByFile(packageName + "." + name, file.getAbsolutePath(), classSet);
-			} else {
-				String filename = file.getName();
-				// 如果是java类文件 去掉后面的.class 只留下类名
-				String className = filename.substring(0, filename.length() - ScannerPkgConsts.CLASS_FILE_EXT.length());
-				className = packageName + "." + className;
-				//去掉前缀“.”
-				if (className.startsWith(".")) {
-					className = className.substring(1);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new DirectoryScanTask(packageName, dir.toPath(), sink, filter));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 扫描目录下的class文件（不包括内部类），子目录作为子包继续扫描
+	 * 
+	 * @param packageName
+	 *            目录对应的包名称
+	 * @param dir
+	 *            目录
+	 * @param sink
+	 *            扫描结果接收者，停止后不再继续遍历
+	 * @param filter
+	 *            过滤条件
+	 * @param subtasks
+	 *            为null时在当前线程中扫描子目录，否则为每个子目录创建并启动扫描任务，添加到该集合中
+	 */
+	private void findClassesInDirectory(String packageName, Path dir, ScanSink sink, ScanFilter filter,
+			List<DirectoryScanTask> subtasks) {
+		// 去掉前缀“.”
+		if (packageName.startsWith(".")) {
+			packageName = packageName.substring(1);
+		}
+		boolean packageAccepted = filter.acceptsPackage(packageName, 0, packageName.length(), '.');
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+			for (Path path : stream) {
+				if (sink.isStopped()) {
+					return;
 				}
-				classSet.add(className);
+				String name = path.getFileName().toString();
+				// 如果是目录 则继续扫描
+				if (isDirectory(path)) {
+					String subPackageName = packageName.isEmpty() ? name : packageName + "." + name;
+					// 被排除的子包不再遍历
+					if (filter.skipsPackageTree(subPackageName, 0, subPackageName.length(), '.')) {
+						continue;
+					}
+					if (subtasks == null) {
+						findClassesInDirectory(subPackageName, path, sink, filter, null);
+					} else {
+						DirectoryScanTask task = new DirectoryScanTask(subPackageName, path, sink, filter);
+						task.fork();
+						subtasks.add(task);
+					}
+				} else if (packageAccepted && name.endsWith(ScannerPkgConsts.CLASS_FILE_EXT)
+						&& !name.contains(ScannerPkgConsts.INNER_CLASS_FLAG)) {
+					// 如果是java类文件 去掉后面的.class 只留下类名
+					int simpleNameLength = name.length() - ScannerPkgConsts.CLASS_FILE_EXT.length();
+					if (!filter.acceptsSimpleName(name, 0, simpleNameLength)) {
+						continue;
+					}
+					String simpleName = name.substring(0, simpleNameLength);
+					sink.accept(packageName.isEmpty() ? simpleName : packageName + "." + simpleName);
+				}
+			}
+		} catch (IOException e) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("读取目录【" + dir + "】失败", e);
+			}
+		}
+	}
+
+	/**
+	 * 判断是否是目录（跟随符号链接），读取属性失败时视为文件
+	 * 
+	 * @param path
+	 *            文件路径
+	 * @return true：是，false：否
+	 */
+	private static boolean isDirectory(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class).isDirectory();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 并发扫描目录的任务
+	 */
+	private class DirectoryScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final String packageName;
+
+		private final Path dir;
+
+		private final ScanSink sink;
+
+		private final ScanFilter filter;
+
+		DirectoryScanTask(String packageName, Path dir, ScanSink sink, ScanFilter filter) {
+			this.packageName = packageName;
+			this.dir = dir;
+			this.sink = sink;
+			this.filter = filter;
+		}
+
+		@Override
+		protected void compute() {
+			List<DirectoryScanTask> subtasks = new ArrayList<DirectoryScanTask>();
+			findClassesInDirectory(packageName, dir, sink, filter, subtasks);
+			for (DirectoryScanTask task : subtasks) {
+				task.join();
 			}
 		}
 	}
@@ -327,4 +1239,285 @@ public class ClassPathPkgScanner implements ScannerPkg {
 		}
 		return classes;
 	}
+
+	/**
+	 * 包名称及后缀条件在扫描时判断；设置了标记注解时，先从class文件字节中读取类上的注解，只加载被标记的类
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 */
+	@Override
+	public Set<Class<?>> scannerToClass(String packageName, ScanFilter filter) throws IOException {
+		return loadClasses(scanner(packageName, filter), filter);
+	}
+
+	/**
+	 * 加载类，设置了标记注解时，先从class文件字节中读取类上的注解，只加载被标记的类
+	 * 
+	 * @param classNames
+	 *            类名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @return class集合
+	 */
+	Set<Class<?>> loadClasses(Set<String> classNames, ScanFilter filter) {
+		if (filter == null || !filter.hasAnnotations()) {
+			return loadClasses(classNames, className -> true, aClass -> true);
+		}
+		return loadClasses(classNames, annotationMatcher(filter), filter::acceptsAnnotations);
+	}
+
+	/**
+	 * 在扫描过程中逐个加载并回调，不保存扫描结果；设置了标记注解时，先从class文件字节中读取类上的注解，只加载被标记的类
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如回调为null，则抛出该异常
+	 * @see #scan(String, ScanFilter, ScanVisitor)
+	 */
+	@Override
+	public void scanToClass(String packageName, ScanFilter filter, ScanVisitor<Class<?>> visitor)
+			throws IOException {
+		if (visitor == null) {
+			throw new NullPointerException("visitor parameter is null!");
+		}
+		if (classLoader == null) {
+			return;
+		}
+		ClassNameMatcher matcher;
+		Predicate<Class<?>> fallback;
+		if (filter == null || !filter.hasAnnotations()) {
+			matcher = className -> true;
+			fallback = aClass -> true;
+		} else {
+			matcher = annotationMatcher(filter);
+			fallback = filter::acceptsAnnotations;
+		}
+		scan(packageName, filter, className -> {
+			Class<?> aClass = loadClass(className, matcher, fallback);
+			return aClass == null || visitor.visit(aClass);
+		});
+	}
+
+	/**
+	 * 根据class文件判断类上是否标记了过滤条件中任意一个标记注解
+	 */
+	private ClassNameMatcher annotationMatcher(ScanFilter filter) {
+		List<Class<? extends Annotation>> annotations = filter.getAnnotations();
+		ClassMetadataReader reader = new ClassMetadataReader(classLoader);
+		return className -> {
+			for (Class<? extends Annotation> annotation : annotations) {
+				if (reader.hasAnnotation(className, annotation.getName(),
+						annotation.isAnnotationPresent(Inherited.class))) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
+	/**
+	 * 先从class文件字节中读取类上的注解，只加载被该注解标记的类；
+	 * 注解被{@link Inherited}标记时，也会查找父类上的注解
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param annotationClass
+	 *            注解类型
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如注解类型为null，则抛出该异常
+	 */
+	@Override
+	public Set<Class<?>> scannerToClassByAnnotation(String packageName, Class<? extends Annotation> annotationClass)
+			throws IOException {
+		if (annotationClass == null) {
+			throw new NullPointerException("annotationClass parameter is null!");
+		}
+		String annotationName = annotationClass.getName();
+		boolean inherited = annotationClass.isAnnotationPresent(Inherited.class);
+		ClassMetadataReader reader = new ClassMetadataReader(classLoader);
+		return loadClasses(scanner(packageName),
+				className -> reader.hasAnnotation(className, annotationName, inherited),
+				aClass -> aClass.isAnnotationPresent(annotationClass));
+	}
+
+	/**
+	 * 先从class文件字节中读取父类及接口，只加载该类型的子类型
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param superType
+	 *            父类或接口
+	 * @throws IOException
+	 *             假如解析包名失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如父类型为null，则抛出该异常
+	 */
+	@Override
+	public Set<Class<?>> scannerToClassBySuperType(String packageName, Class<?> superType) throws IOException {
+		if (superType == null) {
+			throw new NullPointerException("superType parameter is null!");
+		}
+		String superTypeName = superType.getName();
+		ClassMetadataReader reader = new ClassMetadataReader(classLoader);
+		return loadClasses(scanner(packageName), className -> reader.isAssignableTo(className, superTypeName),
+				aClass -> superType.isAssignableFrom(aClass));
+	}
+
+	/**
+	 * 加载符合条件的类
+	 * 
+	 * @param classNames
+	 *            类名称
+	 * @param matcher
+	 *            根据class文件判断是否符合条件
+	 * @param fallback
+	 *            读取class文件失败时，加载该类后再判断
+	 * @return class集合
+	 */
+	private Set<Class<?>> loadClasses(Set<String> classNames, ClassNameMatcher matcher,
+			Predicate<Class<?>> fallback) {
+		Set<Class<?>> classes = new HashSet<Class<?>>();
+		if (classLoader == null) {
+			return classes;
+		}
+		for (String className : classNames) {
+			Class<?> aClass = loadClass(className, matcher, fallback);
+			if (aClass != null) {
+				classes.add(aClass);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * 加载符合条件的类
+	 * 
+	 * @param className
+	 *            类名称
+	 * @param matcher
+	 *            根据class文件判断是否符合条件
+	 * @param fallback
+	 *            读取class文件失败时，加载该类后再判断
+	 * @return 不符合条件或加载失败时返回null
+	 */
+	private Class<?> loadClass(String className, ClassNameMatcher matcher, Predicate<Class<?>> fallback) {
+		boolean matched;
+		boolean checked;
+		try {
+			matched = matcher.matches(className);
+			checked = true;
+		} catch (IOException e) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("读取【" + className + "】的class文件失败，加载该类后判断", e);
+			}
+			matched = true;
+			checked = false;
+		}
+		if (!matched) {
+			return null;
+		}
+		try {
+			Class<?> aClass = classLoader.loadClass(className);
+			return checked || fallback.test(aClass) ? aClass : null;
+		} catch (ClassNotFoundException e) {
+			LOGGER.error("【" + className + "】该class加载失败", e);
+			return null;
+		}
+	}
+
+	/**
+	 * 根据类名称读取class文件判断是否符合条件
+	 */
+	@FunctionalInterface
+	private interface ClassNameMatcher {
+		boolean matches(String className) throws IOException;
+	}
+
+	/**
+	 * 扫描结果接收者，把扫描到的类名称逐个交给回调；回调返回false后停止，之后的类名称被忽略，
+	 * 各扫描方法检查{@link #isStopped()}尽快结束扫描
+	 * <p>回调被同步调用，并行扫描时不会被并发调用</p>
+	 */
+	private static final class ScanSink {
+		private final ScanVisitor<String> visitor;
+
+		/**
+		 * 是否已停止扫描
+		 */
+		private volatile boolean stopped;
+
+		ScanSink(ScanVisitor<String> visitor) {
+			this.visitor = visitor;
+		}
+
+		/**
+		 * 创建把类名称添加到给定集合中的接收者
+		 * 
+		 * @param classSet
+		 *            class全路径集合
+		 * @return 扫描结果接收者
+		 */
+		static ScanSink of(Set<String> classSet) {
+			return new ScanSink(className -> {
+				classSet.add(className);
+				return true;
+			});
+		}
+
+		/**
+		 * 接收一个类名称
+		 * 
+		 * @param className
+		 *            类名称
+		 * @return 是否继续扫描
+		 */
+		synchronized boolean accept(String className) {
+			if (stopped) {
+				return false;
+			}
+			if (!visitor.visit(className)) {
+				stopped = true;
+			}
+			return !stopped;
+		}
+
+		/**
+		 * 依次接收多个类名称，停止后忽略剩余的类名称
+		 * 
+		 * @param classNames
+		 *            类名称
+		 */
+		void acceptAll(Collection<String> classNames) {
+			for (String className : classNames) {
+				if (!accept(className)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * 停止接收，返回后回调不会再被调用
+		 */
+		synchronized void stop() {
+			stopped = true;
+		}
+
+		boolean isStopped() {
+			return stopped;
+		}
+	}
 }
@@ -0,0 +1,267 @@
+package org.xlp.scanner.pkg;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.index.ComponentIndex;
+import org.xlp.scanner.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * 根据编译时生成的组件索引获取指定包下的{@link org.xlp.bean.annotation.Component}组件
+ * </p>
+ * 只读取类路径中所有的{@link org.xlp.scanner.constants.ScannerPkgConsts#COMPONENT_INDEX_LOCATION}文件，
+ * 不遍历目录及jar文件中的条目；假如类路径中没有任何索引文件，则使用{@link ClassPathPkgScanner}扫描
+ * <p>注意：存在索引文件时只返回索引中的组件类，没有被{@link org.xlp.bean.annotation.Component}标记的类不会返回，
+ * 所有包含组件的模块都需要在编译时使用{@link org.xlp.bean.processor.ComponentIndexProcessor}</p>
+ *
+ * @version 1.0
+ * @see org.xlp.bean.processor.ComponentIndexProcessor
+ */
+public class ComponentIndexScanner implements ScannerPkg {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ComponentIndexScanner.class);
+
+	/**
+	 * 类加载器
+	 */
+	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+	/**
+	 * 没有索引文件时使用的扫描器
+	 */
+	private final ClassPathPkgScanner fallbackScanner;
+
+	/**
+	 * 组件索引，首次使用时加载
+	 */
+	private volatile ComponentIndex componentIndex;
+
+	/**
+	 * 是否已加载组件索引
+	 */
+	private volatile boolean indexLoaded;
+
+	/**
+	 * 构造函数
+	 */
+	public ComponentIndexScanner() {
+		fallbackScanner = new ClassPathPkgScanner(classLoader);
+	}
+
+	/**
+	 * 构造函数
+	 *
+	 * @param classLoader
+	 *            类加载器
+	 */
+	public ComponentIndexScanner(ClassLoader classLoader) {
+		if (classLoader != null) {
+			this.classLoader = classLoader;
+		}
+		fallbackScanner = new ClassPathPkgScanner(this.classLoader);
+	}
+
+	/**
+	 * 获取组件索引
+	 *
+	 * @return 假如类路径中没有索引文件，则返回null
+	 * @throws IOException
+	 *             假如读取索引文件失败，则抛出该异常
+	 */
+	public ComponentIndex getComponentIndex() throws IOException {
+		if (!indexLoaded) {
+			synchronized (this) {
+				if (!indexLoaded) {
+					componentIndex = ComponentIndex.load(classLoader);
+					indexLoaded = true;
+					if (LOGGER.isInfoEnabled()) {
+						LOGGER.info(componentIndex == null ? "类路径中没有组件索引文件，使用类路径扫描"
+								: "从组件索引文件中读取到" + componentIndex.getEntries().size() + "个组件");
+					}
+				}
+			}
+		}
+		return componentIndex;
+	}
+
+	/**
+	 * 获取指定包下的组件索引信息
+	 *
+	 * @param packageName
+	 *            包名称（xxx.xxx），为空时返回所有组件
+	 * @return 假如类路径中没有索引文件，则返回null
+	 * @throws IOException
+	 *             假如读取索引文件失败，则抛出该异常
+	 */
+	public List<ComponentIndex.Entry> getComponentEntries(String packageName) throws IOException {
+		ComponentIndex index = getComponentIndex();
+		return index == null ? null : index.getEntries(packageName);
+	}
+
+	/**
+	 * @param packageName
+	 *            包名称
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public Set<String> scanner(String packageName) throws IOException {
+		List<ComponentIndex.Entry> entries = getComponentEntries(packageName);
+		if (entries == null) {
+			return fallbackScanner.scanner(packageName);
+		}
+		Set<String> classSet = new HashSet<String>();
+		for (ComponentIndex.Entry entry : entries) {
+			classSet.add(entry.getClassName());
+		}
+		return classSet;
+	}
+
+	/**
+	 * @param packageName
+	 *            包名称
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public Set<Class<?>> scannerToClass(String packageName) throws IOException {
+		if (getComponentIndex() == null) {
+			return fallbackScanner.scannerToClass(packageName);
+		}
+		Set<Class<?>> classes = new HashSet<Class<?>>();
+		if (classLoader == null) {
+			return classes;
+		}
+		for (String className : scanner(packageName)) {
+			try {
+				classes.add(classLoader.loadClass(className));
+			} catch (ClassNotFoundException e) {
+				LOGGER.error("【" + className + "】该class加载失败", e);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * 在读取索引条目时判断包名称及后缀条件；没有索引文件时使用{@link ClassPathPkgScanner}扫描
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public Set<String> scanner(String packageName, ScanFilter filter) throws IOException {
+		List<ComponentIndex.Entry> entries = getComponentEntries(packageName);
+		if (entries == null) {
+			return fallbackScanner.scanner(packageName, filter);
+		}
+		Set<String> classSet = new HashSet<String>();
+		for (ComponentIndex.Entry entry : entries) {
+			if (filter == null || filter.acceptsClass(entry.getClassName())) {
+				classSet.add(entry.getClassName());
+			}
+		}
+		return classSet;
+	}
+
+	/**
+	 * 设置了标记注解时，先从class文件中判断，只加载符合条件的类
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public Set<Class<?>> scannerToClass(String packageName, ScanFilter filter) throws IOException {
+		if (getComponentIndex() == null) {
+			return fallbackScanner.scannerToClass(packageName, filter);
+		}
+		return fallbackScanner.loadClasses(scanner(packageName, filter), filter);
+	}
+
+	/**
+	 * 逐个回调索引中的组件类名称；没有索引文件时使用{@link ClassPathPkgScanner}在扫描过程中回调
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public void scan(String packageName, ScanFilter filter, ScanVisitor<String> visitor) throws IOException {
+		if (visitor == null) {
+			throw new NullPointerException("visitor parameter is null!");
+		}
+		List<ComponentIndex.Entry> entries = getComponentEntries(packageName);
+		if (entries == null) {
+			fallbackScanner.scan(packageName, filter, visitor);
+			return;
+		}
+		for (ComponentIndex.Entry entry : entries) {
+			if ((filter == null || filter.acceptsClass(entry.getClassName())) && !visitor.visit(entry.getClassName())) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 没有索引文件时，使用{@link ClassPathPkgScanner}在扫描过程中加载并回调
+	 * 
+	 * @param packageName
+	 *            包名称
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如解析包名或读取索引文件失败，则抛出该异常
+	 */
+	@Override
+	public void scanToClass(String packageName, ScanFilter filter, ScanVisitor<Class<?>> visitor)
+			throws IOException {
+		if (getComponentIndex() == null) {
+			fallbackScanner.scanToClass(packageName, filter, visitor);
+			return;
+		}
+		ScannerPkg.super.scanToClass(packageName, filter, visitor);
+	}
+
+	/**
+	 * 没有索引文件时，使用{@link ClassPathPkgScanner}从class文件中判断，只加载符合条件的类
+	 */
+	@Override
+	public Set<Class<?>> scannerToClassByAnnotation(String packageName, Class<? extends Annotation> annotationClass)
+			throws IOException {
+		if (getComponentIndex() == null) {
+			return fallbackScanner.scannerToClassByAnnotation(packageName, annotationClass);
+		}
+		return ScannerPkg.super.scannerToClassByAnnotation(packageName, annotationClass);
+	}
+
+	/**
+	 * 没有索引文件时，使用{@link ClassPathPkgScanner}从class文件中判断，只加载符合条件的类
+	 */
+	@Override
+	public Set<Class<?>> scannerToClassBySuperType(String packageName, Class<?> superType) throws IOException {
+		if (getComponentIndex() == null) {
+			return fallbackScanner.scannerToClassBySuperType(packageName, superType);
+		}
+		return ScannerPkg.super.scannerToClassBySuperType(packageName, superType);
+	}
+}
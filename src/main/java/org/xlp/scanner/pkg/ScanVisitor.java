@@ -0,0 +1,22 @@
+package org.xlp.scanner.pkg;
+
+/**
+ * <p>
+ * 扫描结果回调
+ * </p>
+ * 每扫描到一个结果回调一次，返回false时停止扫描
+ *
+ * @param <T> 扫描结果类型，类名称或class对象
+ * @version 1.0
+ * @see ScannerPkg#scan(String, org.xlp.scanner.filter.ScanFilter, ScanVisitor)
+ */
+@FunctionalInterface
+public interface ScanVisitor<T> {
+	/**
+	 * 处理扫描到的结果
+	 *
+	 * @param item 扫描结果
+	 * @return true：继续扫描，false：停止扫描
+	 */
+	boolean visit(T item);
+}
@@ -1,8 +1,12 @@
 package org.xlp.scanner.pkg;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.HashSet;
 import java.util.Set;
 
+import org.xlp.scanner.filter.ScanFilter;
+
 /**
  * <p>
  * 创建时间：2020年12月19日 下午11:27:29
@@ -34,4 +38,165 @@ public interface ScannerPkg {
 	 * @return 返回指定包下的class集合
 	 */
 	public Set<Class<?>> scannerToClass(String packageName) throws IOException;
+
+	/**
+	 * 扫描指定包下满足过滤条件的class文件
+	 * <p>
+	 * 默认实现扫描包下所有的类后再按包名称及后缀条件过滤，实现类可在遍历目录及jar文件时判断，
+	 * 不遍历被排除的包
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param filter
+	 *            过滤条件，为null时不过滤；不判断标记注解
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @return 返回指定包下满足条件的class全称集合
+	 */
+	default Set<String> scanner(String packageName, ScanFilter filter) throws IOException {
+		Set<String> classNames = scanner(packageName);
+		if (filter != null && !filter.isNameFilterEmpty()) {
+			classNames.removeIf(className -> !filter.acceptsClass(className));
+		}
+		return classNames;
+	}
+
+	/**
+	 * 扫描指定包下满足过滤条件的类
+	 * <p>
+	 * 默认实现加载包下所有的类后再判断，实现类可先从class文件中判断，只加载符合条件的类
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @return 返回指定包下满足条件的class集合
+	 */
+	default Set<Class<?>> scannerToClass(String packageName, ScanFilter filter) throws IOException {
+		Set<Class<?>> classes = scannerToClass(packageName);
+		if (filter != null) {
+			classes.removeIf(aClass -> !filter.acceptsClass(aClass.getName()) || !filter.acceptsAnnotations(aClass));
+		}
+		return classes;
+	}
+
+	/**
+	 * 扫描指定包下满足过滤条件的class文件，每扫描到一个类名称回调一次，回调返回false时停止扫描
+	 * <p>
+	 * 默认实现扫描完成后再逐个回调，实现类可在扫描过程中回调，不保存所有的扫描结果
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param filter
+	 *            过滤条件，为null时不过滤；不判断标记注解
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如回调为null，则抛出该异常
+	 */
+	default void scan(String packageName, ScanFilter filter, ScanVisitor<String> visitor) throws IOException {
+		if (visitor == null) {
+			throw new NullPointerException("visitor parameter is null!");
+		}
+		for (String className : scanner(packageName, filter)) {
+			if (!visitor.visit(className)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 扫描指定包下满足过滤条件的类，每加载一个类回调一次，回调返回false时停止扫描
+	 * <p>
+	 * 默认实现加载完所有的类后再逐个回调，实现类可在扫描过程中加载并回调
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param filter
+	 *            过滤条件，为null时不过滤
+	 * @param visitor
+	 *            回调
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如回调为null，则抛出该异常
+	 */
+	default void scanToClass(String packageName, ScanFilter filter, ScanVisitor<Class<?>> visitor)
+			throws IOException {
+		if (visitor == null) {
+			throw new NullPointerException("visitor parameter is null!");
+		}
+		for (Class<?> aClass : scannerToClass(packageName, filter)) {
+			if (!visitor.visit(aClass)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 扫描指定包下被给定注解标记的类
+	 * <p>
+	 * 默认实现加载包下所有的类后再判断，实现类可先从class文件中判断，只加载符合条件的类
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param annotationClass
+	 *            注解类型
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如注解类型为null，则抛出该异常
+	 * @return 返回指定包下被该注解标记的class集合
+	 */
+	default Set<Class<?>> scannerToClassByAnnotation(String packageName,
+			Class<? extends Annotation> annotationClass) throws IOException {
+		if (annotationClass == null) {
+			throw new NullPointerException("annotationClass parameter is null!");
+		}
+		Set<Class<?>> classes = new HashSet<Class<?>>();
+		for (Class<?> aClass : scannerToClass(packageName)) {
+			if (aClass.isAnnotationPresent(annotationClass)) {
+				classes.add(aClass);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * 扫描指定包下给定类型的子类型（包括该类型本身）
+	 * <p>
+	 * 默认实现加载包下所有的类后再判断，实现类可先从class文件中判断，只加载符合条件的类
+	 * </p>
+	 * 
+	 * @param packageName
+	 *            包名称（xxx.xxx）
+	 * @param superType
+	 *            父类或接口
+	 * @throws IOException
+	 *             假如扫描失败，则抛出该异常
+	 * @throws NullPointerException
+	 *             假如父类型为null，则抛出该异常
+	 * @return 返回指定包下该类型的子类型class集合
+	 */
+	default Set<Class<?>> scannerToClassBySuperType(String packageName, Class<?> superType) throws IOException {
+		if (superType == null) {
+			throw new NullPointerException("superType parameter is null!");
+		}
+		Set<Class<?>> classes = new HashSet<Class<?>>();
+		for (Class<?> aClass : scannerToClass(packageName)) {
+			if (superType.isAssignableFrom(aClass)) {
+				classes.add(aClass);
+			}
+		}
+		return classes;
+	}
 }
@@ -0,0 +1,85 @@
+package org.xlp.scanner.watch;
+
+import java.nio.file.Path;
+
+/**
+ * <p>
+ * class文件变化事件
+ * </p>
+ * 由{@link ClassDirectoryWatcher}在目录中的class文件新增、删除或修改时产生，
+ * 同一批事件中每个类名称最多只有一个事件
+ *
+ * @version 1.0
+ */
+public final class ClassChangeEvent {
+	/**
+	 * 变化类型
+	 */
+	public enum Type {
+		/**
+		 * 新增
+		 */
+		ADDED,
+
+		/**
+		 * 删除
+		 */
+		REMOVED,
+
+		/**
+		 * 修改
+		 */
+		MODIFIED
+	}
+
+	private final Type type;
+
+	private final String className;
+
+	private final Path path;
+
+	/**
+	 * 构造函数
+	 *
+	 * @param type 变化类型
+	 * @param className 类全路径名称（xx.xx.Yy）
+	 * @param path class文件路径
+	 */
+	public ClassChangeEvent(Type type, String className, Path path) {
+		this.type = type;
+		this.className = className;
+		this.path = path;
+	}
+
+	/**
+	 * 获取变化类型
+	 *
+	 * @return 变化类型
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * 获取类全路径名称
+	 *
+	 * @return 类全路径名称（xx.xx.Yy）
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * 获取class文件路径
+	 *
+	 * @return class文件路径，删除事件中该文件已不存在
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + className;
+	}
+}
@@ -0,0 +1,22 @@
+package org.xlp.scanner.watch;
+
+import java.util.List;
+
+/**
+ * <p>
+ * class文件变化监听器
+ * </p>
+ * 在{@link ClassDirectoryWatcher}的监听线程中调用，同一时刻只有一次调用；
+ * 抛出的异常只记录日志，不影响后续的监听
+ *
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ClassChangeListener {
+	/**
+	 * 处理一批class文件变化
+	 *
+	 * @param events 变化事件，不为空
+	 */
+	void onChange(List<ClassChangeEvent> events);
+}
@@ -0,0 +1,390 @@
+package org.xlp.scanner.watch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.filter.ScanFilter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * 监听class目录中的class文件变化
+ * </p>
+ * 使用{@link WatchService}监听包目录及其所有子目录，在内存中记录当前所有的class（不包括内部类）及其最后修改时间，
+ * 文件变化时只检查变化的文件，按批次通知{@link ClassChangeListener}新增、删除或修改的类；
+ * 一批变化在{@link #setQuietPeriod(long)}时间内没有新的文件变化时结束，编译时同时写入的多个文件在同一批中通知。
+ * 新建的子目录自动监听，事件丢失（{@link StandardWatchEventKinds#OVERFLOW}）时重新扫描所有目录
+ * <p>
+ * 只能监听目录，jar文件中的class不会被监听
+ * </p>
+ *
+ * @version 1.0
+ * @see org.xlp.scanner.pkg.ClassPathPkgScanner#watch(String, ScanFilter, ClassChangeListener)
+ */
+public class ClassDirectoryWatcher implements Closeable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClassDirectoryWatcher.class);
+
+	/**
+	 * 默认一批变化的静默时间（毫秒）
+	 */
+	private static final long DEFAULT_QUIET_PERIOD = 100;
+
+	private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+	/**
+	 * 监听的根目录，value为目录对应的包名称
+	 */
+	private final Map<Path, String> roots;
+
+	private final ScanFilter filter;
+
+	private final ClassChangeListener listener;
+
+	private final WatchService watchService;
+
+	/**
+	 * 已注册的目录，key：目录，value：目录对应的包名称；只在启动时及监听线程中修改
+	 */
+	private final Map<Path, String> directories = new HashMap<Path, String>();
+
+	/**
+	 * 当前所有的class，key：类全路径名称
+	 */
+	private final Map<String, ClassFile> classes = new ConcurrentHashMap<String, ClassFile>();
+
+	private volatile long quietPeriod = DEFAULT_QUIET_PERIOD;
+
+	private volatile boolean closed;
+
+	private Thread thread;
+
+	/**
+	 * 构造函数，调用{@link #start()}后开始监听
+	 *
+	 * @param roots 监听的根目录，key：目录，value：目录对应的包名称，默认包为空字符串
+	 * @param filter 过滤条件，为null时不过滤；不判断标记注解
+	 * @param listener 变化监听器
+	 * @throws IOException 假如创建{@link WatchService}失败，则抛出该异常
+	 * @throws NullPointerException 假如参数roots或listener为null，则抛出该异常
+	 */
+	public ClassDirectoryWatcher(Map<Path, String> roots, ScanFilter filter, ClassChangeListener listener)
+			throws IOException {
+		if (roots == null) {
+			throw new NullPointerException("roots parameter is null!");
+		}
+		if (listener == null) {
+			throw new NullPointerException("listener parameter is null!");
+		}
+		this.roots = new LinkedHashMap<Path, String>(roots);
+		this.filter = filter == null ? ScanFilter.ACCEPT_ALL : filter;
+		this.listener = listener;
+		this.watchService = (this.roots.isEmpty() ? FileSystems.getDefault()
+				: this.roots.keySet().iterator().next().getFileSystem()).newWatchService();
+	}
+
+	/**
+	 * 扫描并注册所有目录，然后在后台线程中开始监听；启动前已存在的class不会通知
+	 *
+	 * @throws IOException 假如注册目录失败，则抛出该异常
+	 * @throws IllegalStateException 假如已启动或已关闭，则抛出该异常
+	 */
+	public synchronized void start() throws IOException {
+		if (thread != null || closed) {
+			throw new IllegalStateException("watcher has been started or closed!");
+		}
+		for (Map.Entry<Path, String> root : roots.entrySet()) {
+			if (Files.isDirectory(root.getKey())) {
+				register(root.getKey(), root.getValue(), null);
+			}
+		}
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("开始监听" + directories.size() + "个目录中的class文件，共" + classes.size() + "个类");
+		}
+		thread = new Thread(this::run, "xlp-class-watcher-" + THREAD_INDEX.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 设置一批变化的静默时间
+	 *
+	 * @param quietPeriod 毫秒，小于0时视为0
+	 */
+	public void setQuietPeriod(long quietPeriod) {
+		this.quietPeriod = Math.max(0, quietPeriod);
+	}
+
+	/**
+	 * 获取一批变化的静默时间
+	 *
+	 * @return 毫秒
+	 */
+	public long getQuietPeriod() {
+		return quietPeriod;
+	}
+
+	/**
+	 * 获取当前所有的类名称
+	 *
+	 * @return 类全路径名称集合的副本
+	 */
+	public Set<String> getClassNames() {
+		return new HashSet<String>(classes.keySet());
+	}
+
+	/**
+	 * 是否已关闭
+	 *
+	 * @return true：是，false：否
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * 停止监听，正在通知的监听器会执行完
+	 *
+	 * @throws IOException 假如关闭{@link WatchService}失败，则抛出该异常
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		watchService.close();
+	}
+
+	private void run() {
+		try {
+			while (!closed) {
+				WatchKey key = watchService.take();
+				Map<String, Path> touched = new LinkedHashMap<String, Path>();
+				boolean overflow = false;
+				// 收集一批变化，直到静默时间内没有新的变化
+				while (key != null) {
+					overflow |= process(key, touched);
+					key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+				}
+				if (overflow) {
+					rescan(touched);
+				}
+				List<ClassChangeEvent> events = update(touched);
+				if (!events.isEmpty() && !closed) {
+					notifyListener(events);
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// 已关闭
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("停止监听class文件");
+		}
+	}
+
+	private void notifyListener(List<ClassChangeEvent> events) {
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("class文件变化：" + events);
+		}
+		try {
+			listener.onChange(Collections.unmodifiableList(events));
+		} catch (RuntimeException e) {
+			LOGGER.error("处理class文件变化失败", e);
+		}
+	}
+
+	/**
+	 * 处理一个目录的变化事件
+	 *
+	 * @param touched 记录可能变化的类，key：类名称，value：class文件路径
+	 * @return 是否丢失了事件
+	 */
+	private boolean process(WatchKey key, Map<String, Path> touched) {
+		Path dir = (Path) key.watchable();
+		String packageName = directories.get(dir);
+		boolean overflow = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				overflow = true;
+				continue;
+			}
+			if (packageName == null) {
+				continue;
+			}
+			Path path = dir.resolve((Path) event.context());
+			String name = path.getFileName().toString();
+			if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && directories.containsKey(path)) {
+				removeDirectory(path, touched);
+			} else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				String subPackageName = toClassName(packageName, name);
+				if (!filter.skipsPackageTree(subPackageName, 0, subPackageName.length(), '.')) {
+					try {
+						register(path, subPackageName, touched);
+					} catch (IOException e) {
+						LOGGER.warn("监听目录【" + path + "】失败", e);
+					}
+				}
+			} else if (isClassFile(packageName, name)) {
+				touched.put(toClassName(packageName, name.substring(0, name.length()
+						- ScannerPkgConsts.CLASS_FILE_EXT.length())), path);
+			}
+		}
+		if (!key.reset()) {
+			directories.remove(dir);
+		}
+		return overflow;
+	}
+
+	/**
+	 * 注册目录及其所有子目录，并记录其中的class
+	 *
+	 * @param touched 为null时直接记录class，否则记录为可能变化的类
+	 */
+	private void register(Path dir, String packageName, Map<String, Path> touched) throws IOException {
+		dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+		directories.put(dir, packageName);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				BasicFileAttributes attributes = readAttributes(path);
+				if (attributes == null) {
+					continue;
+				}
+				if (attributes.isDirectory()) {
+					String subPackageName = toClassName(packageName, name);
+					if (!filter.skipsPackageTree(subPackageName, 0, subPackageName.length(), '.')) {
+						register(path, subPackageName, touched);
+					}
+				} else if (isClassFile(packageName, name)) {
+					String className = toClassName(packageName,
+							name.substring(0, name.length() - ScannerPkgConsts.CLASS_FILE_EXT.length()));
+					if (touched == null) {
+						classes.put(className, new ClassFile(path, attributes.lastModifiedTime()));
+					} else {
+						touched.put(className, path);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 目录被删除时，其中所有的class都可能被删除
+	 */
+	private void removeDirectory(Path dir, Map<String, Path> touched) {
+		directories.keySet().removeIf(path -> path.startsWith(dir));
+		for (Map.Entry<String, ClassFile> entry : classes.entrySet()) {
+			if (entry.getValue().path.startsWith(dir)) {
+				touched.put(entry.getKey(), entry.getValue().path);
+			}
+		}
+	}
+
+	/**
+	 * 丢失事件时重新扫描所有目录
+	 */
+	private void rescan(Map<String, Path> touched) {
+		LOGGER.warn("class文件变化事件丢失，重新扫描所有目录");
+		for (Map.Entry<String, ClassFile> entry : classes.entrySet()) {
+			touched.put(entry.getKey(), entry.getValue().path);
+		}
+		for (Map.Entry<Path, String> root : roots.entrySet()) {
+			if (Files.isDirectory(root.getKey())) {
+				try {
+					register(root.getKey(), root.getValue(), touched);
+				} catch (IOException e) {
+					LOGGER.warn("重新扫描目录【" + root.getKey() + "】失败", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 检查可能变化的类，更新内存中的记录
+	 *
+	 * @return 变化事件
+	 */
+	private List<ClassChangeEvent> update(Map<String, Path> touched) {
+		List<ClassChangeEvent> events = new ArrayList<ClassChangeEvent>();
+		for (Map.Entry<String, Path> entry : touched.entrySet()) {
+			String className = entry.getKey();
+			Path path = entry.getValue();
+			ClassFile old = classes.get(className);
+			BasicFileAttributes attributes = readAttributes(path);
+			if (attributes == null || !attributes.isRegularFile()) {
+				// 同名的类在其他目录中时不处理
+				if (old != null && old.path.equals(path)) {
+					classes.remove(className);
+					events.add(new ClassChangeEvent(ClassChangeEvent.Type.REMOVED, className, path));
+				}
+				continue;
+			}
+			FileTime lastModified = attributes.lastModifiedTime();
+			classes.put(className, new ClassFile(path, lastModified));
+			if (old == null) {
+				events.add(new ClassChangeEvent(ClassChangeEvent.Type.ADDED, className, path));
+			} else if (!old.lastModified.equals(lastModified) || !old.path.equals(path)) {
+				events.add(new ClassChangeEvent(ClassChangeEvent.Type.MODIFIED, className, path));
+			}
+		}
+		return events;
+	}
+
+	private boolean isClassFile(String packageName, String name) {
+		if (!name.endsWith(ScannerPkgConsts.CLASS_FILE_EXT) || name.contains(ScannerPkgConsts.INNER_CLASS_FLAG)) {
+			return false;
+		}
+		return filter.acceptsPackage(packageName, 0, packageName.length(), '.')
+				&& filter.acceptsSimpleName(name, 0, name.length() - ScannerPkgConsts.CLASS_FILE_EXT.length());
+	}
+
+	private static String toClassName(String packageName, String name) {
+		return packageName.isEmpty() ? name : packageName + "." + name;
+	}
+
+	private static BasicFileAttributes readAttributes(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * class文件及其最后修改时间
+	 */
+	private static final class ClassFile {
+		final Path path;
+
+		final FileTime lastModified;
+
+		ClassFile(Path path, FileTime lastModified) {
+			this.path = path;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.xlp;
+
+import org.xlp.bean.base.IBeanCreator;
+import org.xlp.bean.creator.NoParameterConstructorLambdaBeanCreator;
+import org.xlp.bean.creator.NoParameterConstructorReflectBeanCreator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无参构造函数bean创建器基准测试，比较{@link NoParameterConstructorLambdaBeanCreator}与
+ * {@link NoParameterConstructorReflectBeanCreator}每秒创建bean实例的次数
+ * <p>直接运行main方法，不作为单元测试执行</p>
+ */
+public class BeanCreatorBenchmark {
+    /**
+     * 每轮创建bean的次数
+     */
+    private static final int CREATE_COUNT = 5_000_000;
+
+    /**
+     * 测试轮数
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * 防止创建的对象被优化掉
+     */
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        IBeanCreator reflectCreator = new NoParameterConstructorReflectBeanCreator(C.class);
+        IBeanCreator lambdaCreator = new NoParameterConstructorLambdaBeanCreator(C.class);
+        // 预热
+        run(reflectCreator);
+        run(lambdaCreator);
+        System.out.printf("%6s %18s %18s%n", "round", "reflect(ops/ms)", "lambda(ops/ms)");
+        for (int i = 1; i <= ROUNDS; i++) {
+            System.out.printf("%6d %18.0f %18.0f%n", i, run(reflectCreator), run(lambdaCreator));
+        }
+    }
+
+    private static double run(IBeanCreator creator) {
+        long startTime = System.nanoTime();
+        Object bean = null;
+        for (int i = 0; i < CREATE_COUNT; i++) {
+            bean = creator.createBean();
+        }
+        sink = bean;
+        long time = Math.max(System.nanoTime() - startTime, TimeUnit.MILLISECONDS.toNanos(1));
+        return (double) CREATE_COUNT / TimeUnit.NANOSECONDS.toMillis(time);
+    }
+}
@@ -0,0 +1,169 @@
+package org.xlp;
+
+import org.xlp.bean.impl.CustomClassOfBeanDefinition;
+import org.xlp.bean.impl.DefaultBeansContainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * {@link DefaultBeansContainer}并发竞争基准测试，统计1到64个线程并发注册bean定义、
+ * 并发创建单例、并发获取bean的耗时
+ * <p>每个bean定义使用运行时生成的不同bean类型，避免所有bean都竞争同一个分段锁及同一个类型条目</p>
+ * <p>直接运行main方法，不作为单元测试执行</p>
+ */
+public class BeansContainerContentionBenchmark {
+    /**
+     * bean定义数量
+     */
+    private static final int BEAN_COUNT = 4096;
+
+    /**
+     * 每个线程获取bean的次数
+     */
+    private static final int READ_COUNT_PER_THREAD = 200_000;
+
+    /**
+     * 每个bean定义的bean类型，各不相同
+     */
+    private static final Class<?>[] BEAN_CLASSES = new Class<?>[BEAN_COUNT];
+
+    public static void main(String[] args) throws Exception {
+        BeanClassLoader classLoader = new BeanClassLoader();
+        for (int i = 0; i < BEAN_COUNT; i++) {
+            BEAN_CLASSES[i] = classLoader.defineBeanClass("org.xlp.bench.Bean" + i);
+        }
+        int[] threadCounts = {1, 2, 4, 8, 16, 32, 64};
+        // 预热
+        run(8, false);
+        System.out.printf("%8s %14s %14s %16s%n", "threads", "register(ms)", "warmup(ms)", "reads(ops/ms)");
+        for (int threadCount : threadCounts) {
+            run(threadCount, true);
+        }
+    }
+
+    private static void run(int threadCount, boolean print) throws Exception {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            long registerTime = runInParallel(executor, threadCount, (index) -> {
+                for (int i = index; i < BEAN_COUNT; i += threadCount) {
+                    container.addBeanDefinition(new CustomClassOfBeanDefinition(BEAN_CLASSES[i], "bean" + i));
+                }
+            });
+            long warmupTime = runInParallel(executor, threadCount, (index) -> {
+                for (int i = index; i < BEAN_COUNT; i += threadCount) {
+                    container.getBean("bean" + i);
+                }
+            });
+            String[] ids = new String[BEAN_COUNT];
+            for (int i = 0; i < BEAN_COUNT; i++) {
+                ids[i] = "bean" + i;
+            }
+            long readTime = runInParallel(executor, threadCount, (index) -> {
+                for (int i = 0; i < READ_COUNT_PER_THREAD; i++) {
+                    container.getBean(ids[(i + index) & (BEAN_COUNT - 1)]);
+                }
+            });
+            if (print) {
+                double readOps = (double) READ_COUNT_PER_THREAD * threadCount / TimeUnit.NANOSECONDS.toMillis(readTime);
+                System.out.printf("%8d %14d %14d %16.0f%n", threadCount, TimeUnit.NANOSECONDS.toMillis(registerTime),
+                        TimeUnit.NANOSECONDS.toMillis(warmupTime), readOps);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long runInParallel(ExecutorService executor, int threadCount, Task task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return Math.max(System.nanoTime() - startTime, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * 生成只有无参构造函数的public类
+     */
+    private static final class BeanClassLoader extends ClassLoader {
+        BeanClassLoader() {
+            super(BeansContainerContentionBenchmark.class.getClassLoader());
+        }
+
+        Class<?> defineBeanClass(String className) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            // Java 8
+            out.writeShort(52);
+            // 常量池
+            out.writeShort(10);
+            out.writeByte(1);
+            out.writeUTF(className.replace('.', '/'));
+            out.writeByte(7);
+            out.writeShort(1);
+            out.writeByte(1);
+            out.writeUTF("java/lang/Object");
+            out.writeByte(7);
+            out.writeShort(3);
+            out.writeByte(1);
+            out.writeUTF("<init>");
+            out.writeByte(1);
+            out.writeUTF("()V");
+            out.writeByte(12);
+            out.writeShort(5);
+            out.writeShort(6);
+            out.writeByte(10);
+            out.writeShort(4);
+            out.writeShort(7);
+            out.writeByte(1);
+            out.writeUTF("Code");
+            // public class, 父类Object，没有接口及字段
+            out.writeShort(0x0021);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(0);
+            out.writeShort(0);
+            // public <init>() { super(); }
+            out.writeShort(1);
+            out.writeShort(0x0001);
+            out.writeShort(5);
+            out.writeShort(6);
+            out.writeShort(1);
+            out.writeShort(9);
+            out.writeInt(17);
+            out.writeShort(1);
+            out.writeShort(1);
+            out.writeInt(5);
+            out.write(new byte[]{0x2a, (byte) 0xb7, 0x00, 0x08, (byte) 0xb1});
+            out.writeShort(0);
+            out.writeShort(0);
+            // 类属性
+            out.writeShort(0);
+            byte[] classBytes = bytes.toByteArray();
+            return defineClass(className, classBytes, 0, classBytes.length);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,142 @@
+package org.xlp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.watch.ClassChangeEvent;
+import org.xlp.scanner.watch.ClassDirectoryWatcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ClassDirectoryWatcher}监听class目录，通知新增、修改、删除的类
+ */
+public class ClassDirectoryWatcherTest {
+    private Path dir;
+
+    private ClassDirectoryWatcher watcher;
+
+    private final BlockingQueue<ClassChangeEvent> events = new LinkedBlockingQueue<>();
+
+    @Before
+    public void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("xlp-watch");
+        writeClass("app/A.class");
+        writeClass("app/A$1.class");
+        writeClass("app/internal/Hidden.class");
+        writeClass("app/sub/B.class");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private Path writeClass(String path) throws IOException {
+        Path classFile = dir.resolve(path);
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, new byte[0]);
+        return classFile;
+    }
+
+    private void startWatcher() throws IOException {
+        watcher = new ClassDirectoryWatcher(Collections.singletonMap(dir.resolve("app"), "app"),
+                new ScanFilter().excludePackages("app.internal.**"), events::addAll);
+        watcher.setQuietPeriod(50);
+        watcher.start();
+    }
+
+    /**
+     * 等待收到给定数量的变化事件，key：类名称，value：变化类型
+     */
+    private Map<String, ClassChangeEvent.Type> awaitEvents(int count) throws InterruptedException {
+        Map<String, ClassChangeEvent.Type> received = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            ClassChangeEvent event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull("received " + received, event);
+            received.put(event.getClassName(), event.getType());
+        }
+        return received;
+    }
+
+    private static Map<String, ClassChangeEvent.Type> expected(Object... classNameAndTypes) {
+        Map<String, ClassChangeEvent.Type> expected = new TreeMap<>();
+        for (int i = 0; i < classNameAndTypes.length; i += 2) {
+            expected.put((String) classNameAndTypes[i], (ClassChangeEvent.Type) classNameAndTypes[i + 1]);
+        }
+        return expected;
+    }
+
+    @Test
+    public void testStartRecordsExistingClasses() throws IOException, InterruptedException {
+        startWatcher();
+        // 内部类及被排除的包不记录，启动前已存在的类不通知
+        assertEquals(new HashSet<>(Arrays.asList("app.A", "app.sub.B")), watcher.getClassNames());
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAddModifyAndRemove() throws IOException, InterruptedException {
+        startWatcher();
+        writeClass("app/C.class");
+        writeClass("app/C$Inner.class");
+        assertEquals(expected("app.C", ClassChangeEvent.Type.ADDED), awaitEvents(1));
+
+        Path a = dir.resolve("app/A.class");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() - 10000));
+        assertEquals(expected("app.A", ClassChangeEvent.Type.MODIFIED), awaitEvents(1));
+
+        Files.delete(dir.resolve("app/C.class"));
+        assertEquals(expected("app.C", ClassChangeEvent.Type.REMOVED), awaitEvents(1));
+        assertEquals(new HashSet<>(Arrays.asList("app.A", "app.sub.B")), watcher.getClassNames());
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testNewAndDeletedDirectories() throws IOException, InterruptedException {
+        startWatcher();
+        writeClass("app/created/D.class");
+        writeClass("app/internal/more/Ignored.class");
+        assertEquals(expected("app.created.D", ClassChangeEvent.Type.ADDED), awaitEvents(1));
+        // 新建目录中之后写入的类
+        writeClass("app/created/E.class");
+        assertEquals(expected("app.created.E", ClassChangeEvent.Type.ADDED), awaitEvents(1));
+
+        Files.delete(dir.resolve("app/sub/B.class"));
+        Files.delete(dir.resolve("app/sub"));
+        assertEquals(expected("app.sub.B", ClassChangeEvent.Type.REMOVED), awaitEvents(1));
+        assertEquals(new HashSet<>(Arrays.asList("app.A", "app.created.D", "app.created.E")),
+                watcher.getClassNames());
+    }
+
+    @Test
+    public void testCloseStopsNotifying() throws IOException, InterruptedException {
+        startWatcher();
+        watcher.close();
+        assertTrue(watcher.isClosed());
+        writeClass("app/F.class");
+        assertNull(events.poll(300, TimeUnit.MILLISECONDS));
+        try {
+            watcher.start();
+            fail("watcher has been closed");
+        } catch (IllegalStateException e) {
+            // 预期的异常
+        }
+    }
+}
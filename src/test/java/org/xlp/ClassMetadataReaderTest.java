@@ -0,0 +1,194 @@
+package org.xlp;
+
+import org.junit.Test;
+import org.xlp.scanner.classfile.ClassMetadata;
+import org.xlp.scanner.classfile.ClassMetadataReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ClassMetadataReader}不加载类直接读取class文件中的类信息
+ */
+public class ClassMetadataReaderTest {
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Inner {
+        String value();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Outer {
+        Inner single();
+        Inner[] inners();
+        Class<?> type();
+        ElementType kind();
+        long[] numbers();
+        double ratio();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Inherited
+    public @interface Marked {
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    public @interface Invisible {
+    }
+
+    public interface Shape {
+    }
+
+    @Marked
+    public interface MarkedShape extends Shape {
+    }
+
+    /**
+     * 常量池中包含占两个位置的long及double常量，之后的注解需能正确读取
+     */
+    @Invisible
+    @Outer(single = @Inner("a"), inners = {@Inner("b"), @Inner("c")}, type = String.class,
+            kind = ElementType.TYPE, numbers = {Long.MAX_VALUE, 1234567890123L}, ratio = 2.718281828)
+    @Marked
+    public static class Constants implements Shape {
+        public static final long BIG = 9876543210123L;
+        public static final double PI = 3.141592653589793;
+        public long sum(long value) { return value + BIG + 1122334455667L; }
+        public double scale(double value) { return value * PI * 1.41421356; }
+    }
+
+    public static class Derived extends Constants {
+    }
+
+    public abstract static class ShapeImpl implements MarkedShape {
+    }
+
+    private final ClassMetadataReader reader = new ClassMetadataReader(getClass().getClassLoader());
+
+    private static byte[] classBytes(Class<?> aClass) throws IOException {
+        String resourceName = aClass.getName().replace('.', '/') + ".class";
+        try (InputStream in = aClass.getClassLoader().getResourceAsStream(resourceName)) {
+            assertNotNull(resourceName, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testLongAndDoubleConstantsAndNestedAnnotations() throws IOException {
+        ClassMetadata metadata = reader.getClassMetadata(Constants.class.getName());
+        assertEquals(Constants.class.getName(), metadata.getClassName());
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertEquals(Collections.singletonList(Shape.class.getName()), metadata.getInterfaceNames());
+        // CLASS级别的注解不在RuntimeVisibleAnnotations中
+        assertEquals(Arrays.asList(Outer.class.getName(), Marked.class.getName()), metadata.getAnnotationNames());
+        assertFalse(metadata.hasAnnotation(Inner.class.getName()));
+        assertFalse(metadata.isInterface());
+        assertFalse(metadata.isAbstract());
+    }
+
+    @Test
+    public void testInheritedAnnotationOnSuperclass() throws IOException {
+        String derived = Derived.class.getName();
+        assertTrue(reader.getClassMetadata(derived).getAnnotationNames().isEmpty());
+        assertTrue(reader.hasAnnotation(derived, Marked.class.getName(), true));
+        assertFalse(reader.hasAnnotation(derived, Marked.class.getName(), false));
+        assertTrue(reader.isAssignableTo(derived, Shape.class.getName()));
+        assertFalse(reader.isAssignableTo(derived, MarkedShape.class.getName()));
+    }
+
+    @Test
+    public void testInterface() throws IOException {
+        ClassMetadata metadata = reader.getClassMetadata(MarkedShape.class.getName());
+        assertTrue(metadata.isInterface());
+        assertTrue(metadata.isAbstract());
+        assertFalse(metadata.isAnnotation());
+        assertEquals(Collections.singletonList(Shape.class.getName()), metadata.getInterfaceNames());
+        assertTrue(metadata.hasAnnotation(Marked.class.getName()));
+        assertTrue(reader.getClassMetadata(Marked.class.getName()).isAnnotation());
+
+        // 接口上的注解不会被实现类继承
+        String shapeImpl = ShapeImpl.class.getName();
+        assertFalse(reader.hasAnnotation(shapeImpl, Marked.class.getName(), true));
+        assertTrue(reader.isAssignableTo(shapeImpl, Shape.class.getName()));
+        assertTrue(reader.getClassMetadata(shapeImpl).isAbstract());
+    }
+
+    @Test
+    public void testMissingClass() throws IOException {
+        assertNull(reader.getClassMetadata("org.xlp.NoSuchClass"));
+        try {
+            reader.hasAnnotation("org.xlp.NoSuchClass", Marked.class.getName(), true);
+            fail("class file not found");
+        } catch (IOException e) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void testTruncatedClassFile() throws IOException {
+        byte[] bytes = classBytes(Constants.class);
+        assertEquals(Constants.class.getName(), ClassMetadata.read(new ByteArrayInputStream(bytes)).getClassName());
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                ClassMetadata.read(new ByteArrayInputStream(Arrays.copyOf(bytes, length)));
+                fail("truncated to " + length + " of " + bytes.length + " bytes");
+            } catch (IOException e) {
+                // 预期的异常
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptClassFile() throws IOException {
+        byte[] bytes = classBytes(Constants.class);
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 0;
+        assertInvalid(badMagic);
+
+        // 第一个常量池项的类型
+        byte[] badTag = bytes.clone();
+        badTag[10] = (byte) 0xff;
+        assertInvalid(badTag);
+
+        // 常量池数量大于实际数量，读取时越界或读到无法识别的类型
+        byte[] badCount = bytes.clone();
+        badCount[8] = (byte) 0xff;
+        assertInvalid(badCount);
+
+        // 每个字节依次改为0xff，只允许抛出IOException
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] corrupt = bytes.clone();
+            corrupt[i] = (byte) 0xff;
+            try {
+                ClassMetadata.read(new ByteArrayInputStream(corrupt));
+            } catch (IOException e) {
+                // 可以识别为无效的class文件
+            }
+        }
+    }
+
+    private static void assertInvalid(byte[] bytes) {
+        try {
+            ClassMetadata.read(new ByteArrayInputStream(bytes));
+            fail("invalid class file");
+        } catch (IOException e) {
+            // 预期的异常
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.xlp;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xlp.scanner.pkg.ClassPathPkgScanner;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ClassPathPkgScanner#scan}在扫描过程中逐个回调扫描结果，回调返回false后停止扫描
+ */
+public class ClassPathPkgScannerTest {
+    private static Path dir;
+
+    private static URLClassLoader classLoader;
+
+    private static final Set<String> CLASS_NAMES = new HashSet<>();
+
+    @BeforeClass
+    public static void createClassFiles() throws IOException {
+        dir = Files.createTempDirectory("xlp-scan");
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 20; j++) {
+                Path classFile = dir.resolve("scantest/p" + i + "/C" + j + ".class");
+                Files.createDirectories(classFile.getParent());
+                Files.write(classFile, new byte[0]);
+                CLASS_NAMES.add("scantest.p" + i + ".C" + j);
+            }
+        }
+        classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null);
+    }
+
+    @AfterClass
+    public static void deleteClassFiles() throws IOException {
+        classLoader.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static ClassPathPkgScanner newScanner(int parallelism) {
+        ClassPathPkgScanner scanner = new ClassPathPkgScanner(classLoader);
+        scanner.setScanNestedJars(false);
+        scanner.setParallelism(parallelism);
+        return scanner;
+    }
+
+    @Test
+    public void testScanVisitsEachClass() throws IOException {
+        for (int parallelism : new int[]{1, 4}) {
+            ClassPathPkgScanner scanner = newScanner(parallelism);
+            List<String> visited = new ArrayList<>();
+            scanner.scan("scantest", null, visited::add);
+            assertEquals(CLASS_NAMES.size(), visited.size());
+            assertEquals(CLASS_NAMES, new HashSet<>(visited));
+            assertEquals(CLASS_NAMES, scanner.scanner("scantest"));
+        }
+    }
+
+    @Test
+    public void testScanStopsWhenVisitorReturnsFalse() throws IOException {
+        for (int parallelism : new int[]{1, 4}) {
+            List<String> visited = new ArrayList<>();
+            newScanner(parallelism).scan("scantest", null, className -> {
+                visited.add(className);
+                return visited.size() < 3;
+            });
+            assertEquals(3, visited.size());
+            assertTrue(CLASS_NAMES.containsAll(visited));
+        }
+    }
+
+    @Test
+    public void testScanClassPathStopsWhenVisitorReturnsFalse() throws IOException {
+        ClassPathPkgScanner scanner = newScanner(4);
+        scanner.setClassPathScanThreads(4);
+        List<String> visited = new ArrayList<>();
+        scanner.scan("", null, className -> {
+            visited.add(className);
+            return false;
+        });
+        assertEquals(1, visited.size());
+    }
+}
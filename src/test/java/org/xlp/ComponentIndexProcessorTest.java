@@ -0,0 +1,114 @@
+package org.xlp;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.xlp.bean.processor.ComponentIndexProcessor;
+import org.xlp.scanner.constants.ScannerPkgConsts;
+import org.xlp.scanner.index.ComponentIndex;
+import org.xlp.scanner.pkg.ComponentIndexScanner;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ComponentIndexProcessor}增量编译时合并索引文件，及{@link ComponentIndexScanner}读取生成的索引
+ */
+public class ComponentIndexProcessorTest {
+    private static final String COMPONENT = "@org.xlp.bean.annotation.Component";
+
+    private File sourceDir;
+
+    private File classDir;
+
+    /**
+     * 编译给定的源文件，输出目录同时作为类路径，模拟增量编译
+     * @param sources 相对路径及源码
+     */
+    private void compile(String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<File> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < sources.length; i += 2) {
+            File file = new File(sourceDir, sources[i]);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), sources[i + 1].getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(file);
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
+            List<String> options = Arrays.asList("-classpath",
+                    classDir.getPath() + File.pathSeparator + System.getProperty("java.class.path"),
+                    "-d", classDir.getPath());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new ComponentIndexProcessor()));
+            assertTrue(task.call());
+        }
+    }
+
+    /**
+     * 读取输出目录中的索引文件，key: 类全路径名称
+     */
+    private Map<String, ComponentIndex.Entry> readIndex() throws IOException {
+        Map<String, ComponentIndex.Entry> entries = new TreeMap<>();
+        try (InputStream in = Files.newInputStream(new File(classDir,
+                ScannerPkgConsts.COMPONENT_INDEX_LOCATION).toPath())) {
+            for (ComponentIndex.Entry entry : ComponentIndex.read(in)) {
+                entries.put(entry.getClassName(), entry);
+            }
+        }
+        return entries;
+    }
+
+    private static String source(String className, String annotation) {
+        return "package idx;\n" + annotation + "\npublic class " + className + " {}\n";
+    }
+
+    @Test
+    public void testIncrementalCompilationAndScan() throws Exception {
+        Assume.assumeTrue(ToolProvider.getSystemJavaCompiler() != null);
+        File dir = Files.createTempDirectory("xlp-index").toFile();
+        sourceDir = new File(dir, "src");
+        classDir = new File(dir, "classes");
+        assertTrue(classDir.mkdirs());
+
+        compile("idx/A.java", source("A", COMPONENT + "(id = \"a\")"),
+                "idx/B.java", source("B", COMPONENT),
+                "idx/C.java", source("C", COMPONENT + "(lazy = true)"),
+                "idx/Plain.java", source("Plain", ""));
+        Map<String, ComponentIndex.Entry> entries = readIndex();
+        assertEquals(new HashSet<>(Arrays.asList("idx.A", "idx.B", "idx.C")), entries.keySet());
+        assertEquals("a", entries.get("idx.A").getId());
+        assertTrue(entries.get("idx.C").isLazy());
+
+        // 重新编译的B去掉了@Component，C被删除，本次编译没有任何组件，A没有被重新编译
+        assertTrue(new File(classDir, "idx/C.class").delete());
+        compile("idx/B.java", source("B", ""));
+        assertEquals(Collections.singleton("idx.A"), readIndex().keySet());
+
+        // Plain加上@Component，A保持不变
+        compile("idx/Plain.java", source("Plain", COMPONENT + "(singleton = false)"));
+        entries = readIndex();
+        assertEquals(new HashSet<>(Arrays.asList("idx.A", "idx.Plain")), entries.keySet());
+        assertEquals("a", entries.get("idx.A").getId());
+        assertFalse(entries.get("idx.Plain").isSingleton());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classDir.toURI().toURL()}, null)) {
+            ComponentIndexScanner scanner = new ComponentIndexScanner(classLoader);
+            assertNotNull(scanner.getComponentIndex());
+            assertEquals(new HashSet<>(Arrays.asList("idx.A", "idx.Plain")), scanner.scanner("idx"));
+            assertTrue(scanner.scanner("other").isEmpty());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.xlp;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.xlp.bean.annotation.AutoFill;
+import org.xlp.bean.base.IBeansContainer;
+import org.xlp.bean.impl.DefaultBeansContainer;
+import org.xlp.bean.processor.ComponentWiringProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 比较{@link ComponentWiringProcessor}生成的容器与反射创建的容器的装配结果
+ */
+public class ComponentWiringProcessorTest {
+    private static final String WIRING_CLASS_NAME = "wiring.GeneratedBeansContainer";
+
+    private static final String[][] SOURCES = {
+            {"wiring/Repo.java", "package wiring;\npublic interface Repo {}\n"},
+            {"wiring/Created.java", "package wiring;\n"
+                    + "public final class Created {\n"
+                    + "    public static final java.util.Map<Object, Boolean> PREBUILT =\n"
+                    + "            java.util.Collections.synchronizedMap(new java.util.IdentityHashMap<>());\n"
+                    + "    static void record(Object bean) {\n"
+                    + "        boolean prebuilt = false;\n"
+                    + "        for (StackTraceElement element : new Throwable().getStackTrace()) {\n"
+                    + "            prebuilt |= element.getMethodName().equals(\"createPrebuiltSingletons\");\n"
+                    + "        }\n"
+                    + "        PREBUILT.put(bean, prebuilt);\n"
+                    + "    }\n"
+                    + "}\n"},
+            {"wiring/JdbcRepo.java", "package wiring;\n"
+                    + "@org.xlp.bean.annotation.Component(id = \"jdbcRepo\")\n"
+                    + "public class JdbcRepo implements Repo {\n"
+                    + "    public JdbcRepo() { Created.record(this); }\n"
+                    + "}\n"},
+            {"wiring/Missing.java", "package wiring;\npublic class Missing {}\n"},
+            {"wiring/Helper.java", "package wiring;\n"
+                    + "@org.xlp.bean.annotation.Component(singleton = false)\n"
+                    + "public class Helper {}\n"},
+            {"wiring/Cache.java", "package wiring;\n"
+                    + "@org.xlp.bean.annotation.Component(lazy = true)\n"
+                    + "public class Cache {}\n"},
+            {"wiring/Service.java", "package wiring;\n"
+                    + "import org.xlp.bean.annotation.AutoFill;\n"
+                    + "@org.xlp.bean.annotation.Component\n"
+                    + "public class Service {\n"
+                    + "    @AutoFill private Repo repo;\n"
+                    + "    @AutoFill(refId = \"jdbcRepo\") private Object byId;\n"
+                    + "    @AutoFill(required = false) private Missing missing;\n"
+                    + "    @AutoFill private String name;\n"
+                    + "    public void setRepo(Repo repo) { this.repo = repo; }\n"
+                    + "    public void setById(Object byId) { this.byId = byId; }\n"
+                    + "    public void setMissing(Missing missing) { this.missing = missing; }\n"
+                    + "    public void setName(String name) { this.name = name; }\n"
+                    + "    public Service() { Created.record(this); }\n"
+                    + "}\n"},
+            {"wiring/Controller.java", "package wiring;\n"
+                    + "import org.xlp.bean.annotation.AutoFill;\n"
+                    + "@org.xlp.bean.annotation.Component\n"
+                    + "public class Controller {\n"
+                    + "    @AutoFill private Service service;\n"
+                    + "    @AutoFill private Helper helper;\n"
+                    + "    public void setService(Service service) { this.service = service; }\n"
+                    + "    public void setHelper(Helper helper) { this.helper = helper; }\n"
+                    + "}\n"}
+    };
+
+    private static final String[] COMPONENT_CLASS_NAMES = {
+            "wiring.JdbcRepo", "wiring.Helper", "wiring.Cache", "wiring.Service", "wiring.Controller"
+    };
+
+    @Test
+    public void testGeneratedWiringMatchesReflectiveContainer() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeTrue(compiler != null);
+
+        File dir = Files.createTempDirectory("xlp-wiring").toFile();
+        File sourceDir = new File(dir, "src");
+        File classDir = new File(dir, "classes");
+        assertTrue(classDir.mkdirs());
+        List<File> sourceFiles = new ArrayList<>();
+        for (String[] source : SOURCES) {
+            File file = new File(sourceDir, source[0]);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), source[1].getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(file);
+        }
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                    "-d", classDir.getPath(), "-s", classDir.getPath(),
+                    "-A" + ComponentWiringProcessor.WIRING_CLASS_OPTION + "=" + WIRING_CLASS_NAME);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new ComponentWiringProcessor()));
+            assertTrue(task.call());
+        }
+
+        String generated = new String(Files.readAllBytes(new File(classDir,
+                WIRING_CLASS_NAME.replace('.', '/') + ".java").toPath()), StandardCharsets.UTF_8);
+        assertTrue(generated.contains("new wiring.JdbcRepo()"));
+        assertTrue(generated.contains("new wiring.Service()"));
+        // 依赖非单例bean，由容器创建
+        assertFalse(generated.contains("new wiring.Controller()"));
+        // 延迟加载且没有被依赖，不预先创建
+        assertFalse(generated.contains("new wiring.Cache()"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classDir.toURI().toURL()},
+                getClass().getClassLoader())) {
+            DefaultBeansContainer generatedContainer = (DefaultBeansContainer) classLoader
+                    .loadClass(WIRING_CLASS_NAME).getConstructor().newInstance();
+            generatedContainer.createBeans();
+            // 预先创建的单例各只被构造一次，且容器中注册的就是这些实例
+            Map<Object, Boolean> created = createdBeans(classLoader);
+            assertEquals(2, created.size());
+            for (String className : new String[]{"wiring.JdbcRepo", "wiring.Service"}) {
+                Object bean = generatedContainer.getBean(classLoader.loadClass(className));
+                assertEquals(className, Boolean.TRUE, created.get(bean));
+            }
+            created.clear();
+
+            DefaultBeansContainer reflectiveContainer = new DefaultBeansContainer();
+            for (String className : COMPONENT_CLASS_NAMES) {
+                reflectiveContainer.addBeanDefinition(classLoader.loadClass(className));
+            }
+            reflectiveContainer.createBeans();
+            assertEquals(2, created.size());
+            assertFalse(created.containsValue(Boolean.TRUE));
+
+            assertEquals(describeWiring(reflectiveContainer, classLoader),
+                    describeWiring(generatedContainer, classLoader));
+        }
+    }
+
+    /**
+     * 获取编译的组件记录的构造实例，value: 是否在createPrebuiltSingletons中构造
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Boolean> createdBeans(ClassLoader classLoader) throws Exception {
+        return (Map<Object, Boolean>) classLoader.loadClass("wiring.Created").getField("PREBUILT").get(null);
+    }
+
+    /**
+     * 描述每个单例组件的{@link AutoFill}字段注入的对象
+     */
+    private Map<String, String> describeWiring(IBeansContainer container, ClassLoader classLoader)
+            throws Exception {
+        Map<String, String> wiring = new TreeMap<>();
+        for (String className : new String[]{"wiring.Service", "wiring.Controller"}) {
+            Class<?> beanClass = classLoader.loadClass(className);
+            Object bean = container.getBean(beanClass);
+            for (Field field : beanClass.getDeclaredFields()) {
+                if (field.getAnnotation(AutoFill.class) == null){
+                    continue;
+                }
+                field.setAccessible(true);
+                Object value = field.get(bean);
+                String description;
+                if (value == null){
+                    description = "null";
+                } else if (value == container.getBean(value.getClass())){
+                    description = "singleton:" + value.getClass().getName();
+                } else {
+                    description = "instance:" + value.getClass().getName();
+                }
+                wiring.put(className + "#" + field.getName(), description);
+            }
+        }
+        assertEquals(6, wiring.size());
+        return wiring;
+    }
+}
@@ -0,0 +1,591 @@
+package org.xlp;
+
+import org.junit.Test;
+import org.xlp.bean.annotation.AutoFill;
+import org.xlp.bean.annotation.Component;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.base.IBeansContainer;
+import org.xlp.bean.exception.BeanBaseException;
+import org.xlp.bean.exception.CircularDependencyException;
+import org.xlp.bean.exception.MultiplyBeanException;
+import org.xlp.bean.exception.NotSuchBeanException;
+import org.xlp.bean.impl.ComponentAnnotationBeanDefinition;
+import org.xlp.bean.impl.CustomClassOfBeanDefinition;
+import org.xlp.bean.impl.DefaultBeansContainer;
+import org.xlp.bean.impl.FrozenBeanFactory;
+import org.xlp.scanner.watch.ClassChangeEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link DefaultBeansContainer}创建单例bean及属性注入
+ */
+public class DefaultBeansContainerTest {
+    /**
+     * 每个类型构造函数的调用次数
+     */
+    private static final Map<Class<?>, AtomicInteger> CONSTRUCTED = new ConcurrentHashMap<>();
+
+    private static void constructed(Object bean){
+        CONSTRUCTED.computeIfAbsent(bean.getClass(), key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static int constructedCount(Class<?> beanClass){
+        AtomicInteger count = CONSTRUCTED.get(beanClass);
+        return count == null ? 0 : count.get();
+    }
+
+    @Component
+    public static class Shared {
+        public Shared() { constructed(this); }
+    }
+
+    @Component
+    public static class Left {
+        @AutoFill private Shared shared;
+        public Left() { constructed(this); }
+        public void setShared(Shared shared) { this.shared = shared; }
+    }
+
+    @Component
+    public static class Right {
+        @AutoFill private Shared shared;
+        public Right() { constructed(this); }
+        public void setShared(Shared shared) { this.shared = shared; }
+    }
+
+    @Component
+    public static class Top {
+        @AutoFill private Left left;
+        @AutoFill private Right right;
+        @AutoFill private Shared shared;
+        public Top() { constructed(this); }
+        public void setLeft(Left left) { this.left = left; }
+        public void setRight(Right right) { this.right = right; }
+        public void setShared(Shared shared) { this.shared = shared; }
+    }
+
+    public interface Store {
+    }
+
+    @Component
+    public static class MemStore implements Store {
+    }
+
+    @Component(id = "dbStore")
+    public static class DbStore implements Store {
+    }
+
+    @Component
+    public static class StoreClient {
+        @AutoFill private MemStore memStore;
+        @AutoFill(refId = "dbStore") private Store byId;
+        public void setMemStore(MemStore memStore) { this.memStore = memStore; }
+        public void setById(Store byId) { this.byId = byId; }
+    }
+
+    @Component
+    public static class CycleA {
+        @AutoFill private CycleB cycleB;
+        public CycleA() { awaitCycleBarrier(); }
+        public void setCycleB(CycleB cycleB) { this.cycleB = cycleB; }
+    }
+
+    @Component
+    public static class CycleB {
+        @AutoFill private CycleA cycleA;
+        public CycleB() { awaitCycleBarrier(); }
+        public void setCycleA(CycleA cycleA) { this.cycleA = cycleA; }
+    }
+
+    /**
+     * 不为null时，{@link CycleA}与{@link CycleB}的构造函数在此等待，保证两个线程同时处于创建中
+     */
+    private static volatile CyclicBarrier cycleBarrier;
+
+    private static void awaitCycleBarrier(){
+        CyclicBarrier barrier = cycleBarrier;
+        if (barrier != null){
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Component
+    public static class Slow {
+        public Slow() {
+            constructed(this);
+            CountDownLatch entered = slowEntered;
+            if (entered != null) {
+                entered.countDown();
+                try {
+                    assertTrue(slowGate.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    @Component
+    public static class AfterSlow {
+        @AutoFill private Slow slow;
+        public AfterSlow() { constructed(this); }
+        public void setSlow(Slow slow) { this.slow = slow; }
+    }
+
+    /**
+     * 不为null时，{@link Slow}的构造函数通知已进入，并等待{@link #slowGate}打开
+     */
+    private static volatile CountDownLatch slowEntered;
+
+    private static volatile CountDownLatch slowGate;
+
+    @Component(singleton = false)
+    public static class PrototypeCycle {
+        @AutoFill private PrototypeCycle next;
+        public void setNext(PrototypeCycle next) { this.next = next; }
+    }
+
+    @Component
+    public static class BadRef {
+        @AutoFill(refId = "noSuchBean") private Object missing;
+        public void setMissing(Object missing) { this.missing = missing; }
+    }
+
+    public static class Plain {
+    }
+
+    @Component(lazy = true)
+    public static class LazySingleton {
+        public LazySingleton() { constructed(this); }
+    }
+
+    @Component(id = "prototype", singleton = false)
+    public static class Prototype {
+        @AutoFill private Shared shared;
+        public Prototype() { constructed(this); }
+        public void setShared(Shared shared) { this.shared = shared; }
+    }
+
+    public interface Repository<T> {
+    }
+
+    @Component
+    public static class StringRepository implements Repository<String> {
+    }
+
+    @Component
+    public static class IntegerRepository implements Repository<Integer> {
+    }
+
+    /**
+     * 重新加载当前测试类及其内部类的类加载器，其他类由父类加载器加载
+     */
+    private static ClassLoader reloading() {
+        String outerClassName = DefaultBeansContainerTest.class.getName();
+        return new ClassLoader(DefaultBeansContainerTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.equals(outerClassName) && !name.startsWith(outerClassName + "$")) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> loaded = findLoadedClass(name);
+                    if (loaded == null) {
+                        byte[] bytes = classBytes(name);
+                        loaded = defineClass(name, bytes, 0, bytes.length);
+                    }
+                    return loaded;
+                }
+            }
+        };
+    }
+
+    private static byte[] classBytes(String className) throws ClassNotFoundException {
+        String resourceName = className.replace('.', '/') + ".class";
+        try (InputStream in = DefaultBeansContainerTest.class.getClassLoader().getResourceAsStream(resourceName)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+        }
+    }
+
+    private static List<ClassChangeEvent> classChange(ClassChangeEvent.Type type, Class<?> beanClass) {
+        return Collections.singletonList(new ClassChangeEvent(type, beanClass.getName(), null));
+    }
+
+    private static final Class<?>[] DIAMOND = {Top.class, Left.class, Right.class, Shared.class};
+
+    @Test
+    public void testParallelCreateBeansCreatesEachSingletonOnce() {
+        for (int i = 0; i < 20; i++) {
+            CONSTRUCTED.clear();
+            DefaultBeansContainer container = new DefaultBeansContainer();
+            container.setCreateBeansParallelism(4);
+            for (Class<?> beanClass : DIAMOND) {
+                container.addBeanDefinition(beanClass, false);
+            }
+            container.createBeans();
+
+            for (Class<?> beanClass : DIAMOND) {
+                assertEquals(beanClass.getName(), 1, constructedCount(beanClass));
+            }
+            Shared shared = container.getBean(Shared.class);
+            Top top = container.getBean(Top.class);
+            assertSame(shared, top.shared);
+            assertSame(container.getBean(Left.class), top.left);
+            assertSame(container.getBean(Right.class), top.right);
+            assertSame(shared, top.left.shared);
+            assertSame(shared, top.right.shared);
+        }
+    }
+
+    @Test
+    public void testAutoFillResolvesByRefIdOrFieldClass() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(MemStore.class, false);
+        container.addBeanDefinition(DbStore.class, false);
+        container.addBeanDefinition(StoreClient.class, false);
+        container.createBeans();
+
+        StoreClient client = container.getBean(StoreClient.class);
+        assertSame(container.getBean(MemStore.class), client.memStore);
+        assertSame(container.getBean(DbStore.class), client.byId);
+    }
+
+    @Test
+    public void testGetBeanIgnoresUnrelatedBrokenDefinitions() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        for (Class<?> beanClass : DIAMOND) {
+            container.addBeanDefinition(beanClass, false);
+        }
+        container.addBeanDefinition(CycleA.class, false);
+        container.addBeanDefinition(CycleB.class, false);
+        container.addBeanDefinition(BadRef.class, false);
+
+        Top top = container.getBean(Top.class);
+        assertSame(container.getBean(Shared.class), top.shared);
+        try {
+            container.getBean(CycleA.class);
+            fail("CycleA -> CycleB -> CycleA");
+        } catch (CircularDependencyException e) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void testPrototypeCycleIsDetected() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(PrototypeCycle.class, false);
+        try {
+            container.getBean(PrototypeCycle.class);
+            fail("PrototypeCycle -> PrototypeCycle");
+        } catch (CircularDependencyException e) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void testCycleAcrossThreadsFailsInsteadOfDeadlocking() throws Exception {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(CycleA.class, false);
+        container.addBeanDefinition(CycleB.class, false);
+        cycleBarrier = new CyclicBarrier(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = pool.submit(() -> container.getBean(CycleA.class));
+            Future<?> b = pool.submit(() -> container.getBean(CycleB.class));
+            for (Future<?> future : new Future<?>[]{a, b}) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    fail("CycleA -> CycleB -> CycleA");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause().toString(), e.getCause() instanceof CircularDependencyException);
+                }
+            }
+        } finally {
+            cycleBarrier = null;
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testApplyClassChangesKeepsSettingsOfReloadedDefinition() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        CustomClassOfBeanDefinition definition = new CustomClassOfBeanDefinition(Plain.class, "plain") {
+            @Override
+            public boolean isSingleton() {
+                return false;
+            }
+        };
+        container.addBeanDefinition(definition, false);
+
+        List<IBeanDefinition> changed = container.applyClassChanges(
+                classChange(ClassChangeEvent.Type.MODIFIED, Plain.class), reloading());
+        assertEquals(2, changed.size());
+        assertSame(definition, changed.get(0));
+        IBeanDefinition reloaded = changed.get(1);
+        assertNotSame(Plain.class, reloaded.getBeanClass());
+        assertEquals(Plain.class.getName(), reloaded.getBeanClassName());
+        assertEquals("plain", reloaded.getBeanId());
+        assertFalse(reloaded.isSingleton());
+        assertFalse(reloaded.isLazy());
+
+        // beanId指向新的bean定义及新加载的类
+        Object bean = container.getBean("plain");
+        assertSame(reloaded.getBeanClass(), bean.getClass());
+        assertNotSame(bean, container.getBean("plain"));
+
+        container.applyClassChanges(classChange(ClassChangeEvent.Type.REMOVED, Plain.class),
+                getClass().getClassLoader());
+        assertEquals(IBeansContainer.BeanDefinitionExistType.NONE, container.judgeBeanDefinition(reloaded));
+        assertEquals(IBeansContainer.BeanDefinitionExistType.NONE, container.judgeBeanDefinition(definition));
+    }
+
+    @Test
+    public void testApplyClassChangesKeepsDefinitionWhenClassFailsToLoad() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(new CustomClassOfBeanDefinition(Plain.class, "plain"), false);
+        Object bean = container.getBean("plain");
+        // 例如class文件尚未写完
+        ClassLoader broken = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Class<?> loadClass(String name) {
+                throw new ClassFormatError("Truncated class file");
+            }
+        };
+        assertTrue(container.applyClassChanges(classChange(ClassChangeEvent.Type.MODIFIED, Plain.class), broken)
+                .isEmpty());
+        assertSame(bean, container.getBean("plain"));
+        assertSame(bean, container.getBean(Plain.class));
+    }
+
+    @Test
+    public void testRefreshRecreatesOnlyAffectedSingletons() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        IBeanDefinition left = new ComponentAnnotationBeanDefinition(Left.class);
+        IBeanDefinition top = new ComponentAnnotationBeanDefinition(Top.class);
+        container.addBeanDefinition(left, false);
+        container.addBeanDefinition(top, false);
+        container.addBeanDefinition(Right.class, false);
+        container.addBeanDefinition(Shared.class, false);
+        container.addBeanDefinition(MemStore.class, false);
+        container.addBeanDefinition(DbStore.class, false);
+        container.addBeanDefinition(StoreClient.class, false);
+        container.createBeans();
+        Top oldTop = container.getBean(Top.class);
+        Shared shared = container.getBean(Shared.class);
+        Right right = container.getBean(Right.class);
+        StoreClient client = container.getBean(StoreClient.class);
+
+        // 只校验受影响的bean定义，与之无关的错误bean定义不影响刷新
+        container.addBeanDefinition(CycleA.class, false);
+        container.addBeanDefinition(CycleB.class, false);
+        container.addBeanDefinition(BadRef.class, false);
+        IBeanDefinition newLeft = new ComponentAnnotationBeanDefinition(Left.class);
+        container.addBeanDefinition(newLeft, true);
+        List<IBeanDefinition> affected = container.refresh(Arrays.asList(left, newLeft));
+        assertEquals(new HashSet<>(Arrays.asList(left, newLeft, top)), new HashSet<>(affected));
+
+        // 未受影响的单例bean保持不变
+        assertSame(shared, container.getBean(Shared.class));
+        assertSame(right, container.getBean(Right.class));
+        assertSame(client, container.getBean(StoreClient.class));
+        assertSame(container.getBean(MemStore.class), client.memStore);
+
+        Top newTop = container.getBean(Top.class);
+        assertNotSame(oldTop, newTop);
+        assertNotSame(oldTop.left, newTop.left);
+        assertSame(container.getBean(Left.class), newTop.left);
+        assertSame(right, newTop.right);
+        assertSame(shared, newTop.shared);
+        assertSame(shared, newTop.left.shared);
+    }
+
+    /**
+     * 在{@link DefaultBeansContainer#createBeans()}执行中重置容器，或获取bean
+     */
+    private void runDuringCreateBeans(DefaultBeansContainer container, Callable<?> action) throws Exception {
+        slowEntered = new CountDownLatch(1);
+        slowGate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> build = pool.submit(() -> {
+                container.createBeans();
+                return null;
+            });
+            assertTrue(slowEntered.await(10, TimeUnit.SECONDS));
+            slowEntered = null;
+            Future<?> during = pool.submit(action);
+            try {
+                during.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 等待createBeans()完成
+            }
+            slowGate.countDown();
+            build.get(10, TimeUnit.SECONDS);
+            during.get(10, TimeUnit.SECONDS);
+        } finally {
+            slowEntered = null;
+            slowGate.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetBeanDuringCreateBeansUsesCurrentRegistry() throws Exception {
+        CONSTRUCTED.clear();
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(Shared.class, false);
+        container.addBeanDefinition(Slow.class, false);
+        container.addBeanDefinition(AfterSlow.class, false);
+        Shared oldShared = container.getBean(Shared.class);
+        Object[] during = new Object[1];
+        runDuringCreateBeans(container, () -> during[0] = container.getBean(Shared.class));
+        // 创建期间获取到旧的bean，创建完成后整体替换为新的一代
+        assertSame(oldShared, during[0]);
+        Shared newShared = container.getBean(Shared.class);
+        assertNotSame(oldShared, newShared);
+        assertSame(container.getBean(Slow.class), container.<AfterSlow>getBean(AfterSlow.class).slow);
+        assertEquals(2, constructedCount(Shared.class));
+        assertEquals(1, constructedCount(Slow.class));
+        assertEquals(1, constructedCount(AfterSlow.class));
+    }
+
+    @Test
+    public void testResetDuringCreateBeansWaitsForIt() throws Exception {
+        CONSTRUCTED.clear();
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(Slow.class, false);
+        container.addBeanDefinition(AfterSlow.class, false);
+        boolean[] buildDoneBeforeReset = new boolean[1];
+        runDuringCreateBeans(container, () -> {
+            container.reset();
+            // createBeans()已发布完整的新一代注册信息
+            buildDoneBeforeReset[0] = constructedCount(AfterSlow.class) == 1;
+            return null;
+        });
+        assertTrue(buildDoneBeforeReset[0]);
+        // 重置后重新创建，每个单例只创建一次
+        AfterSlow afterSlow = container.getBean(AfterSlow.class);
+        assertSame(container.getBean(Slow.class), afterSlow.slow);
+        assertSame(afterSlow, container.getBean(AfterSlow.class));
+        assertEquals(2, constructedCount(Slow.class));
+        assertEquals(2, constructedCount(AfterSlow.class));
+    }
+
+    private static DefaultBeansContainer frozenFixture() {
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        for (Class<?> beanClass : DIAMOND) {
+            container.addBeanDefinition(beanClass, false);
+        }
+        for (Class<?> beanClass : new Class<?>[]{LazySingleton.class, Prototype.class, MemStore.class,
+                DbStore.class, StringRepository.class, IntegerRepository.class}) {
+            container.addBeanDefinition(beanClass, false);
+        }
+        return container;
+    }
+
+    private static void assertFails(Class<? extends Exception> exceptionClass, Runnable action) {
+        try {
+            action.run();
+            fail("expected " + exceptionClass.getSimpleName());
+        } catch (Exception e) {
+            assertTrue(e.toString(), exceptionClass.isInstance(e));
+        }
+    }
+
+    @Test
+    public void testFreezeCreatesLazySingletonsAndRejectsChanges() {
+        CONSTRUCTED.clear();
+        DefaultBeansContainer container = frozenFixture();
+        FrozenBeanFactory factory = container.freeze();
+        assertTrue(container.isFrozen());
+        assertSame(factory, container.freeze());
+        // 延迟加载的单例在冻结时创建，之后获取不再创建
+        assertEquals(1, constructedCount(LazySingleton.class));
+        assertSame(container.getBean(LazySingleton.class), factory.getBean(LazySingleton.class));
+        assertEquals(1, constructedCount(LazySingleton.class));
+        assertEquals(0, constructedCount(Prototype.class));
+
+        Shared shared = container.getBean(Shared.class);
+        assertFails(BeanBaseException.class, () -> container.addBeanDefinition(Plain.class, false));
+        assertFails(BeanBaseException.class, () -> container.removeBeanDefinition(Shared.class.getName()));
+        assertFails(BeanBaseException.class, () -> container.addBean(new Plain(), "plain", false));
+        assertFails(BeanBaseException.class, () -> container.addBean(new Shared(), Shared.class, true));
+        assertFails(BeanBaseException.class, container::createBeans);
+        assertFails(BeanBaseException.class, container::reset);
+        assertFails(BeanBaseException.class, () -> container.refresh(Collections.emptyList()));
+        // 修改失败后容器及只读工厂保持不变
+        assertSame(shared, container.getBean(Shared.class));
+        assertSame(shared, factory.getBean(Shared.class));
+        assertFails(NotSuchBeanException.class, () -> factory.getBean("plain"));
+    }
+
+    @Test
+    public void testFrozenFactoryLookupsMatchContainer() {
+        DefaultBeansContainer container = frozenFixture();
+        FrozenBeanFactory factory = container.freeze();
+        assertSame(container.getBean("dbStore"), factory.getBean("dbStore"));
+        for (Class<?> beanClass : new Class<?>[]{Top.class, Left.class, Right.class, Shared.class,
+                LazySingleton.class, MemStore.class, DbStore.class, StringRepository.class}) {
+            Object bean = container.getBean(beanClass);
+            assertSame(beanClass.getName(), bean, factory.getBean(beanClass));
+            assertSame(beanClass.getName(), bean, factory.getBeanByClassName(beanClass.getName()));
+            assertEquals(container.isLazy(beanClass), factory.isLazy(beanClass));
+            assertEquals(container.isSingleton(beanClass), factory.isSingleton(beanClass));
+        }
+        // 按泛型类型查找
+        assertSame(container.getBean(StringRepository.class), container.getBean(Repository.class, String.class));
+        assertSame(container.getBean(Repository.class, String.class), factory.getBean(Repository.class, String.class));
+        assertSame(container.getBean(Repository.class, Integer.class),
+                factory.getBean(Repository.class, new Type[]{Integer.class}));
+        // 多个候选时都抛出异常
+        assertFails(MultiplyBeanException.class, () -> container.getBean(Store.class));
+        assertFails(MultiplyBeanException.class, () -> factory.getBean(Store.class));
+        assertFalse(factory.isSingleton("prototype"));
+        assertFalse(factory.isSingleton(Prototype.class));
+    }
+
+    @Test
+    public void testFrozenFactoryCreatesPrototypes() {
+        CONSTRUCTED.clear();
+        DefaultBeansContainer container = frozenFixture();
+        FrozenBeanFactory factory = container.freeze();
+        Shared shared = factory.getBean(Shared.class);
+        Prototype byClass = factory.getBean(Prototype.class);
+        Prototype byId = factory.getBean("prototype");
+        Prototype another = factory.getBean(Prototype.class);
+        // 每次获取都创建新的实例并注入依赖
+        assertEquals(3, constructedCount(Prototype.class));
+        assertNotSame(byClass, byId);
+        assertNotSame(byClass, another);
+        for (Prototype prototype : new Prototype[]{byClass, byId, another}) {
+            assertSame(shared, prototype.shared);
+        }
+        assertNotSame(byClass, container.getBean(Prototype.class));
+        assertEquals(4, constructedCount(Prototype.class));
+    }
+}
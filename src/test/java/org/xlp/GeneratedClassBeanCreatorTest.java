@@ -0,0 +1,142 @@
+package org.xlp;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.xlp.bean.annotation.AutoFill;
+import org.xlp.bean.annotation.Component;
+import org.xlp.bean.base.IBeanCreator;
+import org.xlp.bean.base.IBeanDefinition;
+import org.xlp.bean.creator.GeneratedClassBeanCreator;
+import org.xlp.bean.impl.ComponentAnnotationBeanDefinition;
+import org.xlp.bean.impl.DefaultBeansContainer;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link GeneratedClassBeanCreator}生成、加载并调用非单例bean的工厂类
+ * <p>隐藏类（java 15+）与Unsafe匿名类（java 8）分别测试，当前JVM不支持的方式跳过</p>
+ */
+public class GeneratedClassBeanCreatorTest {
+    @Component
+    public static class Dependency {
+    }
+
+    @Component(singleton = false)
+    public static class NoSetterPrototype {
+    }
+
+    @Component(singleton = false)
+    public static class SetterPrototype {
+        @AutoFill private Dependency dependency;
+        @AutoFill private Dependency fluent;
+        public void setDependency(Dependency dependency) { this.dependency = dependency; }
+        public SetterPrototype setFluent(Dependency fluent) { this.fluent = fluent; return this; }
+    }
+
+    /**
+     * 属性数量超过iconst_5，数组下标需用bipush
+     */
+    @Component(singleton = false)
+    public static class ManySetterPrototype {
+        @AutoFill private Dependency d0;
+        @AutoFill private Dependency d1;
+        @AutoFill private Dependency d2;
+        @AutoFill private Dependency d3;
+        @AutoFill private Dependency d4;
+        @AutoFill private Dependency d5;
+        @AutoFill private Dependency d6;
+        public void setD0(Dependency d0) { this.d0 = d0; }
+        public void setD1(Dependency d1) { this.d1 = d1; }
+        public void setD2(Dependency d2) { this.d2 = d2; }
+        public void setD3(Dependency d3) { this.d3 = d3; }
+        public void setD4(Dependency d4) { this.d4 = d4; }
+        public void setD5(Dependency d5) { this.d5 = d5; }
+        public void setD6(Dependency d6) { this.d6 = d6; }
+    }
+
+    /**
+     * 获取GeneratedClassBeanCreator中指定的类定义方式
+     * @param name hiddenClassDefiner 或 anonymousClassDefiner
+     * @return 当前JVM不支持返回null
+     */
+    private static Object classDefiner(String name) throws Exception {
+        Method method = GeneratedClassBeanCreator.class.getDeclaredMethod(name);
+        method.setAccessible(true);
+        return method.invoke(null);
+    }
+
+    private static GeneratedClassBeanCreator create(Class<?> beanClass, Object classDefiner) throws Exception {
+        Method create = null;
+        for (Method method : GeneratedClassBeanCreator.class.getDeclaredMethods()) {
+            if (method.getName().equals("create") && method.getParameterTypes().length == 2){
+                create = method;
+            }
+        }
+        assertNotNull(create);
+        create.setAccessible(true);
+        GeneratedClassBeanCreator creator = (GeneratedClassBeanCreator) create.invoke(null,
+                new ComponentAnnotationBeanDefinition(beanClass), classDefiner);
+        assertNotNull(beanClass.getName(), creator);
+        return creator;
+    }
+
+    private static void assertGeneratedFactories(Object classDefiner) throws Exception {
+        GeneratedClassBeanCreator noSetter = create(NoSetterPrototype.class, classDefiner);
+        Object first = noSetter.createBean();
+        assertTrue(first instanceof NoSetterPrototype);
+        assertNotSame(first, noSetter.createBean());
+        noSetter.inject(first, new Object[0]);
+
+        GeneratedClassBeanCreator setter = create(SetterPrototype.class, classDefiner);
+        SetterPrototype bean = setter.createBean();
+        Dependency dependency = new Dependency();
+        Dependency fluent = new Dependency();
+        setter.inject(bean, new Object[]{dependency, fluent});
+        assertSame(dependency, bean.dependency);
+        assertSame(fluent, bean.fluent);
+
+        GeneratedClassBeanCreator many = create(ManySetterPrototype.class, classDefiner);
+        ManySetterPrototype manyBean = many.createBean();
+        Dependency[] values = new Dependency[7];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Dependency();
+        }
+        many.inject(manyBean, values);
+        assertSame(values[0], manyBean.d0);
+        assertSame(values[5], manyBean.d5);
+        assertSame(values[6], manyBean.d6);
+    }
+
+    @Test
+    public void testHiddenClassFactory() throws Exception {
+        Object classDefiner = classDefiner("hiddenClassDefiner");
+        Assume.assumeTrue(classDefiner != null);
+        assertGeneratedFactories(classDefiner);
+    }
+
+    @Test
+    public void testAnonymousClassFactory() throws Exception {
+        Object classDefiner = classDefiner("anonymousClassDefiner");
+        Assume.assumeTrue(classDefiner != null);
+        assertGeneratedFactories(classDefiner);
+    }
+
+    @Test
+    public void testContainerUsesGeneratedFactoryForPrototypes() {
+        IBeanCreator beanCreator = new ComponentAnnotationBeanDefinition(SetterPrototype.class).getBeanCreator();
+        assertTrue(beanCreator.getClass().getName(), beanCreator instanceof GeneratedClassBeanCreator);
+
+        DefaultBeansContainer container = new DefaultBeansContainer();
+        container.addBeanDefinition(Dependency.class, false);
+        container.addBeanDefinition(SetterPrototype.class, false);
+        SetterPrototype first = container.getBean(SetterPrototype.class);
+        SetterPrototype second = container.getBean(SetterPrototype.class);
+        assertNotSame(first, second);
+        Dependency dependency = container.getBean(Dependency.class);
+        assertSame(dependency, first.dependency);
+        assertSame(dependency, first.fluent);
+        assertSame(dependency, second.dependency);
+    }
+}
@@ -0,0 +1,239 @@
+package org.xlp;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.jar.JarCentralDirectory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 使用生成的jar文件比较{@link JarCentralDirectory}与{@link JarFile#entries()}的结果：
+ * 普通jar文件、ZIP64格式的jar文件、头部附加了其他数据的jar文件，及中央目录结束记录损坏的jar文件
+ */
+public class JarCentralDirectoryTest {
+    private static final byte[] LAUNCH_SCRIPT = "#!/bin/bash\nexec java -jar \"$0\" \"$@\"\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 超过65535个条目时写入ZIP64中央目录结束记录
+     */
+    private static final int ZIP64_ENTRY_COUNT = 70000;
+
+    private static final String[] PACKAGE_NAMES = {"", "app", "app.sub", "z", "z.p7", "none"};
+
+    private static final List<File> FILES = new ArrayList<>();
+
+    private static File jar;
+
+    private static File prefixedJar;
+
+    private static File zip64Jar;
+
+    private static File prefixedZip64Jar;
+
+    @BeforeClass
+    public static void createJars() throws IOException {
+        List<String> names = new ArrayList<>(Arrays.asList("META-INF/MANIFEST.MF", "app/", "app/A.class",
+                "app/A$1.class", "app/B.class", "app/sub/", "app/sub/C.class", "app/sub/CTest.class",
+                "app/sub/D$Inner.class", "app/中文/类.class", "app/readme.txt", "app.class", "Root.class",
+                "lib/nested.jar", "applet/E.class"));
+        jar = writeJar(names, false);
+        prefixedJar = writeJar(names, true);
+
+        List<String> zip64Names = new ArrayList<>(names);
+        for (int i = 0; zip64Names.size() < ZIP64_ENTRY_COUNT; i++) {
+            zip64Names.add("z/p" + (i % 16) + "/C" + i + ".class");
+        }
+        zip64Jar = writeJar(zip64Names, false);
+        prefixedZip64Jar = writeJar(zip64Names, true);
+    }
+
+    @AfterClass
+    public static void deleteJars() {
+        for (File file : FILES) {
+            file.delete();
+        }
+    }
+
+    /**
+     * 生成jar文件，条目交替使用压缩及未压缩存储，部分条目带有扩展字段及注释
+     * @param prefixed 是否在文件头部附加启动脚本，附加后条目中的偏移量不再准确
+     */
+    private static File writeJar(List<String> names, boolean prefixed) throws IOException {
+        File file = File.createTempFile("xlp-cen", ".jar");
+        FILES.add(file);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (prefixed) {
+                out.write(LAUNCH_SCRIPT);
+            }
+            ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                byte[] content = name.endsWith("/") ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+                ZipEntry entry = new ZipEntry(name);
+                if (i % 2 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(content);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCompressedSize(content.length);
+                    entry.setCrc(crc.getValue());
+                }
+                if (i % 3 == 0) {
+                    entry.setExtra(new byte[]{(byte) 0xFE, (byte) 0xCA, 2, 0, 1, 2});
+                    entry.setComment("comment " + i);
+                }
+                zip.putNextEntry(entry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+            zip.setComment("archive comment");
+            zip.finish();
+        }
+        return file;
+    }
+
+    /**
+     * 使用{@link JarFile#entries()}获取指定包下满足过滤条件的class条目路径，不包括内部类
+     */
+    private static List<String> expectedClassPaths(File file, String packageName, ScanFilter filter)
+            throws IOException {
+        String prefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+        List<String> classPaths = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(prefix) && name.endsWith(".class")
+                        && name.indexOf('$', prefix.length()) < 0) {
+                    String classPath = name.substring(0, name.length() - ".class".length());
+                    if (filter == null || filter.acceptsClass(classPath, 0, classPath.length(), '/')) {
+                        classPaths.add(classPath);
+                    }
+                }
+            }
+        }
+        return classPaths;
+    }
+
+    private static List<String> toClassNames(List<String> classPaths) {
+        List<String> classNames = new ArrayList<>(classPaths.size());
+        for (String classPath : classPaths) {
+            classNames.add(classPath.replace('/', '.'));
+        }
+        return classNames;
+    }
+
+    private static void assertSameAsJarFile(File file) throws IOException {
+        assertSameAsJarFile(file, file);
+    }
+
+    /**
+     * @param reference 使用{@link JarFile}读取的、条目相同的jar文件
+     */
+    private static void assertSameAsJarFile(File file, File reference) throws IOException {
+        ScanFilter filter = new ScanFilter().excludePackages("app.sub.**").excludeSuffixes("Test");
+        for (String packageName : PACKAGE_NAMES) {
+            List<String> expected = expectedClassPaths(reference, packageName, null);
+            assertEquals(packageName, expected, JarCentralDirectory.findClassPaths(file, packageName));
+            assertEquals(packageName, toClassNames(expected), JarCentralDirectory.findClassNames(file, packageName));
+
+            expected = expectedClassPaths(reference, packageName, filter);
+            assertEquals(packageName, expected, JarCentralDirectory.findClassPaths(file, packageName, filter));
+            assertEquals(packageName, toClassNames(expected),
+                    JarCentralDirectory.findClassNames(file, packageName, filter));
+        }
+    }
+
+    @Test
+    public void testJar() throws IOException {
+        assertSameAsJarFile(jar);
+        assertEquals(Arrays.asList("app.A", "app.B", "app.sub.C", "app.sub.CTest", "app.中文.类"),
+                JarCentralDirectory.findClassNames(jar, "app"));
+    }
+
+    @Test
+    public void testZip64Jar() throws IOException {
+        byte[] bytes = Files.readAllBytes(zip64Jar.toPath());
+        assertTrue(lastIndexOf(bytes, new byte[]{0x50, 0x4b, 0x06, 0x06}) > 0);
+        assertSameAsJarFile(zip64Jar);
+    }
+
+    @Test
+    public void testPrefixedJar() throws IOException {
+        assertSameAsJarFile(prefixedJar);
+        // JarFile不能读取头部附加了其他数据的ZIP64文件，与未附加数据的相同jar文件比较
+        assertSameAsJarFile(prefixedZip64Jar, zip64Jar);
+    }
+
+    /**
+     * 中央目录结束记录损坏时抛出{@link IOException}，不返回错误的结果
+     */
+    @Test
+    public void testCorruptEndRecord() throws IOException {
+        byte[] bytes = Files.readAllBytes(jar.toPath());
+        int end = lastIndexOf(bytes, new byte[]{0x50, 0x4b, 0x05, 0x06});
+        assertTrue(end > 0);
+
+        // 签名损坏
+        byte[] corrupt = bytes.clone();
+        corrupt[end + 3] = 0;
+        assertCorrupt(corrupt);
+
+        // 注释长度与文件末尾不一致
+        corrupt = bytes.clone();
+        corrupt[end + 20]++;
+        assertCorrupt(corrupt);
+
+        // 中央目录大小超出文件
+        corrupt = bytes.clone();
+        corrupt[end + 15] = 0x7f;
+        assertCorrupt(corrupt);
+
+        // 截掉结束记录
+        assertCorrupt(Arrays.copyOf(bytes, end));
+    }
+
+    private static void assertCorrupt(byte[] bytes) throws IOException {
+        File file = File.createTempFile("xlp-cen-corrupt", ".jar");
+        FILES.add(file);
+        Files.write(file.toPath(), bytes);
+        try {
+            new JarFile(file).close();
+            fail("JarFile accepts the corrupt file");
+        } catch (IOException e) {
+            // 预期的异常
+        }
+        try {
+            JarCentralDirectory.findClassNames(file, "");
+            fail("corrupt end of central directory record");
+        } catch (IOException e) {
+            // 预期的异常
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte[] target) {
+        for (int i = bytes.length - target.length; i >= 0; i--) {
+            int j = 0;
+            while (j < target.length && bytes[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
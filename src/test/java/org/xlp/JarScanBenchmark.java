@@ -0,0 +1,89 @@
+package org.xlp;
+
+import org.xlp.scanner.pkg.ClassPathPkgScanner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * jar文件扫描基准测试，比较{@link ClassPathPkgScanner#findByJarFile(String, JarFile)}使用{@link JarFile#entries()}
+ * 与直接读取中央目录（{@link ClassPathPkgScanner#setReadJarCentralDirectory(boolean)}）的耗时
+ * <p>生成一个包含10万个条目的jar文件（含内部类及非class资源），直接运行main方法，不作为单元测试执行</p>
+ */
+public class JarScanBenchmark {
+    /**
+     * jar文件条目数量
+     */
+    private static final int ENTRY_COUNT = 100_000;
+
+    /**
+     * 包数量
+     */
+    private static final int PACKAGE_COUNT = 500;
+
+    /**
+     * 测试轮数
+     */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("xlp-scan-benchmark", ".jar");
+        file.deleteOnExit();
+        createJar(file);
+
+        ClassPathPkgScanner entriesScanner = new ClassPathPkgScanner();
+        ClassPathPkgScanner directoryScanner = new ClassPathPkgScanner();
+        directoryScanner.setReadJarCentralDirectory(true);
+
+        try (JarFile jarFile = new JarFile(file)) {
+            for (String packageName : new String[]{"", "com.example.p42"}) {
+                Set<String> expected = entriesScanner.findByJarFile(packageName, jarFile);
+                if (!expected.equals(directoryScanner.findByJarFile(packageName, jarFile))) {
+                    throw new IllegalStateException("扫描结果不一致：" + packageName);
+                }
+                System.out.printf("package [%s]: %d classes%n", packageName, expected.size());
+                // 预热
+                run(entriesScanner, packageName, jarFile);
+                run(directoryScanner, packageName, jarFile);
+                System.out.printf("%6s %18s %18s%n", "round", "entries(ms)", "directory(ms)");
+                for (int i = 1; i <= ROUNDS; i++) {
+                    System.out.printf("%6d %18.2f %18.2f%n", i, run(entriesScanner, packageName, jarFile),
+                            run(directoryScanner, packageName, jarFile));
+                }
+            }
+        }
+    }
+
+    private static double run(ClassPathPkgScanner scanner, String packageName, JarFile jarFile) {
+        long startTime = System.nanoTime();
+        scanner.findByJarFile(packageName, jarFile);
+        return (System.nanoTime() - startTime) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 生成jar文件：约85%为class，10%为内部类，5%为其他资源
+     */
+    private static void createJar(File file) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                String dir = "com/example/p" + (i % PACKAGE_COUNT) + "/";
+                String name;
+                if (i % 20 == 0) {
+                    name = dir + "config" + i + ".properties";
+                } else if (i % 10 == 1) {
+                    name = dir + "Type" + i + "$Inner.class";
+                } else {
+                    name = dir + "Type" + i + ".class";
+                }
+                out.putNextEntry(new ZipEntry(name));
+                out.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.xlp;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.pkg.ClassPathPkgScanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 使用生成的fat jar测试{@link ClassPathPkgScanner}直接读取嵌套的jar文件：
+ * 未压缩存储及压缩存储的嵌套jar文件、头部附加了启动脚本的fat jar、嵌套jar文件的url
+ */
+public class NestedJarScanTest {
+    private static File fatJar;
+
+    private static File prefixedFatJar;
+
+    @BeforeClass
+    public static void createFatJars() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("BOOT-INF/classes/app/Main.class", new byte[0]);
+        entries.put("BOOT-INF/lib/alpha.jar", jar("com/alpha/A.class", "com/alpha/A$1.class",
+                "com/alpha/sub/B.class", "META-INF/MANIFEST.MF"));
+        entries.put("BOOT-INF/lib/beta.jar", jar("com/beta/C.class", "com/alpha/D.class"));
+        entries.put("BOOT-INF/lib/sub/ignored.jar", jar("com/ignored/X.class"));
+        entries.put("lib/gamma.jar", jar("com/gamma/E.class", "com/gamma/ETest.class"));
+        // beta.jar压缩存储，其余未压缩存储
+        Set<String> deflated = Collections.singleton("BOOT-INF/lib/beta.jar");
+
+        fatJar = File.createTempFile("xlp-fat", ".jar");
+        try (OutputStream out = new FileOutputStream(fatJar)) {
+            writeZip(out, entries, deflated);
+        }
+        prefixedFatJar = File.createTempFile("xlp-fat-prefixed", ".jar");
+        try (OutputStream out = new FileOutputStream(prefixedFatJar)) {
+            out.write("#!/bin/bash\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8));
+            writeZip(out, entries, deflated);
+        }
+    }
+
+    @AfterClass
+    public static void deleteFatJars() {
+        fatJar.delete();
+        prefixedFatJar.delete();
+    }
+
+    @Test
+    public void testFindByNestedJars() throws IOException {
+        ClassPathPkgScanner scanner = new ClassPathPkgScanner();
+        Set<String> expected = set("com.alpha.A", "com.alpha.sub.B", "com.alpha.D", "com.beta.C",
+                "com.gamma.E", "com.gamma.ETest");
+        assertEquals(expected, scanner.findByNestedJars("", fatJar, null));
+        assertEquals(expected, scanner.findByNestedJars("", prefixedFatJar, null));
+        assertEquals(set("com.alpha.A", "com.alpha.sub.B", "com.alpha.D"),
+                scanner.findByNestedJars("com.alpha", fatJar, null));
+        assertEquals(set("com.alpha.A", "com.alpha.D", "com.beta.C", "com.gamma.E"),
+                scanner.findByNestedJars("", fatJar, new ScanFilter().excludePackages("com.alpha.sub.**")
+                        .excludeSuffixes("Test")));
+    }
+
+    @Test
+    public void testNestedJarDirectories() throws IOException {
+        ClassPathPkgScanner scanner = new ClassPathPkgScanner();
+        scanner.setNestedJarDirectories("lib");
+        assertEquals(set("com.gamma.E", "com.gamma.ETest"), scanner.findByNestedJars("", fatJar, null));
+        scanner.setNestedJarDirectories("BOOT-INF/lib/sub/");
+        assertEquals(set("com.ignored.X"), scanner.findByNestedJars("", fatJar, null));
+    }
+
+    @Test
+    public void testNestedJarUrl() throws IOException {
+        for (File file : new File[]{fatJar, prefixedFatJar}) {
+            String jarUrl = "jar:" + file.toURI();
+            ClassLoader classLoader = new ClassLoader(null) {
+                @Override
+                public Enumeration<URL> getResources(String name) throws IOException {
+                    return Collections.enumeration(Arrays.asList(
+                            new URL(jarUrl + "!/BOOT-INF/lib/alpha.jar!/" + name),
+                            new URL(jarUrl + "!/BOOT-INF/lib/beta.jar!/" + name)));
+                }
+            };
+            ClassPathPkgScanner scanner = new ClassPathPkgScanner(classLoader);
+            assertEquals(set("com.alpha.A", "com.alpha.sub.B", "com.alpha.D"), scanner.scanner("com.alpha"));
+        }
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static byte[] jar(String... names) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(name.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeZip(OutputStream out, Map<String, byte[]> entries, Set<String> deflated)
+            throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Map.Entry<String, byte[]> item : entries.entrySet()) {
+            byte[] content = item.getValue();
+            ZipEntry entry = new ZipEntry(item.getKey());
+            if (!deflated.contains(item.getKey())) {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(content.length);
+                entry.setCompressedSize(content.length);
+                entry.setCrc(crc.getValue());
+            }
+            zip.putNextEntry(entry);
+            zip.write(content);
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+}
@@ -0,0 +1,225 @@
+package org.xlp;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xlp.scanner.filter.ScanFilter;
+import org.xlp.scanner.pkg.ClassPathPkgScanner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ScanFilter}的包名称通配符、后缀条件，及跳过的包与接受的类在目录和jar文件扫描中保持一致
+ */
+public class ScanFilterTest {
+    private static final String[] CLASS_NAMES = {
+            "A", "app.A", "app.ATest", "app.service.UserService", "app.service.UserTestService",
+            "app.service.impl.UserServiceImpl", "app.gen.G", "app.gen.sub.H", "app.test.T", "app.x.test.U",
+            "app.testing.V", "app.abc.W", "app.a1c.X", "app.ac.Y", "app.abbc.Z", "app.x.impl.I",
+            "app.x.y.impl.J", "lib.impl.K"
+    };
+
+    private static Path dir;
+
+    private static File jarFile;
+
+    @BeforeClass
+    public static void createClassFiles() throws IOException {
+        dir = Files.createTempDirectory("xlp-filter");
+        jarFile = File.createTempFile("xlp-filter", ".jar");
+        Set<String> directories = new TreeSet<>();
+        for (String className : CLASS_NAMES) {
+            String path = className.replace('.', '/');
+            Path classFile = dir.resolve(path + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, new byte[0]);
+            for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+                directories.add(path.substring(0, i + 1));
+            }
+        }
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (String directory : directories) {
+                zip.putNextEntry(new ZipEntry(directory));
+                zip.closeEntry();
+            }
+            for (String className : CLASS_NAMES) {
+                zip.putNextEntry(new ZipEntry(className.replace('.', '/') + ".class"));
+                zip.closeEntry();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteClassFiles() throws IOException {
+        jarFile.delete();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static boolean skips(ScanFilter filter, String packageName) {
+        return filter.skipsPackageTree(packageName, 0, packageName.length(), '.');
+    }
+
+    @Test
+    public void testPackagePatterns() {
+        ScanFilter filter = new ScanFilter().includePackages("org.xlp.**");
+        assertTrue(filter.acceptsClass("org.xlp.A"));
+        assertTrue(filter.acceptsClass("org.xlp.a.b.C"));
+        assertFalse(filter.acceptsClass("org.xlpx.A"));
+        assertFalse(filter.acceptsClass("org.A"));
+        assertFalse(filter.acceptsClass("A"));
+
+        filter = new ScanFilter().includePackages("**.test.**");
+        assertTrue(filter.acceptsClass("test.A"));
+        assertTrue(filter.acceptsClass("a.test.B"));
+        assertTrue(filter.acceptsClass("a.b.test.c.D"));
+        assertFalse(filter.acceptsClass("a.testing.B"));
+        assertFalse(filter.acceptsClass("a.B"));
+
+        // “*”只匹配一级包名，可以匹配空字符
+        filter = new ScanFilter().includePackages("org.*.impl", "com.*x");
+        assertTrue(filter.acceptsClass("org.a.impl.A"));
+        assertFalse(filter.acceptsClass("org.impl.A"));
+        assertFalse(filter.acceptsClass("org.a.b.impl.A"));
+        assertFalse(filter.acceptsClass("org.a.impl.b.A"));
+        assertTrue(filter.acceptsClass("com.x.A"));
+        assertTrue(filter.acceptsClass("com.abx.A"));
+        assertFalse(filter.acceptsClass("com.xa.A"));
+
+        filter = new ScanFilter().includePackages("com.a?c");
+        assertTrue(filter.acceptsClass("com.abc.A"));
+        assertFalse(filter.acceptsClass("com.ac.A"));
+        assertFalse(filter.acceptsClass("com.abbc.A"));
+
+        // 默认包只能被“**”匹配
+        filter = new ScanFilter().includePackages("**");
+        assertTrue(filter.acceptsClass("A"));
+        assertTrue(filter.acceptsClass("a.b.C"));
+
+        // 通配符可以使用“/”分隔，类名称可以是class条目路径
+        filter = new ScanFilter().includePackages("org/xlp/**").excludePackages("org.xlp.internal");
+        String path = "BOOT-INF/classes/org/xlp/A";
+        assertTrue(filter.acceptsClass(path, path.indexOf("org"), path.length(), '/'));
+        path = "org/xlp/internal/A.class";
+        assertFalse(filter.acceptsClass(path, 0, path.length() - ".class".length(), '/'));
+        assertTrue(filter.acceptsClass("org.xlp.internal.sub.A"));
+        assertTrue(filter.acceptsPackage("xxorg.xlp", 2, 9, '.'));
+        assertFalse(filter.acceptsPackage("xxorg.xlp.internal", 2, 18, '.'));
+    }
+
+    @Test
+    public void testSkipsPackageTree() {
+        // 包含条件按前缀匹配：可能包含满足条件的子包时不能跳过
+        ScanFilter filter = new ScanFilter().includePackages("org.xlp.**");
+        assertFalse(skips(filter, ""));
+        assertFalse(skips(filter, "org"));
+        assertFalse(skips(filter, "org.xlp"));
+        assertFalse(skips(filter, "org.xlp.a.b"));
+        assertTrue(skips(filter, "com"));
+        assertTrue(skips(filter, "orgx"));
+        assertTrue(skips(filter, "org.xl"));
+
+        filter = new ScanFilter().includePackages("org.*.impl");
+        assertFalse(skips(filter, "org.a"));
+        assertFalse(skips(filter, "org.a.impl"));
+        assertTrue(skips(filter, "org.a.other"));
+        assertTrue(skips(filter, "org.a.impl.sub"));
+
+        assertFalse(skips(new ScanFilter().includePackages("**.test.**"), "a.b.c"));
+
+        // 只有以“**”结尾的排除条件才能跳过整个子树
+        filter = new ScanFilter().excludePackages("com.gen.**", "com.other.*");
+        assertFalse(skips(filter, "com"));
+        assertTrue(skips(filter, "com.gen"));
+        assertTrue(skips(filter, "com.gen.x"));
+        assertFalse(skips(filter, "com.other"));
+        assertFalse(skips(filter, "com.other.x"));
+        assertFalse(filter.acceptsClass("com.other.x.A"));
+        assertTrue(filter.acceptsClass("com.other.x.y.A"));
+    }
+
+    @Test
+    public void testSuffixes() {
+        ScanFilter filter = new ScanFilter().includeSuffixes("Service", "Dao").excludeSuffixes("TestService");
+        assertTrue(filter.acceptsClass("a.UserService"));
+        assertTrue(filter.acceptsClass("a.UserDao"));
+        assertTrue(filter.acceptsClass("Service"));
+        assertFalse(filter.acceptsClass("a.UserTestService"));
+        assertFalse(filter.acceptsClass("a.User"));
+        // 只匹配不含包名的类名称
+        assertFalse(filter.acceptsClass("a.Service.Impl"));
+        String name = "a.UserServiceX";
+        assertTrue(filter.acceptsSimpleName(name, 2, name.length() - 1));
+        assertFalse(filter.acceptsSimpleName(name, 2, name.length()));
+
+        filter = new ScanFilter().excludeSuffixes("Test");
+        assertTrue(filter.acceptsClass("a.User"));
+        assertFalse(filter.acceptsClass("a.UserTest"));
+        assertFalse(filter.isNameFilterEmpty());
+        assertTrue(new ScanFilter().isNameFilterEmpty());
+    }
+
+    private static List<ScanFilter> filters() {
+        return Arrays.asList(
+                new ScanFilter().includePackages("app.**").excludePackages("app.gen.**").excludeSuffixes("Test"),
+                new ScanFilter().includePackages("**.service.**"),
+                new ScanFilter().includePackages("app", "app.a?c").excludePackages("**.test.**"),
+                new ScanFilter().includeSuffixes("Service", "Impl").excludePackages("app.service.impl"),
+                new ScanFilter().includePackages("app.*.impl"),
+                new ScanFilter().includePackages("**.impl").excludePackages("app.x.**"),
+                new ScanFilter().excludePackages("app.**"));
+    }
+
+    /**
+     * 跳过的包及其子包中没有被接受的类
+     */
+    @Test
+    public void testSkippedPackagesContainNoAcceptedClasses() {
+        for (ScanFilter filter : filters()) {
+            for (String className : CLASS_NAMES) {
+                if (!filter.acceptsClass(className)) {
+                    continue;
+                }
+                String packageName = "";
+                assertFalse(className, skips(filter, packageName));
+                for (int i = className.indexOf('.'); i > 0; i = className.indexOf('.', i + 1)) {
+                    packageName = className.substring(0, i);
+                    assertFalse(className + " in " + packageName, skips(filter, packageName));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirectoryAndJarScansMatchAcceptsClass() throws IOException {
+        URL[][] classPaths = {{dir.toUri().toURL()}, {jarFile.toURI().toURL()}};
+        for (ScanFilter filter : filters()) {
+            Set<String> expected = new HashSet<>();
+            for (String className : CLASS_NAMES) {
+                if (className.startsWith("app.") && filter.acceptsClass(className)) {
+                    expected.add(className);
+                }
+            }
+            for (URL[] classPath : classPaths) {
+                try (URLClassLoader classLoader = new URLClassLoader(classPath, null)) {
+                    ClassPathPkgScanner scanner = new ClassPathPkgScanner(classLoader);
+                    scanner.setScanNestedJars(false);
+                    assertEquals(classPath[0].toString(), expected, scanner.scanner("app", filter));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.xlp;
+
+import org.junit.Test;
+import org.xlp.scanner.cache.ScanResultCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试{@link ScanResultCache}保存、加载缓存文件，以及缓存文件或jar文件变化时的失效
+ */
+public class ScanResultCacheTest {
+    private static final List<String> CLASS_PATHS = Arrays.asList("org/xlp/A", "org/xlp/b/B", "中文/C");
+
+    private final Path dir;
+
+    private final Path cacheFile;
+
+    private final File jarFile;
+
+    public ScanResultCacheTest() throws IOException {
+        dir = Files.createTempDirectory("xlp-scan-cache");
+        cacheFile = dir.resolve("cache").resolve("scan.cache");
+        jarFile = newJar("a.jar");
+    }
+
+    private File newJar(String name) throws IOException {
+        Path jar = dir.resolve(name);
+        Files.write(jar, name.getBytes("UTF-8"));
+        return jar.toFile();
+    }
+
+    /**
+     * 保存一个jar文件的扫描结果，返回缓存文件内容
+     */
+    private byte[] saveOneJar() throws IOException {
+        ScanResultCache cache = new ScanResultCache(cacheFile);
+        cache.put(jarFile, CLASS_PATHS);
+        cache.save();
+        return Files.readAllBytes(cacheFile);
+    }
+
+    private void assertDiscarded(byte[] content) throws IOException {
+        Files.write(cacheFile, content);
+        ScanResultCache cache = new ScanResultCache(cacheFile);
+        assertNull(cache.get(jarFile));
+        // 丢弃后重新保存为有效的缓存文件
+        cache.put(jarFile, CLASS_PATHS);
+        cache.save();
+        assertEquals(CLASS_PATHS, new ScanResultCache(cacheFile).get(jarFile));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File removedJar = newJar("removed.jar");
+        ScanResultCache cache = new ScanResultCache(cacheFile);
+        assertNull(cache.get(jarFile));
+        cache.put(jarFile, CLASS_PATHS);
+        cache.put(removedJar, Collections.singletonList("org/xlp/Removed"));
+        assertEquals(CLASS_PATHS, cache.get(jarFile));
+        Files.delete(removedJar.toPath());
+        cache.save();
+
+        ScanResultCache loaded = new ScanResultCache(cacheFile);
+        assertEquals(CLASS_PATHS, loaded.get(jarFile));
+        // 保存时删除jar文件已不存在的条目
+        Files.write(removedJar.toPath(), "removed.jar".getBytes("UTF-8"));
+        assertTrue(removedJar.setLastModified(jarFile.lastModified()));
+        assertNull(loaded.get(removedJar));
+
+        // 内容没有变化时不写入
+        long lastModified = Files.getLastModifiedTime(cacheFile).toMillis();
+        byte[] content = Files.readAllBytes(cacheFile);
+        loaded.save();
+        assertArrayEquals(content, Files.readAllBytes(cacheFile));
+        assertEquals(lastModified, Files.getLastModifiedTime(cacheFile).toMillis());
+    }
+
+    @Test
+    public void testStaleJarFile() throws IOException {
+        saveOneJar();
+        assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000));
+        assertNull(new ScanResultCache(cacheFile).get(jarFile));
+
+        saveOneJar();
+        long lastModified = jarFile.lastModified();
+        Files.write(jarFile.toPath(), "changed size".getBytes("UTF-8"));
+        assertTrue(jarFile.setLastModified(lastModified));
+        assertNull(new ScanResultCache(cacheFile).get(jarFile));
+    }
+
+    @Test
+    public void testCorruptCacheFile() throws IOException {
+        byte[] content = saveOneJar();
+        // 修改内容中的一个字节，校验值不一致
+        byte[] corrupt = content.clone();
+        corrupt[corrupt.length - 1] ^= 1;
+        assertDiscarded(corrupt);
+
+        byte[] badMagic = content.clone();
+        badMagic[0] ^= 1;
+        assertDiscarded(badMagic);
+
+        assertDiscarded("not a cache file".getBytes("UTF-8"));
+        assertDiscarded(new byte[0]);
+    }
+
+    @Test
+    public void testTruncatedCacheFile() throws IOException {
+        byte[] content = saveOneJar();
+        for (int length = 0; length < content.length; length++) {
+            assertDiscarded(Arrays.copyOf(content, length));
+        }
+        // 末尾多余的内容
+        assertDiscarded(Arrays.copyOf(content, content.length + 1));
+    }
+
+    @Test
+    public void testWrongVersion() throws IOException {
+        byte[] content = saveOneJar();
+        // 魔数之后的int为版本
+        content[7]++;
+        assertDiscarded(content);
+    }
+
+    @Test
+    public void testPutDuringSaveIsNotLost() throws Exception {
+        List<File> jars = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            jars.add(newJar(i + ".jar"));
+        }
+        ScanResultCache cache = new ScanResultCache(cacheFile);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int start = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = start; i < jars.size(); i += 2) {
+                        cache.put(jars.get(i), Collections.singletonList("org/xlp/Jar" + i));
+                    }
+                    return null;
+                }));
+            }
+            Future<?> saver = pool.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    cache.save();
+                }
+                return null;
+            });
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            saver.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        cache.save();
+
+        ScanResultCache loaded = new ScanResultCache(cacheFile);
+        for (int i = 0; i < jars.size(); i++) {
+            assertEquals(Collections.singletonList("org/xlp/Jar" + i), loaded.get(jars.get(i)));
+        }
+    }
+}